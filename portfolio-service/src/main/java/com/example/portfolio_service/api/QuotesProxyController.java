@@ -73,6 +73,11 @@ public class QuotesProxyController {
         return ResponseEntity.ok(quotes.resolve(query,jwt.getTokenValue()).block());
     }
 
+    @PostMapping("/resolve")
+    public ResponseEntity<?> resolveAll(@RequestBody List<String> queries, @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(quotes.resolveAll(queries, jwt.getTokenValue()).block());
+    }
+
     @GetMapping("/price")
     public ResponseEntity<?> price(@RequestParam String ticker, @AuthenticationPrincipal Jwt jwt) {
         return ResponseEntity.ok(quotes.price(ticker,jwt.getTokenValue()).block());
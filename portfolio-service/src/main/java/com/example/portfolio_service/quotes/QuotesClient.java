@@ -53,6 +53,20 @@ public class QuotesClient {
                 .bodyToMono(SymbolDTO.class);
     }
 
+    // Validates many tickers in one round trip: one result per query, in order; ticker is null if unknown
+    public Mono<List<ResolvedDTO>> resolveAll(List<String> queries, String bearerToken) {
+        return webClient
+                .post()
+                .uri(uri -> uri.path("/quotes/resolve").build())
+                .headers(h -> h.setBearerAuth(bearerToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(queries)
+                .retrieve()
+                .bodyToFlux(ResolvedDTO.class)
+                .collectList();
+    }
+
     public Mono<PriceDTO> price(String ticker,String bearerToken) {
         return webClient
                 .get()
@@ -116,5 +130,6 @@ public class QuotesClient {
 
 
     @Data public static class SymbolDTO { String ticker; String name; }
+    @Data public static class ResolvedDTO { String query; String ticker; String name; }
     @Data public static class PriceDTO  { String ticker; Double price; }
 }
@@ -3,9 +3,10 @@ package com.example.reporting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-
+@EnableScheduling
 public class ReportingApplication {
     public static void main(String[] args) {
         SpringApplication.run(ReportingApplication.class, args);
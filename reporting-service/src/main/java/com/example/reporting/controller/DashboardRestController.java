@@ -1,11 +1,21 @@
 package com.example.reporting.controller;
 
+import com.example.reporting.model.BreadthHistogramResponse;
+import com.example.reporting.model.BreadthSeriesResponse;
+import com.example.reporting.model.CursorPage;
 import com.example.reporting.model.MarketBreadthResponse;
+import com.example.reporting.model.ScreenerResponse;
+import com.example.reporting.model.SectorBreadthResponse;
 import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.StockQuery;
 import com.example.reporting.service.MarketBreadthService;
 import com.example.reporting.service.StockService;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,15 +44,28 @@ public class DashboardRestController {
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "all") String view,
-            @RequestParam(defaultValue = "50") Integer pageSize // 👈 new param
+            @RequestParam(defaultValue = "50") Integer pageSize, // 👈 new param
+            @RequestParam(required = false) String cursor // keyset paging; replaces page when present
     ) {
 
-        List<StockAnalytics> stocks = stockService.getFilteredStocks(
+        StockQuery query = new StockQuery(
                 minMarketCap, minDailyChange, minRank1Week, minRank1Month,
                 sortBy, order, search, view, page, pageSize);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("stocks", stocks);
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorPage stocks = stockService.scrollStocks(query, cursor);
+            response.put("stocks", stocks.stocks());
+            response.put("nextCursor", stocks.nextCursor());
+        } else {
+            Page<StockAnalytics> stocks = stockService.findStocks(query);
+            response.put("stocks", stocks.getContent());
+            response.put("total", stocks.getTotalElements());
+            // lets a page-number client continue with cursors from here
+            response.put("nextCursor", stocks.hasNext() && stocks.hasContent()
+                    ? stockService.cursorAfter(query, stocks.getContent().get(stocks.getNumberOfElements() - 1))
+                    : null);
+        }
         response.put("minMarketCap", minMarketCap);
         response.put("minDailyChange", minDailyChange);
         response.put("minRank1Week", minRank1Week);
@@ -57,6 +80,17 @@ public class DashboardRestController {
         return response; // Spring Boot auto-serializes to JSON
     }
 
+    // e.g. /api/screener?expression=rank1Week > 5 and cmp >= cmp365 * 0.95 and marketCap between 500 and 5000
+    @GetMapping("/screener")
+    public ScreenerResponse screener(
+            @RequestParam String expression,
+            @RequestParam(defaultValue = "rank1Week") String sortBy,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int pageSize) {
+        return stockService.screen(expression, sortBy, order, page, pageSize);
+    }
+
     @GetMapping("/market-breadth")
     public MarketBreadthResponse marketBreadth(
             @RequestParam(required = false) Double minMarketCap,
@@ -66,7 +100,42 @@ public class DashboardRestController {
             @RequestParam(defaultValue = "true") boolean includeSectors) {
 
         double[] thresholds = {t1, t2, t3};
-        return marketBreadthService.compute(minMarketCap, thresholds);
+        MarketBreadthResponse response = marketBreadthService.compute(minMarketCap, thresholds);
+        if (includeSectors) {
+            response.sectors = marketBreadthService.sectors(null, null, "sector").cells();
+        }
+        return response;
+    }
+
+    // heatmap slices, e.g. /api/market-breadth/sectors?tier=large or ?sector=Healthcare&groupBy=tier
+    @GetMapping("/market-breadth/sectors")
+    public SectorBreadthResponse marketBreadthSectors(
+            @RequestParam(required = false) String sector,
+            @RequestParam(required = false) String tier,
+            @RequestParam(defaultValue = "cell") String groupBy) {
+        return marketBreadthService.sectors(sector, tier, groupBy);
+    }
+
+    // e.g. /api/market-breadth/histogram?edges=-10,-5,-2,0,2,5,10&minMarketCap=0,5000,20000
+    @GetMapping("/market-breadth/histogram")
+    public BreadthHistogramResponse marketBreadthHistogram(
+            @RequestParam(defaultValue = "-8,-5,-3,0,3,5,8") double[] edges,
+            @RequestParam(required = false) List<Double> minMarketCap) {
+        return marketBreadthService.histogram(edges, minMarketCap);
+    }
+
+    // the day's breadth per import: /api/market-breadth/series, or ?from=2025-01-01&to=2025-01-31
+    @GetMapping("/market-breadth/series")
+    public BreadthSeriesResponse marketBreadthSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate day = from != null ? from : LocalDate.now();
+        return marketBreadthService.series(day, to != null ? to : day);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 }
 
@@ -0,0 +1,43 @@
+package com.example.reporting.controller;
+
+import com.example.reporting.model.PriceSeriesResponse;
+import com.example.reporting.service.PriceHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class PriceHistoryController {
+
+    private final PriceHistoryService historyService;
+
+    public PriceHistoryController(PriceHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    // e.g. /api/history?tickers=NSE:TCS,NSE:INFY&from=2025-01-01&to=2025-03-31&field=cmp&step=1d
+    @GetMapping("/history")
+    public PriceSeriesResponse history(
+            @RequestParam List<String> tickers,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "cmp") String field,
+            @RequestParam(required = false) Duration step) {
+        return historyService.getSeries(tickers, from, to != null ? to : LocalDate.now(), field, step);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -5,7 +5,9 @@ import com.example.reporting.model.StockAnalytics;
 
 
 import com.example.reporting.repository.StockAnalyticsRepository;
+import com.example.reporting.service.SymbolSearchService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,9 +26,14 @@ import java.util.stream.Collectors;
 public class QuoteController {
 
     private final StockAnalyticsRepository repo;
+    private final SymbolSearchService searchService;
 
-    public QuoteController(StockAnalyticsRepository repo) {
+    @Value("${reporting.search.max-resolve-batch:500}")
+    private int maxResolveBatch;
+
+    public QuoteController(StockAnalyticsRepository repo, SymbolSearchService searchService) {
         this.repo = repo;
+        this.searchService = searchService;
     }
 
     // ----------------------------------------------------
@@ -53,26 +60,29 @@ public class QuoteController {
 
     // ----------------------------------------------------
     // 2) Autocomplete search
-    // GET /api/quotes/search?q=RELI&limit=10
+    // GET /api/quotes/search?q=RELI&limit=10&match=auto
+    // Served from the in-memory search index: prefix matches first, then substring matches,
+    // each by market cap.
+    // match=prefix: only that; match=fuzzy: typo-tolerant ("RELAINCE"), closest first;
+    // match=auto (default): fuzzy only when prefix/substring finds nothing
     // ----------------------------------------------------
     @GetMapping("/search")
     public List<SymbolDTO> search(@RequestParam String q,
-                                  @RequestParam(defaultValue = "10") int limit) {
+                                  @RequestParam(defaultValue = "10") int limit,
+                                  @RequestParam(defaultValue = "auto") String match) {
         if (q == null || q.isBlank()) return List.of();
-        String query = q.trim();
-
-        // Get a larger chunk, then sort/limit here
-        List<StockAnalytics> hits =
-                repo.findTop100ByTickerContainingIgnoreCaseOrNameContainingIgnoreCase(query, query);
-
-        // Prefer large market cap first (nulls last)
-        hits.sort(Comparator.comparing(
-                StockAnalytics::getMarketCap,
-                Comparator.nullsLast(Comparator.reverseOrder()))
-        );
 
+        List<StockAnalytics> hits = switch (match) {
+            case "prefix" -> searchService.search(q, limit);
+            case "fuzzy" -> searchService.fuzzySearch(q, limit);
+            case "auto" -> {
+                List<StockAnalytics> exact = searchService.search(q, limit);
+                yield exact.isEmpty() ? searchService.fuzzySearch(q, limit) : exact;
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "match must be prefix, fuzzy or auto");
+        };
         return hits.stream()
-                .limit(Math.max(1, Math.min(limit, 50)))
                 .map(s -> new SymbolDTO(s.getTicker(), s.getName()))
                 .toList();
     }
@@ -80,7 +90,7 @@ public class QuoteController {
     // ----------------------------------------------------
     // 3) Resolve a loose query to a canonical ticker (404 if unknown)
     // GET /api/quotes/resolve?query=TCS
-    // Accepts: TCS, NSE:TCS, BSE:TCS, company name fragments
+    // Accepts: TCS, NSE:TCS, BSE:TCS, company names and fragments, misspellings
     // ----------------------------------------------------
     @GetMapping("/resolve")
     public SymbolDTO resolve(@RequestParam String query) {
@@ -89,6 +99,26 @@ public class QuoteController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Symbol not found"));
     }
 
+    // ----------------------------------------------------
+    // 3b) Bulk resolve, one result per query in request order (ticker/name null if unknown)
+    // POST /api/quotes/resolve  ["TCS", "infosys", "NSE:XYZ"]
+    // ----------------------------------------------------
+    @PostMapping("/resolve")
+    public List<ResolvedDTO> resolveAll(@RequestBody List<String> queries) {
+        if (queries.size() > maxResolveBatch) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxResolveBatch + " queries per request");
+        }
+        List<ResolvedDTO> resolved = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            Optional<StockAnalytics> s = resolveSymbol(query);
+            resolved.add(new ResolvedDTO(query,
+                    s.map(StockAnalytics::getTicker).orElse(null),
+                    s.map(StockAnalytics::getName).orElse(null)));
+        }
+        return resolved;
+    }
+
     // ----------------------------------------------------
     // 4) Simple price endpoint
     // GET /api/quotes/price?ticker=NSE:TCS
@@ -102,30 +132,10 @@ public class QuoteController {
 
     // ---------- helpers ----------
 
+    // In-memory, no database round trips: exact ticker, NSE:/BSE: + plain symbol, company name,
+    // then (remembered per import, including misses) best search hit and closest spelling
     private Optional<StockAnalytics> resolveSymbol(String raw) {
-        if (raw == null || raw.isBlank()) return Optional.empty();
-        String q = raw.trim();
-
-        // 1) Exact ticker match (case-insensitive)
-        Optional<StockAnalytics> exact = repo.findFirstByTickerIgnoreCase(q);
-        if (exact.isPresent()) return exact;
-
-        // 2) Try NSE:/BSE: prefix if user typed plain symbol
-        if (!q.contains(":")) {
-            exact = repo.findFirstByTickerIgnoreCase("NSE:" + q);
-            if (exact.isPresent()) return exact;
-            exact = repo.findFirstByTickerIgnoreCase("BSE:" + q);
-            if (exact.isPresent()) return exact;
-        }
-
-        // 3) Fallback fuzzy search on ticker/name, pick the biggest market cap
-        List<StockAnalytics> candidates =
-                repo.findTop100ByTickerContainingIgnoreCaseOrNameContainingIgnoreCase(q, q);
-        candidates.sort(Comparator.comparing(
-                StockAnalytics::getMarketCap,
-                Comparator.nullsLast(Comparator.reverseOrder()))
-        );
-        return candidates.stream().findFirst();
+        return searchService.resolve(raw);
     }
 
     // ---------- DTOs ----------
@@ -143,6 +153,12 @@ public class QuoteController {
             String name
     ) {}
 
+    public record ResolvedDTO(
+            String query,
+            String ticker,
+            String name
+    ) {}
+
     public record PriceDTO(
             String ticker,
             Double price
@@ -0,0 +1,87 @@
+package com.example.reporting.controller;
+
+import com.example.reporting.model.SavedScreenerRequest;
+import com.example.reporting.model.SavedScreenerResponse;
+import com.example.reporting.model.ScreenerChangesResponse;
+import com.example.reporting.model.ScreenerResponse;
+import com.example.reporting.service.SavedScreenerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Screeners saved by the calling user (JWT subject). Results are kept up to date across imports, so polling
+ * /{id}/results or /{id}/changes does not rescan the universe.
+ */
+@RestController
+@RequestMapping("/api/screeners")
+public class SavedScreenerController {
+
+    private final SavedScreenerService savedScreenerService;
+
+    public SavedScreenerController(SavedScreenerService savedScreenerService) {
+        this.savedScreenerService = savedScreenerService;
+    }
+
+    @GetMapping
+    public List<SavedScreenerResponse> list(@AuthenticationPrincipal Jwt jwt) {
+        return savedScreenerService.list(jwt.getSubject());
+    }
+
+    @PostMapping
+    public ResponseEntity<SavedScreenerResponse> create(@AuthenticationPrincipal Jwt jwt,
+                                                        @RequestBody SavedScreenerRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedScreenerService.create(jwt.getSubject(), request));
+    }
+
+    @PutMapping("/{id}")
+    public SavedScreenerResponse update(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id,
+                                        @RequestBody SavedScreenerRequest request) {
+        return savedScreenerService.update(jwt.getSubject(), id, request)
+                .orElseThrow(SavedScreenerController::notFound);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id) {
+        if (!savedScreenerService.delete(jwt.getSubject(), id)) throw notFound();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/results")
+    public ScreenerResponse results(
+            @AuthenticationPrincipal Jwt jwt,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "rank1Week") String sortBy,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "50") Integer pageSize) {
+        return savedScreenerService.results(jwt.getSubject(), id, sortBy, order, page, pageSize)
+                .orElseThrow(SavedScreenerController::notFound);
+    }
+
+    /**
+     * Tickers that entered or left the screen after commit sequence {@code since}; the response's generation
+     * is the {@code since} of the next poll.
+     */
+    @GetMapping("/{id}/changes")
+    public ScreenerChangesResponse changes(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id,
+                                           @RequestParam long since) {
+        return savedScreenerService.changes(jwt.getSubject(), id, since)
+                .orElseThrow(SavedScreenerController::notFound);
+    }
+
+    private static ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Screener not found");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
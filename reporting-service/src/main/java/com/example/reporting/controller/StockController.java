@@ -1,32 +1,28 @@
 // StockController.java with pagination, filters, and sorting for top gainers
 package com.example.reporting.controller;
 
+import com.example.reporting.model.CursorPage;
 import com.example.reporting.model.StockAnalytics;
-import com.example.reporting.repository.StockAnalyticsRepository;
 import com.example.reporting.service.StockService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Controller
 public class StockController {
 
-    private final StockAnalyticsRepository repository;
-    @Autowired
-    private StockService stockService;
+    private final StockService stockService;
 
-    public StockController(StockAnalyticsRepository repository) {
-        this.repository = repository;
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
     }
 
     @CrossOrigin(origins = "http://localhost:8080", allowCredentials = "true")
@@ -70,8 +66,10 @@ public class StockController {
 
 
 
+    // page/size as before (first 500 matches); with cursor, keyset pages over all matches.
+    // Either way the X-Next-Cursor header carries the cursor for the following page, when there is one.
     @GetMapping("/top-gainers")
-    public List<StockAnalytics> getTopGainers(
+    public ResponseEntity<List<StockAnalytics>> getTopGainers(
             @RequestParam(required = false) Double minMarketCap,
             @RequestParam(required = false) Double minRank1Week,
             @RequestParam(required = false) Double minDailyChange,
@@ -79,44 +77,29 @@ public class StockController {
             @RequestParam(defaultValue = "rank1Week") String sortBy,
             @RequestParam(defaultValue = "desc") String order,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor
     ) {
-        List<StockAnalytics> filtered = repository.findAll().stream()
-                .filter(s -> s.getCmp() != null && s.getMarketCap() != null)
-                .filter(s -> minMarketCap == null || s.getMarketCap() >= minMarketCap)
-                .filter(s -> minRank1Week == null || (s.getRank1Week() != null && s.getRank1Week() >= minRank1Week))
-                .filter(s -> minDailyChange == null || (s.getDailyChange() != null && s.getDailyChange() >= minDailyChange))
-                .filter(s -> minRank1Month == null || (s.getRank1Month() != null && s.getRank1Month() >= minRank1Month))
-                .sorted((a, b) -> compareByField(b, a, sortBy))
-                .limit(500)
-                .collect(Collectors.toList());
-
-        int from = page * size;
-        int to = Math.min(from + size, filtered.size());
-        if (from > to) return List.of();
-
-        return filtered.subList(from, to);
-    }
-
-    private int compareByField(StockAnalytics a, StockAnalytics b, String field) {
-        try {
-            Double valA = getFieldAsDouble(a, field);
-            Double valB = getFieldAsDouble(b, field);
-            return Double.compare(valA != null ? valA : 0, valB != null ? valB : 0);
-        } catch (Exception e) {
-            return 0;
+        if (cursor == null || cursor.isEmpty()) {
+            List<StockAnalytics> stocks = stockService.getTopGainers(minMarketCap, minRank1Week, minDailyChange,
+                    minRank1Month, sortBy, page, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (size > 0 && stocks.size() == size) {
+                response.header("X-Next-Cursor", stockService.topGainersCursorAfter(sortBy, stocks.get(size - 1)));
+            }
+            return response.body(stocks);
+        }
+        CursorPage stocks = stockService.scrollTopGainers(minMarketCap, minRank1Week, minDailyChange, minRank1Month,
+                sortBy, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (stocks.nextCursor() != null) {
+            response.header("X-Next-Cursor", stocks.nextCursor());
         }
+        return response.body(stocks.stocks());
     }
 
-    private Double getFieldAsDouble(StockAnalytics s, String fieldName) {
-        return switch (fieldName) {
-            case "cmp" -> s.getCmp();
-            case "marketCap" -> s.getMarketCap();
-            case "dailyChange" -> s.getDailyChange();
-            case "rank1Week" -> s.getRank1Week();
-            case "rank1Month" -> s.getRank1Month();
-            case "rank1Year" -> s.getRank1Year();
-            default -> null;
-        };
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.example.reporting.model;
+
+import java.util.List;
+
+/**
+ * Daily-change histogram for /api/market-breadth/histogram. With edges e0 &lt; e1 &lt; ..., bucket 0 is
+ * change &lt; e0, bucket k is e(k-1) &lt;= change &lt; e(k), and the last bucket is change &gt;= e_last.
+ */
+public record BreadthHistogramResponse(double[] edges, List<Floor> floors) {
+
+    /**
+     * Counts for the stocks at or above one market-cap floor (null = every stock).
+     *
+     * @param missing stocks without a daily change, counted as 0 as in the headline breadth
+     * @param atLeast per edge, stocks with change &gt;= edge (cumulative from the top)
+     * @param atMost  per edge, stocks with change &lt;= edge (cumulative from the bottom)
+     */
+    public record Floor(Double minMarketCap,
+                        int total,
+                        int missing,
+                        int[] buckets,
+                        int[] atLeast,
+                        int[] atMost) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.reporting.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Market breadth per import generation, in time order: epoch seconds in {@code t}, and for each count
+ * (total, advances, declines, unchanged, missing, above3/5/8, below3/5/8) an array parallel to it.
+ */
+public record BreadthSeriesResponse(LocalDate from,
+                                    LocalDate to,
+                                    long[] t,
+                                    Map<String, int[]> counts) {
+}
@@ -0,0 +1,11 @@
+package com.example.reporting.model;
+
+import java.util.List;
+
+/**
+ * One keyset page.
+ *
+ * @param nextCursor token for the following page, null on the last page
+ */
+public record CursorPage(List<StockAnalytics> stocks, String nextCursor) {
+}
@@ -2,6 +2,8 @@
 package com.example.reporting.model;
 // src/main/java/com/example/reporting/breadth/dto/MarketBreadthResponse.java
 
+import java.util.List;
+
 
 public class MarketBreadthResponse {
     public int total;
@@ -17,5 +19,8 @@ public class MarketBreadthResponse {
     public int below3;            // <= -3%
     public int below5;            // <= -5%
     public int below8;            // <= -8%
+
+    // per sector, all tiers (stocks with a market cap, regardless of minMarketCap); only with includeSectors
+    public List<SectorBreadthResponse.Cell> sectors;
 }
 
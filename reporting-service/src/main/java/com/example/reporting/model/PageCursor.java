@@ -0,0 +1,41 @@
+package com.example.reporting.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position after the last row of a page: the row's sort key and ticker, plus the sort it belongs to.
+ * Handed to clients as an opaque URL-safe token.
+ *
+ * @param key text form of the sort value (a double, a name, or epoch microseconds for lastUpdated);
+ *            null when the row had no value, i.e. the position is in the trailing "missing values" block
+ */
+public record PageCursor(String sortBy, boolean descending, String key, String ticker) {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "\u001f";
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortBy, descending ? "d" : "a",
+                key == null ? "n" : "v" + key, ticker);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0]) || parts[3].isEmpty()
+                || !(parts[2].equals("a") || parts[2].equals("d"))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String key = parts[3].charAt(0) == 'v' ? parts[3].substring(1) : null;
+        return new PageCursor(parts[1], parts[2].equals("d"), key, parts[4]);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.reporting.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Compact per-ticker series from stock_price_history: parallel arrays of epoch seconds and values,
+ * in time order. Tickers without points in the range are left out.
+ */
+public record PriceSeriesResponse(String field,
+                                  LocalDate from,
+                                  LocalDate to,
+                                  Long stepSeconds,
+                                  Map<String, Series> series) {
+
+    public record Series(long[] t, double[] v) {
+    }
+}
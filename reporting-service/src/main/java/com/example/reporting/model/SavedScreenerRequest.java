@@ -0,0 +1,7 @@
+package com.example.reporting.model;
+
+/**
+ * Body of POST/PUT /api/screeners.
+ */
+public record SavedScreenerRequest(String name, String expression) {
+}
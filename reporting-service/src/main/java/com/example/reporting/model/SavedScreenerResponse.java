@@ -0,0 +1,14 @@
+package com.example.reporting.model;
+
+/**
+ * A saved screener with the size of its materialized result set.
+ *
+ * @param generation commit sequence of the import generation the result set reflects
+ * @param matches    number of stocks currently in the screen
+ */
+public record SavedScreenerResponse(Long id,
+                                    String name,
+                                    String expression,
+                                    long generation,
+                                    int matches) {
+}
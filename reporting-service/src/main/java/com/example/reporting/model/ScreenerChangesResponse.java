@@ -0,0 +1,17 @@
+package com.example.reporting.model;
+
+import java.util.List;
+
+/**
+ * Net change of a saved screener's result set between two import generations: a ticker that entered and left
+ * again in between is in neither list.
+ *
+ * @param since      commit sequence the client last saw
+ * @param generation commit sequence the result set reflects now; pass it as the next {@code since}
+ */
+public record ScreenerChangesResponse(Long id,
+                                      long since,
+                                      long generation,
+                                      List<String> entered,
+                                      List<String> left) {
+}
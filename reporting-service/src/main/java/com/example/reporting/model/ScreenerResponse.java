@@ -0,0 +1,33 @@
+package com.example.reporting.model;
+
+import java.util.List;
+
+/**
+ * One page of the stocks matching a screener expression.
+ *
+ * @param generation commit sequence of the import generation the universe snapshot was built from
+ * @param total      number of matching stocks
+ */
+public record ScreenerResponse(String expression,
+                               long generation,
+                               int total,
+                               int page,
+                               int pageSize,
+                               List<StockAnalytics> stocks,
+                               Cost cost) {
+
+    /**
+     * What this request cost.
+     *
+     * @param cached         the compiled expression was reused; compileMicros is then 0
+     * @param rowsScanned    rows the expression was evaluated on
+     * @param evaluateMicros time to bind the expression to the snapshot and scan it
+     * @param sortMicros     time to order the matches as far as the requested page
+     */
+    public record Cost(boolean cached,
+                       double compileMicros,
+                       int rowsScanned,
+                       double evaluateMicros,
+                       double sortMicros) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.reporting.model;
+
+import java.util.List;
+
+/**
+ * Slice of the sector x market-cap tier breadth cube of one universe snapshot.
+ *
+ * @param generation commit sequence of the import generation the cube was computed from
+ * @param groupBy    "cell" (sector x tier), "sector" (tiers merged, tier = "all") or "tier" (sectors merged,
+ *                   sector = "all")
+ */
+public record SectorBreadthResponse(long generation, String groupBy, List<Cell> cells) {
+
+    /**
+     * Breadth of one group. Counts follow the headline breadth rules (a missing daily change counts as 0);
+     * avgChange is over the stocks that have a daily change, null if none do.
+     */
+    public record Cell(String sector,
+                       String tier,
+                       int total,
+                       int green,
+                       int red,
+                       int missing,
+                       int above3,
+                       int above5,
+                       int above8,
+                       int below3,
+                       int below5,
+                       int below8,
+                       Double avgChange) {
+    }
+}
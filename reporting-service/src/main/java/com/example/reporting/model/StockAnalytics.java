@@ -3,6 +3,7 @@ package com.example.reporting.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Transient;
 import java.time.LocalDateTime;
 
 @Entity
@@ -19,6 +20,9 @@ public class StockAnalytics {
     private Double rank1Week;
     private Double marketCap;
     private LocalDateTime lastUpdated;
+    // from the sector mapping file; not a stock_analytics column
+    @Transient
+    private String sector;
 
     public String getTicker() {
         return ticker;
@@ -107,5 +111,13 @@ public class StockAnalytics {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public String getSector() {
+        return sector;
+    }
+
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
 // Getters and Setters
 }
@@ -0,0 +1,29 @@
+package com.example.reporting.model;
+
+/**
+ * Dashboard query parameters, as accepted by /dashboard and /api/dashboard.
+ *
+ * @param view     all | 52w (at or above the 1Y-ago price) | recent (no 1Y history) | daily (up 10% or more)
+ * @param sortBy   cmp, marketCap, dailyChange, rank1Week, rank1Month, rank1Year, rank2Month, name, ticker
+ *                 or lastUpdated; anything else sorts by dailyChange
+ * @param order    asc | desc
+ */
+public record StockQuery(Double minMarketCap,
+                         Double minDailyChange,
+                         Double minRank1Week,
+                         Double minRank1Month,
+                         String sortBy,
+                         String order,
+                         String search,
+                         String view,
+                         int page,
+                         int pageSize) {
+
+    public boolean descending() {
+        return "desc".equalsIgnoreCase(order);
+    }
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.reporting.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Immutable column-wise copy of stock_analytics as of one import generation.
+ * <p>
+ * Row i of the universe is {@code ticker[i], name[i], cmp[i], ...}. Numeric columns are primitive arrays
+ * with NaN for a missing value; lastUpdated is epoch seconds of the stored local time (Long.MIN_VALUE if missing).
+ * sector comes from the sector mapping file, not from stock_analytics (null if unmapped). generation is the commit
+ * sequence (import_generation.commit_seq) of the import that last wrote the row (-1 if unknown); the version is the
+ * latest commit sequence, so the rows changed since an older snapshot of version v are those with
+ * {@code generation[i] > v}.
+ * Arrays are never modified after construction, so a snapshot can be read from any thread without locks.
+ */
+public final class UniverseSnapshot {
+
+    public static final UniverseSnapshot EMPTY = new UniverseSnapshot(-1, 0);
+
+    private final long version;
+    private final int size;
+
+    public final String[] ticker;
+    public final String[] name;
+    public final double[] cmp;
+    public final double[] dailyChange;
+    public final double[] cmp365;
+    public final double[] rank1Year;
+    public final double[] rank1Month;
+    public final double[] rank2Month;
+    public final double[] rank1Week;
+    public final double[] marketCap;
+    public final long[] lastUpdated;
+    public final String[] sector;
+    public final long[] generation;
+
+    /**
+     * @param version commit sequence of the latest import generation (or another marker that grows in commit
+     *                order) the snapshot was built from
+     */
+    public UniverseSnapshot(long version, int size) {
+        this.version = version;
+        this.size = size;
+        this.ticker = new String[size];
+        this.name = new String[size];
+        this.cmp = new double[size];
+        this.dailyChange = new double[size];
+        this.cmp365 = new double[size];
+        this.rank1Year = new double[size];
+        this.rank1Month = new double[size];
+        this.rank2Month = new double[size];
+        this.rank1Week = new double[size];
+        this.marketCap = new double[size];
+        this.lastUpdated = new long[size];
+        this.sector = new String[size];
+        this.generation = new long[size];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the numeric column for a sort/filter field name as used by the dashboard, or null
+     */
+    public double[] column(String field) {
+        return switch (field) {
+            case "cmp" -> cmp;
+            case "dailyChange" -> dailyChange;
+            case "cmp365" -> cmp365;
+            case "rank1Year" -> rank1Year;
+            case "rank1Month" -> rank1Month;
+            case "rank2Month" -> rank2Month;
+            case "rank1Week" -> rank1Week;
+            case "marketCap" -> marketCap;
+            default -> null;
+        };
+    }
+
+    /**
+     * Materializes row i as a detached entity (for templates and JSON responses).
+     */
+    public StockAnalytics toEntity(int i) {
+        StockAnalytics s = new StockAnalytics();
+        s.setTicker(ticker[i]);
+        s.setName(name[i]);
+        s.setCmp(boxed(cmp[i]));
+        s.setDailyChange(boxed(dailyChange[i]));
+        s.setCmp365(boxed(cmp365[i]));
+        s.setRank1Year(boxed(rank1Year[i]));
+        s.setRank1Month(boxed(rank1Month[i]));
+        s.setRank2Month(boxed(rank2Month[i]));
+        s.setRank1Week(boxed(rank1Week[i]));
+        s.setMarketCap(boxed(marketCap[i]));
+        s.setLastUpdated(lastUpdated[i] == Long.MIN_VALUE ? null
+                : LocalDateTime.ofEpochSecond(lastUpdated[i], 0, ZoneOffset.UTC));
+        s.setSector(sector[i]);
+        return s;
+    }
+
+    public static long epochSeconds(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
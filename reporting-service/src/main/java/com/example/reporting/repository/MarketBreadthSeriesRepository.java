@@ -0,0 +1,35 @@
+package com.example.reporting.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reads market_breadth_series, one row per committed import generation (written by sheet-import-service).
+ * A date range is one range scan of the ts index.
+ */
+@Repository
+public class MarketBreadthSeriesRepository {
+
+    public static final String[] COUNT_COLUMNS = {"total", "advances", "declines", "unchanged", "missing",
+            "above3", "above5", "above8", "below3", "below5", "below8"};
+
+    private static final String SELECT_SQL = "SELECT ts, " + String.join(", ", COUNT_COLUMNS) +
+            " FROM market_breadth_series WHERE ts >= ? AND ts < ? ORDER BY ts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MarketBreadthSeriesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams rows in ts order: column 1 is ts, then {@link #COUNT_COLUMNS} in order.
+     */
+    public void streamRange(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_SQL, handler, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
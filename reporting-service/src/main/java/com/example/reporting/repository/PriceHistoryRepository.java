@@ -0,0 +1,62 @@
+package com.example.reporting.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads stock_price_history (written by sheet-import-service, range-partitioned by day on ts).
+ * The (ticker, ts) primary key turns every read into an index range scan on the partitions in range.
+ */
+@Repository
+public class PriceHistoryRepository {
+
+    // request field -> column; the only values ever concatenated into SQL
+    public static final Map<String, String> COLUMNS = Map.of(
+            "cmp", "cmp",
+            "dailyChange", "daily_change",
+            "rank1Week", "rank1week",
+            "rank1Month", "rank1month",
+            "rank2Month", "rank2month",
+            "rank1Year", "rank1year",
+            "marketCap", "market_cap");
+
+    private static final int FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams (ticker, ts, value) rows ordered by ticker and ts; null values are skipped.
+     * Run inside a transaction so the driver fetches with a cursor instead of buffering the result.
+     */
+    public void streamSeries(Collection<String> tickers, LocalDateTime from, LocalDateTime to,
+                             String field, RowCallbackHandler handler) {
+        String column = COLUMNS.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown history field: " + field);
+        }
+        String sql = "SELECT ticker, ts, " + column + " FROM stock_price_history " +
+                "WHERE ticker = ANY (?) AND ts >= ? AND ts < ? AND " + column + " IS NOT NULL " +
+                "ORDER BY ticker, ts";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            Array array = con.createArrayOf("varchar", tickers.toArray());
+            ps.setArray(1, array);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, handler);
+    }
+}
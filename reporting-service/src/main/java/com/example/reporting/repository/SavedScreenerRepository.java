@@ -0,0 +1,18 @@
+package com.example.reporting.repository;
+
+import com.example.reporting.model.SavedScreener;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SavedScreenerRepository extends JpaRepository<SavedScreener, Long> {
+
+    List<SavedScreener> findByUserSubOrderByName(String userSub);
+
+    Optional<SavedScreener> findByIdAndUserSub(Long id, String userSub);
+
+    boolean existsByUserSubAndName(String userSub, String name);
+
+    long countByUserSub(String userSub);
+}
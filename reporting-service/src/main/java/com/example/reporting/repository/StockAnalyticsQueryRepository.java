@@ -0,0 +1,25 @@
+package com.example.reporting.repository;
+
+import com.example.reporting.model.PageCursor;
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.StockQuery;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Database-side dashboard query (custom fragment of {@link StockAnalyticsRepository}).
+ */
+public interface StockAnalyticsQueryRepository {
+
+    /**
+     * Filters, sorts and pages in one SQL statement; the page carries the total match count.
+     */
+    Page<StockAnalytics> findPage(StockQuery query);
+
+    /**
+     * Up to {@code limit} rows following {@code cursor} (from the start when null), in the query's order;
+     * {@code query.page()} is ignored.
+     */
+    List<StockAnalytics> findAfter(StockQuery query, PageCursor cursor, int limit);
+}
@@ -0,0 +1,234 @@
+package com.example.reporting.repository;
+
+import com.example.reporting.model.PageCursor;
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.StockQuery;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SQL for {@link StockAnalyticsQueryRepository#findPage}: a WHERE built from the non-null parameters,
+ * an ORDER BY from a fixed column whitelist with ticker as tie-breaker, and LIMIT/OFFSET, plus a count with
+ * the same WHERE. Missing sort values come last in both directions, as in the in-memory path.
+ * {@link #findAfter} pages by keyset instead: rows after the cursor's (sort value, ticker), so a deep page
+ * reads no more index entries than the first one.
+ * <p>
+ * Text is ordered and compared with {@code COLLATE "C"} (code point order), the order of the in-memory path's
+ * String.compareTo, so both paths break ties and resume from a cursor the same way whatever the database's
+ * collation.
+ * <p>
+ * Every dashboard query requires cmp and market_cap, so the supporting indexes are partial indexes on that
+ * predicate, two per numeric sort column: {@code (column DESC NULLS LAST, ticker COLLATE "C")} and
+ * {@code (column ASC NULLS LAST, ticker COLLATE "C")}, one per sort direction since the ticker tie-break is
+ * ascending in both. A page 0 in either direction reads the first rows of one index. Hibernate cannot declare
+ * NULLS LAST, collations or partial indexes, so they are created here when {@code reporting.query.create-indexes}
+ * is on.
+ */
+public class StockAnalyticsQueryRepositoryImpl implements StockAnalyticsQueryRepository {
+
+    private static final String COLUMNS =
+            "ticker, name, cmp, daily_change, cmp365, rank1year, rank1month, rank2month, rank1week, " +
+            "market_cap, last_updated";
+
+    private static final String UNIVERSE = "cmp IS NOT NULL AND market_cap IS NOT NULL";
+
+    private static final String TICKER = "ticker COLLATE \"C\"";
+
+    private static final String[] INDEXED_SORT_COLUMNS =
+            {"daily_change", "rank1week", "rank1month", "rank2month", "rank1year", "market_cap", "cmp"};
+
+    private static final RowMapper<StockAnalytics> ROW_MAPPER = StockAnalyticsQueryRepositoryImpl::mapRow;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Value("${reporting.query.create-indexes:true}")
+    private boolean createIndexes;
+
+    public StockAnalyticsQueryRepositoryImpl(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        if (!createIndexes) return;
+        for (String column : INDEXED_SORT_COLUMNS) {
+            try {
+                // superseded by the collated indexes below
+                jdbc.getJdbcTemplate().execute("DROP INDEX IF EXISTS stock_analytics_" + column + "_desc_idx");
+                for (String direction : new String[]{"desc", "asc"}) {
+                    jdbc.getJdbcTemplate().execute("CREATE INDEX IF NOT EXISTS stock_analytics_" + column + "_" +
+                            direction + "_c_idx ON stock_analytics (" + column + " " +
+                            direction.toUpperCase(Locale.ROOT) + " NULLS LAST, " + TICKER + ") WHERE " + UNIVERSE);
+                }
+            } catch (DataAccessException e) {
+                // e.g. the table does not exist yet on a fresh database; retried on next start
+                System.out.println("Could not create index on stock_analytics." + column + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Page<StockAnalytics> findPage(StockQuery q) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = where(q, params);
+
+        int pageSize = Math.max(1, q.pageSize());
+        int page = Math.max(0, q.page());
+        params.addValue("limit", pageSize);
+        params.addValue("offset", (long) page * pageSize);
+
+        String direction = q.descending() ? " DESC" : " ASC";
+        String sql = "SELECT " + COLUMNS + " FROM stock_analytics" + where +
+                " ORDER BY " + orderExpression(q.sortBy()) + direction + " NULLS LAST, " + TICKER +
+                " LIMIT :limit OFFSET :offset";
+        List<StockAnalytics> content = jdbc.query(sql, params, ROW_MAPPER);
+
+        long total;
+        if (page == 0 && content.size() < pageSize) {
+            total = content.size(); // the whole result fits on the first page
+        } else {
+            Long count = jdbc.queryForObject("SELECT count(*) FROM stock_analytics" + where, params, Long.class);
+            total = count != null ? count : 0;
+        }
+        return new PageImpl<>(content, PageRequest.of(page, pageSize), total);
+    }
+
+    @Override
+    public List<StockAnalytics> findAfter(StockQuery q, PageCursor cursor, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = where(q, params);
+        String expression = orderExpression(q.sortBy());
+        String direction = q.descending() ? " DESC" : " ASC";
+        params.addValue("limit", limit);
+
+        if (cursor == null) {
+            return jdbc.query("SELECT " + COLUMNS + " FROM stock_analytics" + where +
+                    " ORDER BY " + expression + direction + " NULLS LAST, " + TICKER + " LIMIT :limit",
+                    params, ROW_MAPPER);
+        }
+        params.addValue("after", cursor.ticker());
+        if (cursor.key() == null) {
+            // already inside the trailing block of rows without a sort value
+            return jdbc.query("SELECT " + COLUMNS + " FROM stock_analytics" + where +
+                    " AND " + expression + " IS NULL AND " + TICKER + " > :after ORDER BY " + TICKER + " LIMIT :limit",
+                    params, ROW_MAPPER);
+        }
+
+        // rows with a value after (key, ticker); split this way rather than as a row comparison because the two
+        // columns sort in different directions, and it stays a range scan of that direction's index
+        String op = q.descending() ? "<" : ">";
+        params.addValue("key", keyParameter(q.sortBy(), cursor.key()));
+        List<StockAnalytics> rows = new ArrayList<>(jdbc.query("SELECT " + COLUMNS + " FROM stock_analytics" + where +
+                " AND " + expression + " " + op + "= :key" +
+                " AND (" + expression + " " + op + " :key OR " + TICKER + " > :after)" +
+                " ORDER BY " + expression + direction + " NULLS LAST, " + TICKER + " LIMIT :limit", params, ROW_MAPPER));
+        if (rows.size() < limit) {
+            // then the rows without a value, as with NULLS LAST
+            params.addValue("limit", limit - rows.size());
+            rows.addAll(jdbc.query("SELECT " + COLUMNS + " FROM stock_analytics" + where +
+                    " AND " + expression + " IS NULL ORDER BY " + TICKER + " LIMIT :limit", params, ROW_MAPPER));
+        }
+        return rows;
+    }
+
+    private static StringBuilder where(StockQuery q, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder(" WHERE ").append(UNIVERSE);
+
+        switch (q.view() == null ? "all" : q.view()) {
+            case "52w" -> where.append(" AND cmp365 IS NOT NULL AND cmp >= cmp365");
+            case "recent" -> where.append(" AND cmp365 IS NULL");
+            case "daily" -> where.append(" AND daily_change >= 10.0");
+            default -> { }
+        }
+        minimum(where, params, "market_cap", q.minMarketCap());
+        minimum(where, params, "daily_change", q.minDailyChange());
+        minimum(where, params, "rank1week", q.minRank1Week());
+        minimum(where, params, "rank1month", q.minRank1Month());
+        if (q.hasSearch()) {
+            where.append(" AND (lower(ticker) LIKE :search ESCAPE '\\' OR lower(name) LIKE :search ESCAPE '\\')");
+            params.addValue("search", "%" + escapeLike(q.search().toLowerCase(Locale.ROOT)) + "%");
+        }
+        return where;
+    }
+
+    // cursor key in the type of orderExpression(sortBy); lastUpdated keys are epoch microseconds
+    private static Object keyParameter(String sortBy, String key) {
+        try {
+            return switch (sortBy == null ? "" : sortBy) {
+                case "name", "ticker" -> key.toLowerCase(Locale.ROOT);
+                case "lastUpdated" -> {
+                    long micros = Long.parseLong(key);
+                    yield Timestamp.valueOf(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC));
+                }
+                default -> Double.parseDouble(key);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // whitelisted: the only request-derived text that reaches the SQL string
+    private static String orderExpression(String sortBy) {
+        return switch (sortBy == null ? "" : sortBy) {
+            case "cmp" -> "cmp";
+            case "marketCap" -> "market_cap";
+            case "rank1Week" -> "rank1week";
+            case "rank1Month" -> "rank1month";
+            case "rank1Year" -> "rank1year";
+            case "rank2Month" -> "rank2month";
+            case "name" -> "lower(name) COLLATE \"C\"";
+            case "ticker" -> "lower(ticker) COLLATE \"C\"";
+            case "lastUpdated" -> "last_updated";
+            default -> "daily_change";
+        };
+    }
+
+    private static void minimum(StringBuilder where, MapSqlParameterSource params, String column, Double min) {
+        if (min == null) return;
+        where.append(" AND ").append(column).append(" >= :").append(column);
+        params.addValue(column, min);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static StockAnalytics mapRow(ResultSet rs, int rowNum) throws SQLException {
+        StockAnalytics s = new StockAnalytics();
+        s.setTicker(rs.getString(1));
+        s.setName(rs.getString(2));
+        s.setCmp(nullableDouble(rs, 3));
+        s.setDailyChange(nullableDouble(rs, 4));
+        s.setCmp365(nullableDouble(rs, 5));
+        s.setRank1Year(nullableDouble(rs, 6));
+        s.setRank1Month(nullableDouble(rs, 7));
+        s.setRank2Month(nullableDouble(rs, 8));
+        s.setRank1Week(nullableDouble(rs, 9));
+        s.setMarketCap(nullableDouble(rs, 10));
+        Timestamp updated = rs.getTimestamp(11);
+        s.setLastUpdated(updated != null ? updated.toLocalDateTime() : null);
+        return s;
+    }
+
+    private static Double nullableDouble(ResultSet rs, int index) throws SQLException {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    }
+}
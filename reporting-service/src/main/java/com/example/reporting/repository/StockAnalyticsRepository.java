@@ -7,23 +7,13 @@ import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface StockAnalyticsRepository extends JpaRepository<StockAnalytics, String> {
+public interface StockAnalyticsRepository extends JpaRepository<StockAnalytics, String>, StockAnalyticsQueryRepository {
     // Use DB to filter out micro caps if caller passes minMarketCap
     List<StockAnalytics> findByMarketCapGreaterThanEqual(Double minMarketCap);
 
 
     List<StockAnalytics> findByTickerIn(Collection<String> tickers);
-
-
-
-
-    Optional<StockAnalytics> findFirstByTickerIgnoreCase(String ticker);
-
-    // used for search/resolve fallbacks (limit in method name keeps queries lean)
-    List<StockAnalytics> findTop100ByTickerContainingIgnoreCaseOrNameContainingIgnoreCase(String tickerLike,
-                                                                                          String nameLike);
 }
@@ -0,0 +1,110 @@
+package com.example.reporting.service;
+
+import java.util.Arrays;
+
+/**
+ * Daily-change histogram over user-supplied bucket edges, for one or more market-cap floors, filled in a
+ * single pass over primitive columns.
+ * <p>
+ * With edges e0 &lt; e1 &lt; ... the buckets are (-inf, e0), [e0, e1), ..., [e_last, +inf). Each row is
+ * counted once, in the band of the highest floor it reaches; the per-floor results are suffix sums over those
+ * bands, so extra floors do not add passes. Rows without a market cap only reach the "no floor" band.
+ */
+final class BreadthHistogram {
+
+    private final double[] edges;
+    private final double[] floors;
+
+    // [band][bucket]; band 0 = below every floor (only used when the lowest floor is -inf)
+    private final int[][] buckets;
+    // [band][edge]: rows exactly on an edge, so "at most e" can be told from "below e"
+    private final int[][] onEdge;
+    private final int[] missing;
+
+    /**
+     * @param edges  strictly increasing bucket edges, without -0.0
+     * @param floors strictly increasing market-cap floors; {@code Double.NEGATIVE_INFINITY} = no floor
+     */
+    BreadthHistogram(double[] edges, double[] floors) {
+        this.edges = edges;
+        this.floors = floors;
+        int bands = floors.length + 1;
+        this.buckets = new int[bands][edges.length + 1];
+        this.onEdge = new int[bands][edges.length];
+        this.missing = new int[bands];
+    }
+
+    /**
+     * Counts rows [0, size); a missing (NaN) change counts as 0, as in the headline breadth, and is also
+     * tallied separately.
+     */
+    void addAll(double[] change, double[] marketCap, int size) {
+        for (int i = 0; i < size; i++) {
+            int band = band(marketCap[i]);
+            double x = change[i];
+            if (Double.isNaN(x)) {
+                missing[band]++;
+                x = 0;
+            } else if (x == 0) {
+                x = 0; // -0.0 would sort below a 0 edge in binarySearch
+            }
+            // number of edges <= x
+            int pos = Arrays.binarySearch(edges, x);
+            int bucket;
+            if (pos >= 0) {
+                onEdge[band][pos]++;
+                bucket = pos + 1;
+            } else {
+                bucket = -pos - 1;
+            }
+            buckets[band][bucket]++;
+        }
+    }
+
+    // index of the highest floor <= cap, plus one; 0 when below every floor or the cap is missing
+    private int band(double cap) {
+        if (Double.isNaN(cap)) {
+            return floors.length > 0 && floors[0] == Double.NEGATIVE_INFINITY ? 1 : 0;
+        }
+        int lo = 0;
+        int hi = floors.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (floors[mid] <= cap) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    Result result(int floor) {
+        int bucketCount = edges.length + 1;
+        int[] counts = new int[bucketCount];
+        int[] exact = new int[edges.length];
+        int miss = 0;
+        for (int band = floor + 1; band < buckets.length; band++) {
+            for (int b = 0; b < bucketCount; b++) counts[b] += buckets[band][b];
+            for (int e = 0; e < edges.length; e++) exact[e] += onEdge[band][e];
+            miss += missing[band];
+        }
+
+        int total = 0;
+        for (int c : counts) total += c;
+        int[] atLeast = new int[edges.length];
+        int[] atMost = new int[edges.length];
+        int below = 0;
+        for (int e = 0; e < edges.length; e++) {
+            below += counts[e];
+            atLeast[e] = total - below;
+            atMost[e] = below + exact[e];
+        }
+        return new Result(total, miss, counts, atLeast, atMost);
+    }
+
+    /**
+     * @param buckets per-bucket counts, one more than there are edges
+     * @param atLeast rows with change &gt;= edge, per edge
+     * @param atMost  rows with change &lt;= edge, per edge
+     */
+    record Result(int total, int missing, int[] buckets, int[] atLeast, int[] atMost) {
+    }
+}
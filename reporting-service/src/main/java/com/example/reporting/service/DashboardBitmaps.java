@@ -0,0 +1,181 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+
+/**
+ * Row bitmaps over one {@link UniverseSnapshot} for the dashboard views and minimum filters; immutable once built.
+ * <p>
+ * The views ("52w", "recent", "daily") and "has price and market cap" are one {@link RoaringBitmap} each. Every
+ * filterable column is cut into {@link #BUCKETS} quantile buckets, and for each bucket the rows at or above its
+ * lower bound are kept as one bitmap too. A minimum then costs one AND with the cumulative bitmap of the next
+ * bucket up, plus a value check of only the selected rows falling into the bucket the minimum lies in, so a
+ * combined filter touches compressed containers and the rows it returns rather than every row.
+ */
+final class DashboardBitmaps {
+
+    private static final int BUCKETS = 32;
+
+    private final UniverseSnapshot source;
+    private final RoaringBitmap priced;
+    private final RoaringBitmap fiftyTwoWeek;
+    private final RoaringBitmap recent;
+    private final RoaringBitmap daily;
+    private final Buckets marketCap;
+    private final Buckets dailyChange;
+    private final Buckets rank1Week;
+    private final Buckets rank1Month;
+
+    private DashboardBitmaps(UniverseSnapshot u) {
+        this.source = u;
+        this.priced = new RoaringBitmap();
+        this.fiftyTwoWeek = new RoaringBitmap();
+        this.recent = new RoaringBitmap();
+        this.daily = new RoaringBitmap();
+        for (int i = 0; i < u.size(); i++) {
+            if (!Double.isNaN(u.cmp[i]) && !Double.isNaN(u.marketCap[i])) priced.add(i);
+            if (u.cmp[i] >= u.cmp365[i]) fiftyTwoWeek.add(i); // false when either is NaN
+            if (Double.isNaN(u.cmp365[i]) && !Double.isNaN(u.cmp[i])) recent.add(i);
+            if (u.dailyChange[i] >= 10.0) daily.add(i);
+        }
+        this.marketCap = new Buckets(u.marketCap);
+        this.dailyChange = new Buckets(u.dailyChange);
+        this.rank1Week = new Buckets(u.rank1Week);
+        this.rank1Month = new Buckets(u.rank1Month);
+        for (RoaringBitmap b : new RoaringBitmap[]{priced, fiftyTwoWeek, recent, daily}) b.runOptimize();
+    }
+
+    static DashboardBitmaps build(UniverseSnapshot u) {
+        return new DashboardBitmaps(u);
+    }
+
+    UniverseSnapshot source() {
+        return source;
+    }
+
+    /**
+     * @param view all | 52w | recent | daily; anything else counts as all
+     * @return rows with price and market cap, in the view and meeting every non-null minimum (NaN values
+     * never do); a new bitmap the caller may modify
+     */
+    RoaringBitmap select(String view, Double minMarketCap, Double minDailyChange, Double minRank1Week,
+                         Double minRank1Month) {
+        RoaringBitmap rows = switch (view == null ? "all" : view) {
+            case "52w" -> RoaringBitmap.and(priced, fiftyTwoWeek);
+            case "recent" -> RoaringBitmap.and(priced, recent);
+            case "daily" -> RoaringBitmap.and(priced, daily);
+            default -> priced.clone();
+        };
+        if (minMarketCap != null) rows = marketCap.atLeast(minMarketCap, rows);
+        if (minDailyChange != null) rows = dailyChange.atLeast(minDailyChange, rows);
+        if (minRank1Week != null) rows = rank1Week.atLeast(minRank1Week, rows);
+        if (minRank1Month != null) rows = rank1Month.atLeast(minRank1Month, rows);
+        return rows;
+    }
+
+    /**
+     * @return rows at or above their 1Y-ago price
+     */
+    RoaringBitmap fiftyTwoWeekHighs() {
+        return fiftyTwoWeek.clone();
+    }
+
+    /**
+     * @return rows with a price but no 1Y-ago price
+     */
+    RoaringBitmap recentListings() {
+        return recent.clone();
+    }
+
+    /**
+     * @return rows whose daily change is at least {@code min}
+     */
+    RoaringBitmap dailyChangeAtLeast(double min) {
+        return dailyChange.atLeast(min, null);
+    }
+
+    /**
+     * Quantile buckets of one column. Bucket b holds the values in [lower[b], lower[b + 1]); atOrAbove[b] is
+     * the union of buckets b and up. -0.0 is bucketed as 0.0 so that bounds compare like {@code >=} does.
+     */
+    private static final class Buckets {
+
+        private final double[] values;
+        private final double[] lower;
+        private final RoaringBitmap[] bucket;
+        private final RoaringBitmap[] atOrAbove;
+
+        Buckets(double[] values) {
+            this.values = values;
+            double[] sorted = new double[values.length];
+            int n = 0;
+            for (double v : values) {
+                if (!Double.isNaN(v)) sorted[n++] = v + 0.0;
+            }
+            Arrays.sort(sorted, 0, n);
+
+            double[] bounds = new double[Math.min(BUCKETS, n)];
+            int count = 0;
+            for (int b = 0; b < bounds.length; b++) {
+                double bound = sorted[(int) ((long) b * n / bounds.length)];
+                if (count == 0 || bound > bounds[count - 1]) bounds[count++] = bound;
+            }
+            this.lower = Arrays.copyOf(bounds, count);
+
+            this.bucket = new RoaringBitmap[count];
+            for (int b = 0; b < count; b++) bucket[b] = new RoaringBitmap();
+            for (int i = 0; i < values.length; i++) {
+                if (!Double.isNaN(values[i])) bucket[bucketOf(values[i])].add(i);
+            }
+            this.atOrAbove = new RoaringBitmap[count];
+            for (int b = count - 1; b >= 0; b--) {
+                atOrAbove[b] = b == count - 1 ? bucket[b].clone() : RoaringBitmap.or(atOrAbove[b + 1], bucket[b]);
+                atOrAbove[b].runOptimize();
+            }
+        }
+
+        // last bucket whose lower bound is <= value, -1 below the first
+        private int bucketOf(double value) {
+            int lo = 0;
+            int hi = lower.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (lower[mid] <= value) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * @param within rows to restrict to, or null for all
+         * @return the rows of {@code within} whose value is {@code >= min}
+         */
+        RoaringBitmap atLeast(double min, RoaringBitmap within) {
+            if (Double.isNaN(min) || lower.length == 0) return new RoaringBitmap();
+            int b = bucketOf(min);
+            if (b < 0) b = 0; // below every value: all non-missing rows
+            if (min <= lower[b]) return and(atOrAbove[b], within);
+
+            // min falls inside bucket b: all rows above it, plus the ones of bucket b that reach it
+            RoaringBitmap rows = b + 1 < lower.length ? and(atOrAbove[b + 1], within) : new RoaringBitmap();
+            IntIterator boundary = and(bucket[b], within).getIntIterator();
+            while (boundary.hasNext()) {
+                int i = boundary.next();
+                if (values[i] >= min) rows.add(i);
+            }
+            return rows;
+        }
+
+        private static RoaringBitmap and(RoaringBitmap rows, RoaringBitmap within) {
+            return within == null ? rows.clone() : RoaringBitmap.and(rows, within);
+        }
+    }
+}
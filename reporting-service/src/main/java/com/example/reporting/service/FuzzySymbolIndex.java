@@ -0,0 +1,273 @@
+package com.example.reporting.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant lookup of tickers by the tokens of their symbol and company name ("relaince" -> reliance,
+ * "infosis" -> infosys), using symmetric deletes (SymSpell).
+ * <p>
+ * Every indexed token registers the strings obtained by deleting up to {@link #MAX_DISTANCE} characters from
+ * its first {@link #PREFIX_LENGTH} characters; a query token generates the same deletes, and any token sharing
+ * one of them is a candidate, verified with an optimal-string-alignment distance (a transposition counts as one
+ * edit). The delete table is a primitive open-addressing hash keyed by {@code String.hashCode()}: colliding
+ * deletes only add candidates, which verification rejects.
+ * <p>
+ * Incremental: {@link #add} and {@link #remove} touch only the tokens of one ticker, so an import that lists a
+ * few new tickers costs a few hundred table inserts. Tokens no ticker uses any more stay in the table and are
+ * skipped; they are dropped on the next full build (i.e. on restart). Not thread-safe; callers serialize
+ * writes against reads.
+ */
+final class FuzzySymbolIndex {
+
+    static final int MAX_DISTANCE = 2;
+
+    // deletes only from this prefix: ~29 per token instead of ~L^2/2, longer tokens are still verified in full
+    private static final int PREFIX_LENGTH = 7;
+
+    // token id -> text and the tickers using it
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Set<String>> tickersByToken = new ArrayList<>();
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+
+    // delete hash -> chain of (token id) entries; slotHead holds entry index + 1, 0 = empty slot
+    private int[] slotHash = new int[1 << 12];
+    private int[] slotHead = new int[1 << 12];
+    private int slotsUsed;
+    private int[] entryToken = new int[1 << 12];
+    private int[] entryNext = new int[1 << 12];
+    private int entries;
+
+    int tokenCount() {
+        return tokens.size();
+    }
+
+    void add(String ticker, String name) {
+        for (String token : tokensOf(ticker, name)) {
+            Integer id = tokenIds.get(token);
+            if (id == null) {
+                id = tokens.size();
+                tokens.add(token);
+                tickersByToken.add(new HashSet<>(2));
+                tokenIds.put(token, id);
+                for (String delete : deletes(token, MAX_DISTANCE)) {
+                    addEntry(delete.hashCode(), id);
+                }
+            }
+            tickersByToken.get(id).add(ticker);
+        }
+    }
+
+    void remove(String ticker, String name) {
+        for (String token : tokensOf(ticker, name)) {
+            Integer id = tokenIds.get(token);
+            if (id != null) tickersByToken.get(id).remove(ticker);
+        }
+    }
+
+    /**
+     * Tickers having, for every token of the query, a token within its allowed distance: none for up to
+     * three characters, one up to seven, {@link #MAX_DISTANCE} beyond.
+     *
+     * @param deadline {@link System#nanoTime()} after which lookups stop and the matches found so far are
+     *                 returned; the closest candidates are looked up first
+     */
+    Result search(String query, long deadline) {
+        List<String> queryTokens = queryTokens(query);
+        Map<String, Integer> result = null;
+        boolean[] complete = {true};
+        for (String q : queryTokens) {
+            Map<String, Integer> matches = matchToken(q, deadline, complete);
+            if (result == null) {
+                result = matches;
+            } else {
+                Map<String, Integer> both = new HashMap<>();
+                for (Map.Entry<String, Integer> e : matches.entrySet()) {
+                    Integer before = result.get(e.getKey());
+                    if (before != null) both.put(e.getKey(), before + e.getValue());
+                }
+                result = both;
+            }
+            if (result.isEmpty()) break;
+        }
+        return new Result(result != null ? result : Map.of(), complete[0]);
+    }
+
+    /**
+     * @param matches  ticker -> sum of the per-token distances
+     * @param complete false when the deadline cut the lookup short, so closer or further matches may be missing
+     */
+    record Result(Map<String, Integer> matches, boolean complete) {
+    }
+
+    // clears complete[0] when the deadline stops the lookup
+    private Map<String, Integer> matchToken(String q, long deadline, boolean[] complete) {
+        int maxDistance = q.length() <= 3 ? 0 : q.length() <= 7 ? 1 : MAX_DISTANCE;
+        Map<String, Integer> best = new HashMap<>();
+        BitSet seen = new BitSet(tokens.size());
+        for (String delete : deletes(q, maxDistance)) {
+            if (System.nanoTime() > deadline) {
+                complete[0] = false;
+                break;
+            }
+            int slot = findSlot(delete.hashCode());
+            for (int e = slotHead[slot] - 1; e >= 0; e = entryNext[e]) {
+                int id = entryToken[e];
+                if (seen.get(id)) continue;
+                seen.set(id);
+                Set<String> tickers = tickersByToken.get(id);
+                if (tickers.isEmpty()) continue;
+                int distance = distance(q, tokens.get(id), maxDistance);
+                if (distance > maxDistance) continue;
+                for (String ticker : tickers) {
+                    best.merge(ticker, distance, Math::min);
+                }
+            }
+        }
+        return best;
+    }
+
+    // the symbol without exchange prefix and punctuation ("nse:bajaj-auto" -> "bajajauto"), and the name's words
+    private static Set<String> tokensOf(String ticker, String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (ticker != null) {
+            String symbol = ticker.substring(ticker.indexOf(':') + 1);
+            String joined = lettersAndDigits(symbol);
+            if (!joined.isEmpty()) tokens.add(joined);
+        }
+        if (name != null) {
+            splitWords(name, tokens);
+        }
+        return tokens;
+    }
+
+    private static List<String> queryTokens(String query) {
+        String q = query.substring(query.indexOf(':') + 1);
+        Set<String> words = new LinkedHashSet<>();
+        splitWords(q, words);
+        return new ArrayList<>(words);
+    }
+
+    private static void splitWords(String text, Set<String> into) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                into.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static String lettersAndDigits(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the word's prefix and everything reachable from it by deleting up to {@code max} characters,
+     * fewest deletions first
+     */
+    private static List<String> deletes(String word, int max) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> all = new LinkedHashSet<>();
+        all.add(prefix);
+        List<String> level = List.of(prefix);
+        for (int d = 0; d < max; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : level) {
+                if (s.length() <= 1) continue;
+                for (int i = 0; i < s.length(); i++) {
+                    String delete = s.substring(0, i) + s.substring(i + 1);
+                    if (all.add(delete)) next.add(delete);
+                }
+            }
+            level = next;
+        }
+        return new ArrayList<>(all);
+    }
+
+    /**
+     * Optimal string alignment distance, or {@code max + 1} as soon as it must exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] twoBack = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, twoBack[j - 2] + 1);
+                }
+                row[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = row;
+            row = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private void addEntry(int hash, int token) {
+        if ((slotsUsed + 1) * 2 > slotHash.length) growSlots();
+        int slot = findSlot(hash);
+        if (slotHead[slot] == 0) {
+            slotHash[slot] = hash;
+            slotsUsed++;
+        }
+        if (entries == entryToken.length) {
+            entryToken = Arrays.copyOf(entryToken, entries * 2);
+            entryNext = Arrays.copyOf(entryNext, entries * 2);
+        }
+        entryToken[entries] = token;
+        entryNext[entries] = slotHead[slot] - 1;
+        slotHead[slot] = ++entries;
+    }
+
+    // linear probing; returns the slot holding the hash, or the empty slot where it would go
+    private int findSlot(int hash) {
+        int mask = slotHash.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slotHead[slot] != 0 && slotHash[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void growSlots() {
+        int[] oldHash = slotHash;
+        int[] oldHead = slotHead;
+        slotHash = new int[oldHash.length * 2];
+        slotHead = new int[oldHash.length * 2];
+        for (int i = 0; i < oldHash.length; i++) {
+            if (oldHead[i] == 0) continue;
+            int slot = findSlot(oldHash[i]);
+            slotHash[slot] = oldHash[i];
+            slotHead[slot] = oldHead[i];
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.reporting.service;
+
+/**
+ * Stable sort of row indices into a {@link com.example.reporting.model.UniverseSnapshot},
+ * comparing columns directly instead of boxing rows into a Comparator. {@link #sortTop} orders only
+ * the first k rows, for callers that return one page out of many matches.
+ */
+final class IndexSort {
+
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    private static final int INSERTION_THRESHOLD = 16;
+
+    // below n / k = 4 a bounded heap does about as many comparisons as the merge sort, with worse locality
+    private static final int FULL_SORT_RATIO = 4;
+
+    private IndexSort() {
+    }
+
+    /**
+     * Sorts {@code rows[0..n)} in place; equal rows keep their relative order.
+     */
+    static void sort(int[] rows, int n, RowComparator cmp) {
+        if (n < 2) return;
+        int[] buffer = new int[n];
+        mergeSort(rows, buffer, 0, n, cmp);
+    }
+
+    /**
+     * Puts the first {@code k} rows of {@code sort(rows, n, cmp)} into {@code rows[0..k)}, in order; the rest
+     * of the array is left unspecified. O(n log k) with a bounded max-heap, or a full sort when k is a large
+     * fraction of n. Ties are broken by row index, which is the stable order because every caller collects
+     * rows in ascending index order.
+     */
+    static void sortTop(int[] rows, int n, int k, RowComparator cmp) {
+        if (k <= 0 || n < 2) return;
+        if ((long) k * FULL_SORT_RATIO >= n) {
+            sort(rows, n, cmp);
+            return;
+        }
+        RowComparator order = (a, b) -> {
+            int c = cmp.compare(a, b);
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+
+        // heap[0] is the last of the k best rows seen so far
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int row = rows[i];
+            if (size < k) {
+                heap[size] = row;
+                siftUp(heap, size++, order);
+            } else if (order.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, 0, k, order);
+            }
+        }
+        // popping the maximum fills the page from the back
+        for (int end = k - 1; end >= 0; end--) {
+            rows[end] = heap[0];
+            heap[0] = heap[end];
+            siftDown(heap, 0, end, order);
+        }
+    }
+
+    private static void siftUp(int[] heap, int i, RowComparator order) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(heap[parent], v) >= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(int[] heap, int i, int size, RowComparator order) {
+        int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) child++;
+            if (order.compare(v, heap[child]) >= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static void mergeSort(int[] a, int[] buf, int from, int to, RowComparator cmp) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= from && cmp.compare(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buf, from, mid, cmp);
+        mergeSort(a, buf, mid, to, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, buf, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = cmp.compare(buf[j], buf[i]) < 0 ? buf[j++] : buf[i++];
+        }
+        while (i < mid) a[k++] = buf[i++];
+        while (j < to) a[k++] = buf[j++];
+    }
+
+    /**
+     * Orders by a numeric column; NaN (missing) sorts after every number in both directions.
+     */
+    static RowComparator byColumn(double[] column, boolean descending) {
+        return (a, b) -> {
+            double x = column[a];
+            double y = column[b];
+            boolean nx = Double.isNaN(x);
+            boolean ny = Double.isNaN(y);
+            if (nx || ny) return nx == ny ? 0 : (nx ? 1 : -1);
+            return descending ? Double.compare(y, x) : Double.compare(x, y);
+        };
+    }
+
+    /**
+     * Orders by a text column, case-insensitively; null sorts last in both directions.
+     */
+    static RowComparator byText(String[] column, boolean descending) {
+        return (a, b) -> {
+            String x = column[a];
+            String y = column[b];
+            if (x == null || y == null) return x == y ? 0 : (x == null ? 1 : -1);
+            return descending ? y.compareToIgnoreCase(x) : x.compareToIgnoreCase(y);
+        };
+    }
+
+    static RowComparator byLong(long[] column, long missing, boolean descending) {
+        return (a, b) -> {
+            long x = column[a];
+            long y = column[b];
+            if (x == missing || y == missing) return x == y ? 0 : (x == missing ? 1 : -1);
+            return descending ? Long.compare(y, x) : Long.compare(x, y);
+        };
+    }
+}
@@ -1,65 +1,221 @@
 package com.example.reporting.service;
 
 
+import com.example.reporting.model.BreadthHistogramResponse;
+import com.example.reporting.model.BreadthSeriesResponse;
 import com.example.reporting.model.MarketBreadthResponse;
-import com.example.reporting.model.StockAnalytics;
-import com.example.reporting.repository.StockAnalyticsRepository;
+import com.example.reporting.model.SectorBreadthResponse;
+import com.example.reporting.model.UniverseSnapshot;
+import com.example.reporting.repository.MarketBreadthSeriesRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Market breadth from the in-memory {@link UniverseSnapshot}: one {@link BreadthHistogram} pass over the
+ * daily-change and market-cap columns answers every threshold and market-cap floor of a request.
+ * Breadth over time comes precomputed from market_breadth_series, one point per import generation, and the
+ * sector x market-cap tier cube is computed once per snapshot and sliced in memory.
+ */
 @Service
 public class MarketBreadthService {
 
-    private final StockAnalyticsRepository stockRepo;
+    private static final int MAX_EDGES = 200;
+    private static final int MAX_FLOORS = 20;
+
+    private final UniverseSnapshotService snapshots;
+    private final MarketBreadthSeriesRepository seriesRepository;
+
+    @Value("${reporting.breadth.max-days:366}")
+    private int maxDays;
+
+    // series timestamps are the importer's local time, like the price history
+    @Value("${reporting.history.zone:}")
+    private String zone;
 
-    public MarketBreadthService(StockAnalyticsRepository stockRepo) {
-        this.stockRepo = stockRepo;
+    // market-cap rank bounds of the large and mid cap tiers
+    @Value("${reporting.sectors.large-cap-rank:100}")
+    private int largeCapRank;
+
+    @Value("${reporting.sectors.mid-cap-rank:250}")
+    private int midCapRank;
+
+    private final AtomicReference<SectorCube> sectorCube = new AtomicReference<>();
+
+    public MarketBreadthService(UniverseSnapshotService snapshots, MarketBreadthSeriesRepository seriesRepository) {
+        this.snapshots = snapshots;
+        this.seriesRepository = seriesRepository;
     }
 
     public MarketBreadthResponse compute(Double minMarketCap,
                                          double[] thresholds) {
 
-        // 1) Load universe (DB-side filter if possible)
-        List<StockAnalytics> universe = (minMarketCap == null)
-                ? stockRepo.findAll()
-                : stockRepo.findByMarketCapGreaterThanEqual(minMarketCap);
-
-        MarketBreadthResponse resp = new MarketBreadthResponse();
-        resp.total = universe.size();
-
-        // 2) Pull null-safe daily_change as Double list
-        // daily_change column is float4 -> maps to Float in JPA, so null-safe coerce to Double
-        List<Double> changes = universe.stream()
-                .map(s -> s.getDailyChange() != null ? s.getDailyChange() : 0.0)
-                .collect(Collectors.toList());   // use .toList() if you're on Java 16+
+        // 1) Threshold edges: 0 for green/red, ±t for the intensity buckets
+        double t1 = thresholds.length > 0 ? thresholds[0] : 3.0;
+        double t2 = thresholds.length > 1 ? thresholds[1] : 5.0;
+        double t3 = thresholds.length > 2 ? thresholds[2] : 8.0;
+        double[] edges = normalize(new double[]{-t3, -t2, -t1, 0.0, t1, t2, t3}, "threshold", MAX_EDGES);
+        double[] floors = {minMarketCap == null ? Double.NEGATIVE_INFINITY : minMarketCap};
 
+        // 2) One pass over the universe (missing daily_change counts as 0)
+        BreadthHistogram.Result h = histogram(edges, floors).result(0);
 
         // 3) Headline breadth
-        resp.green = (int) changes.stream().filter(x -> x >= 0.0).count();
+        MarketBreadthResponse resp = new MarketBreadthResponse();
+        resp.total = h.total();
+        resp.green = h.atLeast()[index(edges, 0.0)];
         resp.red   = resp.total - resp.green;
         resp.greenPct = resp.total == 0 ? 0 : round2((resp.green * 100.0) / resp.total);
         resp.greenRedRatio = round2(resp.red == 0 ? resp.green : (resp.green * 1.0 / resp.red));
 
         // 4) Threshold counts
-        double t1 = thresholds.length > 0 ? thresholds[0] : 3.0;
-        double t2 = thresholds.length > 1 ? thresholds[1] : 5.0;
-        double t3 = thresholds.length > 2 ? thresholds[2] : 8.0;
-
-        resp.above3 = (int) changes.stream().filter(x -> x >=  t1).count();
-        resp.above5 = (int) changes.stream().filter(x -> x >=  t2).count();
-        resp.above8 = (int) changes.stream().filter(x -> x >=  t3).count();
-        resp.below3 = (int) changes.stream().filter(x -> x <= -t1).count();
-        resp.below5 = (int) changes.stream().filter(x -> x <= -t2).count();
-        resp.below8 = (int) changes.stream().filter(x -> x <= -t3).count();
+        resp.above3 = h.atLeast()[index(edges, t1)];
+        resp.above5 = h.atLeast()[index(edges, t2)];
+        resp.above8 = h.atLeast()[index(edges, t3)];
+        resp.below3 = h.atMost()[index(edges, -t1)];
+        resp.below5 = h.atMost()[index(edges, -t2)];
+        resp.below8 = h.atMost()[index(edges, -t3)];
 
         return resp;
     }
 
+    /**
+     * Histogram over any bucket edges, for each market-cap floor (null or an empty list = every stock).
+     *
+     * @throws IllegalArgumentException for non-finite or too many edges/floors
+     */
+    public BreadthHistogramResponse histogram(double[] edges, List<Double> minMarketCaps) {
+        double[] sortedEdges = normalize(edges, "edge", MAX_EDGES);
+        List<Double> requested = minMarketCaps == null || minMarketCaps.isEmpty()
+                ? Arrays.asList((Double) null) : minMarketCaps;
+        double[] floors = new double[requested.size()];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = requested.get(i) == null ? Double.NEGATIVE_INFINITY : requested.get(i);
+        }
+        floors = normalize(floors, "minMarketCap", MAX_FLOORS);
+
+        BreadthHistogram h = histogram(sortedEdges, floors);
+        List<BreadthHistogramResponse.Floor> result = new ArrayList<>(floors.length);
+        for (int f = 0; f < floors.length; f++) {
+            BreadthHistogram.Result r = h.result(f);
+            result.add(new BreadthHistogramResponse.Floor(
+                    floors[f] == Double.NEGATIVE_INFINITY ? null : floors[f],
+                    r.total(), r.missing(), r.buckets(), r.atLeast(), r.atMost()));
+        }
+        return new BreadthHistogramResponse(sortedEdges, result);
+    }
+
+    /**
+     * Slice of the sector x market-cap tier cube of the current snapshot.
+     *
+     * @param sector  only this sector, or null
+     * @param tier    large, mid or small, or null for all
+     * @param groupBy cell (sector x tier), sector or tier
+     */
+    public SectorBreadthResponse sectors(String sector, String tier, String groupBy) {
+        SectorBreadthCube cube = sectorCube();
+        return new SectorBreadthResponse(cube.generation(), groupBy, cube.slice(sector, tier, groupBy));
+    }
+
+    // built at most once per snapshot; concurrent first requests may both build, either result is fine
+    private SectorBreadthCube sectorCube() {
+        UniverseSnapshot u = snapshots.current();
+        SectorCube cached = sectorCube.get();
+        if (cached != null && cached.source() == u) {
+            return cached.cube();
+        }
+        SectorBreadthCube cube = SectorBreadthCube.build(u, largeCapRank, midCapRank);
+        sectorCube.set(new SectorCube(u, cube));
+        return cube;
+    }
+
+    private record SectorCube(UniverseSnapshot source, SectorBreadthCube cube) {
+    }
+
+    /**
+     * Breadth points of every generation committed between {@code from} and {@code to} (inclusive).
+     */
+    public BreadthSeriesResponse series(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(maxDays).isBefore(to)) {
+            throw new IllegalArgumentException("Date range must be ascending and at most " + maxDays + " days");
+        }
+        ZoneId zoneId = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        SeriesBuilder builder = new SeriesBuilder(MarketBreadthSeriesRepository.COUNT_COLUMNS.length);
+        seriesRepository.streamRange(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), rs -> {
+            int n = builder.add(rs.getTimestamp(1).toLocalDateTime().atZone(zoneId).toEpochSecond());
+            for (int c = 0; c < builder.counts.length; c++) builder.counts[c][n] = rs.getInt(c + 2);
+        });
+        return builder.build(from, to);
+    }
+
+    /** Growable primitive columns, one row per generation. */
+    private static final class SeriesBuilder {
+        private long[] t = new long[256];
+        private final int[][] counts;
+        private int size;
+
+        SeriesBuilder(int columns) {
+            counts = new int[columns][t.length];
+        }
+
+        // appends a point and returns its index, for the caller to fill in the counts
+        int add(long epoch) {
+            if (size == t.length) {
+                t = Arrays.copyOf(t, size * 2);
+                for (int c = 0; c < counts.length; c++) counts[c] = Arrays.copyOf(counts[c], size * 2);
+            }
+            t[size] = epoch;
+            return size++;
+        }
+
+        BreadthSeriesResponse build(LocalDate from, LocalDate to) {
+            String[] names = MarketBreadthSeriesRepository.COUNT_COLUMNS;
+            Map<String, int[]> byName = new LinkedHashMap<>();
+            for (int c = 0; c < names.length; c++) {
+                byName.put(names[c], Arrays.copyOf(counts[c], size));
+            }
+            return new BreadthSeriesResponse(from, to, Arrays.copyOf(t, size), byName);
+        }
+    }
+
+    private BreadthHistogram histogram(double[] edges, double[] floors) {
+        UniverseSnapshot u = snapshots.current();
+        BreadthHistogram h = new BreadthHistogram(edges, floors);
+        h.addAll(u.dailyChange, u.marketCap, u.size());
+        return h;
+    }
+
+    // sorted, without duplicates; -inf is allowed (it stands for "no floor")
+    private static double[] normalize(double[] values, String name, int max) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (double v : sorted) {
+            if (Double.isNaN(v) || v == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException(name + " must be a finite number");
+            }
+            if (v == 0) v = 0; // one zero edge, whatever its sign
+            if (n == 0 || sorted[n - 1] != v) sorted[n++] = v;
+        }
+        if (n > max) {
+            throw new IllegalArgumentException("At most " + max + " " + name + " values allowed");
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    private static int index(double[] edges, double value) {
+        return Arrays.binarySearch(edges, value == 0 ? 0 : value);
+    }
+
     private static double round2(double v) {
         return Math.round(v * 100.0) / 100.0;
     }
 }
-
-
@@ -0,0 +1,107 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.PriceSeriesResponse;
+import com.example.reporting.repository.PriceHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class PriceHistoryService {
+
+    private final PriceHistoryRepository repository;
+
+    @Value("${reporting.history.max-tickers:50}")
+    private int maxTickers;
+
+    @Value("${reporting.history.max-days:366}")
+    private int maxDays;
+
+    // history timestamps are the importer's local time
+    @Value("${reporting.history.zone:}")
+    private String zone;
+
+    public PriceHistoryService(PriceHistoryRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param to   inclusive
+     * @param step when set, keeps the last point of each step-sized bucket (e.g. PT1H, P1D)
+     */
+    @Transactional(readOnly = true)
+    public PriceSeriesResponse getSeries(List<String> tickers, LocalDate from, LocalDate to,
+                                         String field, Duration step) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String ticker : tickers) {
+            if (!ticker.isBlank()) unique.add(ticker.trim().toUpperCase());
+        }
+        if (unique.isEmpty() || unique.size() > maxTickers) {
+            throw new IllegalArgumentException("Between 1 and " + maxTickers + " tickers required");
+        }
+        if (to.isBefore(from) || from.plusDays(maxDays).isBefore(to)) {
+            throw new IllegalArgumentException("Date range must be ascending and at most " + maxDays + " days");
+        }
+        long stepSeconds = step == null ? 0 : step.toSeconds();
+        if (step != null && stepSeconds <= 0) {
+            throw new IllegalArgumentException("step must be at least one second");
+        }
+
+        ZoneId zoneId = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        Map<String, SeriesBuilder> builders = new LinkedHashMap<>();
+        repository.streamSeries(unique, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), field, rs -> {
+            String ticker = rs.getString(1);
+            long epoch = rs.getTimestamp(2).toLocalDateTime().atZone(zoneId).toEpochSecond();
+            double value = rs.getDouble(3);
+            builders.computeIfAbsent(ticker, t -> new SeriesBuilder()).add(epoch, value, stepSeconds);
+        });
+
+        Map<String, PriceSeriesResponse.Series> series = new LinkedHashMap<>();
+        for (String ticker : unique) {
+            SeriesBuilder builder = builders.get(ticker);
+            if (builder != null) series.put(ticker, builder.build());
+        }
+        return new PriceSeriesResponse(field, from, to, step == null ? null : stepSeconds, series);
+    }
+
+    /** Growable primitive arrays; with a step, a point in the same bucket replaces the previous one. */
+    private static final class SeriesBuilder {
+        private long[] t = new long[64];
+        private double[] v = new double[64];
+        private int size;
+        private long lastBucket = Long.MIN_VALUE;
+
+        void add(long epoch, double value, long stepSeconds) {
+            if (stepSeconds > 0) {
+                long bucket = Math.floorDiv(epoch, stepSeconds);
+                if (bucket == lastBucket) {
+                    t[size - 1] = epoch;
+                    v[size - 1] = value;
+                    return;
+                }
+                lastBucket = bucket;
+            }
+            if (size == t.length) {
+                t = Arrays.copyOf(t, size * 2);
+                v = Arrays.copyOf(v, size * 2);
+            }
+            t[size] = epoch;
+            v[size] = value;
+            size++;
+        }
+
+        PriceSeriesResponse.Series build() {
+            return new PriceSeriesResponse.Series(Arrays.copyOf(t, size), Arrays.copyOf(v, size));
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.SavedScreener;
+import com.example.reporting.model.SavedScreenerRequest;
+import com.example.reporting.model.SavedScreenerResponse;
+import com.example.reporting.model.ScreenerChangesResponse;
+import com.example.reporting.model.ScreenerResponse;
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.UniverseSnapshot;
+import com.example.reporting.repository.SavedScreenerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Screener expressions saved per user (JWT subject), each with its matching tickers kept in memory.
+ * <p>
+ * When the {@link UniverseSnapshot} moves to a new import generation, only the rows written by imports committed
+ * since the previous snapshot are re-tested against each screener, and the tickers entering or leaving are
+ * recorded. "Since" is by commit sequence (import_generation.commit_seq, see {@link UniverseSnapshot}), not by
+ * generation id: ids are allocated when an import starts, and concurrent imports can commit out of id order.
+ * Snapshots without a usable sequence (no import_generation table, a sequence going backwards, deleted rows)
+ * fall back to evaluating every screener in full, which records the same entered/left changes. Reading a screener's results then costs a lookup of its matches plus
+ * the sort, whatever the size of the universe.
+ */
+@Service
+public class SavedScreenerService {
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final UniverseSnapshotService snapshots;
+    private final SavedScreenerRepository repository;
+    private final Map<Long, MaterializedScreener> materialized = new ConcurrentHashMap<>();
+    private volatile Universe universe;
+
+    @Value("${reporting.screeners.max-per-user:20}")
+    private int maxPerUser;
+
+    // import generations of entered/left tickers kept per screener for /changes
+    @Value("${reporting.screeners.history-generations:1000}")
+    private int historyGenerations;
+
+    public SavedScreenerService(UniverseSnapshotService snapshots, SavedScreenerRepository repository) {
+        this.snapshots = snapshots;
+        this.repository = repository;
+    }
+
+    public List<SavedScreenerResponse> list(String userSub) {
+        List<SavedScreenerResponse> screeners = new ArrayList<>();
+        for (SavedScreener saved : repository.findByUserSubOrderByName(userSub)) {
+            screeners.add(toResponse(saved, screener(saved)));
+        }
+        return screeners;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the name or expression is invalid, the name is taken, or the user
+     *                                  has {@code reporting.screeners.max-per-user} screeners already
+     */
+    public SavedScreenerResponse create(String userSub, SavedScreenerRequest request) {
+        String name = checkName(request.name());
+        ScreenerExpression expression = ScreenerExpression.parse(trim(request.expression()));
+        if (repository.countByUserSub(userSub) >= maxPerUser) {
+            throw new IllegalArgumentException("At most " + maxPerUser + " saved screeners per user");
+        }
+        if (repository.existsByUserSubAndName(userSub, name)) {
+            throw new IllegalArgumentException("A screener named '" + name + "' already exists");
+        }
+
+        SavedScreener saved = new SavedScreener();
+        saved.setUserSub(userSub);
+        saved.setName(name);
+        saved.setExpression(expression.text());
+        saved.setCreatedAt(LocalDateTime.now());
+        saved.setUpdatedAt(saved.getCreatedAt());
+        saved = repository.save(saved);
+        return toResponse(saved, track(saved, expression));
+    }
+
+    /**
+     * Renames and/or changes the expression; a new expression starts a new entered/left history.
+     *
+     * @return empty when the user has no such screener
+     */
+    public Optional<SavedScreenerResponse> update(String userSub, Long id, SavedScreenerRequest request) {
+        Optional<SavedScreener> found = repository.findByIdAndUserSub(id, userSub);
+        if (found.isEmpty()) return Optional.empty();
+        SavedScreener saved = found.get();
+
+        String name = request.name() == null ? saved.getName() : checkName(request.name());
+        ScreenerExpression expression = request.expression() == null ? null
+                : ScreenerExpression.parse(trim(request.expression()));
+        if (!name.equals(saved.getName()) && repository.existsByUserSubAndName(userSub, name)) {
+            throw new IllegalArgumentException("A screener named '" + name + "' already exists");
+        }
+        boolean newExpression = expression != null && !expression.text().equals(saved.getExpression());
+
+        saved.setName(name);
+        if (newExpression) saved.setExpression(expression.text());
+        saved.setUpdatedAt(LocalDateTime.now());
+        saved = repository.save(saved);
+        MaterializedScreener screener = newExpression ? track(saved, expression) : screener(saved);
+        return Optional.of(toResponse(saved, screener));
+    }
+
+    /**
+     * @return false when the user has no such screener
+     */
+    public boolean delete(String userSub, Long id) {
+        Optional<SavedScreener> found = repository.findByIdAndUserSub(id, userSub);
+        if (found.isEmpty()) return false;
+        repository.delete(found.get());
+        untrack(id);
+        return true;
+    }
+
+    /**
+     * One page of a saved screener's current matches, ordered like the dashboard. The cost reports the matches
+     * looked up as rowsScanned and the lookup time as evaluateMicros; nothing is compiled or scanned.
+     *
+     * @return empty when the user has no such screener
+     */
+    public Optional<ScreenerResponse> results(String userSub, Long id, String sortBy, String order,
+                                              int page, int pageSize) {
+        MaterializedScreener screener = owned(userSub, id);
+        if (screener == null) return Optional.empty();
+
+        long start = System.nanoTime();
+        Universe u;
+        int[] rows;
+        synchronized (screener) {
+            u = screener.universe;
+            rows = new int[screener.tickers.size()];
+            int k = 0;
+            for (String ticker : screener.tickers) {
+                rows[k++] = u.rowByTicker.get(ticker);
+            }
+        }
+        int n = rows.length;
+        long lookedUpAt = System.nanoTime();
+
+        pageSize = Math.max(1, pageSize);
+        page = Math.max(0, page);
+        long from = (long) page * pageSize;
+        int to = (int) Math.min(from + pageSize, n);
+        IndexSort.sortTop(rows, n, to,
+                StockService.comparator(u.snapshot, StockService.sortField(sortBy), "desc".equalsIgnoreCase(order)));
+        long sortedAt = System.nanoTime();
+
+        List<StockAnalytics> stocks = StockService.materialize(u.snapshot, rows, (int) Math.min(from, n), to);
+        return Optional.of(new ScreenerResponse(screener.expression.text(), u.snapshot.version(), n, page, pageSize,
+                stocks, new ScreenerResponse.Cost(true, 0, n, StockService.micros(start, lookedUpAt),
+                StockService.micros(lookedUpAt, sortedAt))));
+    }
+
+    /**
+     * Tickers that entered and left the screen after commit sequence {@code since}, up to the current one.
+     *
+     * @return empty when the user has no such screener
+     * @throws IllegalArgumentException when {@code since} is older than the kept history
+     */
+    public Optional<ScreenerChangesResponse> changes(String userSub, Long id, long since) {
+        MaterializedScreener screener = owned(userSub, id);
+        if (screener == null) return Optional.empty();
+        return Optional.of(screener.changesSince(since));
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.snapshot.refresh-interval:PT15S}",
+            initialDelayString = "${reporting.snapshot.refresh-interval:PT15S}")
+    public void refreshIfChanged() {
+        try {
+            if (universe == null || universe.snapshot != snapshots.current()) refresh();
+        } catch (Exception e) {
+            // screeners keep answering from the previous snapshot
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Brings every screener to the current snapshot and picks up screeners saved, changed or deleted by other
+     * instances.
+     */
+    private synchronized Universe refresh() {
+        UniverseSnapshot snapshot = snapshots.current();
+        Universe previous = universe;
+        if (previous != null && previous.snapshot == snapshot) return previous;
+
+        long start = System.nanoTime();
+        Universe next = new Universe(snapshot);
+        int[] changed = changedRows(previous, next);
+
+        Set<Long> ids = new HashSet<>();
+        int incremental = 0;
+        for (SavedScreener saved : repository.findAll()) {
+            ids.add(saved.getId());
+            MaterializedScreener screener = materialized.get(saved.getId());
+            if (screener == null || !screener.expression.text().equals(saved.getExpression())) {
+                materialized.put(saved.getId(), new MaterializedScreener(saved,
+                        ScreenerExpression.parse(saved.getExpression()), next, historyGenerations));
+                continue;
+            }
+            screener.userSub = saved.getUserSub();
+            if (screener.advance(next, previous, changed)) incremental++;
+        }
+        materialized.keySet().retainAll(ids);
+        universe = next;
+        System.out.printf("Saved screeners v%d: %d screeners (%d incremental over %d changed rows) in %.1f ms%n",
+                snapshot.version(), ids.size(), incremental, changed == null ? snapshot.size() : changed.length,
+                (System.nanoTime() - start) / 1_000_000.0);
+        return next;
+    }
+
+    /**
+     * @return rows of {@code next} written after {@code previous} was built, or null when that cannot be told
+     * from the rows' commit sequences and every screener has to be evaluated in full
+     */
+    private static int[] changedRows(Universe previous, Universe next) {
+        if (previous == null) return null;
+        UniverseSnapshot before = previous.snapshot;
+        UniverseSnapshot after = next.snapshot;
+        if (before.version() < 0 || after.version() < before.version()) return null;
+
+        int[] rows = new int[after.size()];
+        int n = 0;
+        int added = 0;
+        for (int i = 0; i < after.size(); i++) {
+            long generation = after.generation[i];
+            if (generation < 0 || generation > before.version()) {
+                rows[n++] = i;
+                if (!previous.rowByTicker.containsKey(after.ticker[i])) added++;
+            }
+        }
+        // imports never delete rows; anything else may have, and a deleted row shows up in no generation
+        if (before.size() + added != after.size()) return null;
+        return Arrays.copyOf(rows, n);
+    }
+
+    private Universe universe() {
+        Universe u = universe;
+        return u != null && u.snapshot == snapshots.current() ? u : refresh();
+    }
+
+    private MaterializedScreener owned(String userSub, Long id) {
+        universe();
+        MaterializedScreener screener = materialized.get(id);
+        if (screener == null) {
+            // saved through another instance since the last refresh
+            Optional<SavedScreener> saved = repository.findByIdAndUserSub(id, userSub);
+            return saved.map(this::screener).orElse(null);
+        }
+        return screener.userSub.equals(userSub) ? screener : null;
+    }
+
+    private MaterializedScreener screener(SavedScreener saved) {
+        MaterializedScreener screener = materialized.get(saved.getId());
+        if (screener != null && screener.expression.text().equals(saved.getExpression())) return screener;
+        return track(saved, ScreenerExpression.parse(saved.getExpression()));
+    }
+
+    // under the refresh lock, so a concurrent refresh neither misses nor drops it
+    private synchronized MaterializedScreener track(SavedScreener saved, ScreenerExpression expression) {
+        MaterializedScreener screener = new MaterializedScreener(saved, expression, universe(), historyGenerations);
+        materialized.put(saved.getId(), screener);
+        return screener;
+    }
+
+    private synchronized void untrack(Long id) {
+        materialized.remove(id);
+    }
+
+    private static SavedScreenerResponse toResponse(SavedScreener saved, MaterializedScreener screener) {
+        synchronized (screener) {
+            return new SavedScreenerResponse(saved.getId(), saved.getName(), saved.getExpression(),
+                    screener.generation, screener.tickers.size());
+        }
+    }
+
+    private static String checkName(String name) {
+        String trimmed = trim(name);
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("Screener name is required");
+        if (trimmed.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Screener name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    private static String trim(String text) {
+        return text == null ? "" : text.trim();
+    }
+
+    /**
+     * A snapshot with its ticker -> row map, shared by all screeners brought to it.
+     */
+    private static final class Universe {
+
+        final UniverseSnapshot snapshot;
+        final Map<String, Integer> rowByTicker;
+
+        Universe(UniverseSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.rowByTicker = new HashMap<>(Math.max(16, snapshot.size() * 2));
+            for (int i = 0; i < snapshot.size(); i++) {
+                rowByTicker.put(snapshot.ticker[i], i);
+            }
+        }
+    }
+
+    private record Change(long generation, Set<String> entered, Set<String> left) {
+    }
+
+    /**
+     * Matching tickers of one screener as of {@link #universe}, and the entered/left history after generation
+     * {@link #since}. Guarded by its own monitor.
+     */
+    private static final class MaterializedScreener {
+
+        final Long id;
+        final ScreenerExpression expression;
+        final int maxHistory;
+        volatile String userSub;
+        final Set<String> tickers = new HashSet<>();
+        final Deque<Change> history = new ArrayDeque<>();
+        Universe universe;
+        long generation;
+        long since;
+
+        MaterializedScreener(SavedScreener saved, ScreenerExpression expression, Universe universe, int maxHistory) {
+            this.id = saved.getId();
+            this.expression = expression;
+            this.maxHistory = maxHistory;
+            this.userSub = saved.getUserSub();
+            UniverseSnapshot u = universe.snapshot;
+            int[] rows = new int[u.size()];
+            int n = expression.select(u, rows);
+            for (int k = 0; k < n; k++) {
+                tickers.add(u.ticker[rows[k]]);
+            }
+            this.universe = universe;
+            this.generation = u.version();
+            this.since = u.version();
+        }
+
+        /**
+         * @param changed rows of {@code next} written since {@code previous}, or null to evaluate every row
+         * @return true when only the changed rows were tested
+         */
+        synchronized boolean advance(Universe next, Universe previous, int[] changed) {
+            UniverseSnapshot u = next.snapshot;
+            Set<String> entered = new LinkedHashSet<>();
+            Set<String> left = new LinkedHashSet<>();
+            boolean incremental = changed != null && universe == previous;
+            if (incremental) {
+                ScreenerExpression.RowPredicate matches = expression.bind(u);
+                for (int i : changed) {
+                    String ticker = u.ticker[i];
+                    if (matches.test(i)) {
+                        if (tickers.add(ticker)) entered.add(ticker);
+                    } else if (tickers.remove(ticker)) {
+                        left.add(ticker);
+                    }
+                }
+            } else {
+                int[] rows = new int[u.size()];
+                int n = expression.select(u, rows);
+                Set<String> now = new HashSet<>(Math.max(16, n * 2));
+                for (int k = 0; k < n; k++) {
+                    String ticker = u.ticker[rows[k]];
+                    now.add(ticker);
+                    if (!tickers.contains(ticker)) entered.add(ticker);
+                }
+                for (String ticker : tickers) {
+                    if (!now.contains(ticker)) left.add(ticker);
+                }
+                tickers.clear();
+                tickers.addAll(now);
+            }
+
+            if (u.version() < generation) {
+                // generations restarted: older history no longer lines up
+                history.clear();
+                since = u.version();
+            } else if (!entered.isEmpty() || !left.isEmpty()) {
+                history.addLast(new Change(u.version(), entered, left));
+                while (history.size() > maxHistory) {
+                    since = history.removeFirst().generation();
+                }
+            }
+            universe = next;
+            generation = u.version();
+            return incremental;
+        }
+
+        synchronized ScreenerChangesResponse changesSince(long from) {
+            if (from < since) {
+                throw new IllegalArgumentException("Changes are kept since generation " + since
+                        + "; reload the results instead");
+            }
+            Set<String> entered = new LinkedHashSet<>();
+            Set<String> left = new LinkedHashSet<>();
+            for (Change change : history) {
+                if (change.generation() <= from) continue;
+                for (String ticker : change.entered()) {
+                    if (!left.remove(ticker)) entered.add(ticker);
+                }
+                for (String ticker : change.left()) {
+                    if (!entered.remove(ticker)) left.add(ticker);
+                }
+            }
+            List<String> enteredList = new ArrayList<>(entered);
+            List<String> leftList = new ArrayList<>(left);
+            Collections.sort(enteredList);
+            Collections.sort(leftList);
+            return new ScreenerChangesResponse(id, from, generation, enteredList, leftList);
+        }
+    }
+}
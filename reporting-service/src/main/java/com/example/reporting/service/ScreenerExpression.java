@@ -0,0 +1,557 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A parsed and validated screener expression, e.g.
+ * {@code rank1Week > 5 and cmp >= cmp365 * 0.95 and marketCap between 500 and 5000}; immutable, so one instance
+ * serves every request with the same text.
+ * <p>
+ * Grammar (keywords and field names case-insensitive):
+ * <pre>
+ * expr       := and ("or" and)*
+ * and        := not ("and" not)*
+ * not        := "not" not | comparison
+ * comparison := sum [(">" | ">=" | "<" | "<=" | "=" | "!=") sum | "between" sum "and" sum]
+ * sum        := product (("+" | "-") product)*
+ * product    := unary (("*" | "/") unary)*
+ * unary      := "-" unary | number | field | "(" expr ")"
+ * </pre>
+ * Fields are the numeric snapshot columns ({@link #FIELDS}). A comparison involving a missing value is false
+ * (so "not" of it is true), as with the dashboard minimums. Constant arithmetic is folded at parse time.
+ * <p>
+ * {@link #bind} turns the tree into nested row predicates over one snapshot's column arrays; comparisons of a
+ * field with constants (the common case) become single array reads, so evaluation is a primitive loop over
+ * row indices without boxing or per-row lookups. {@link #select} goes one step further for the top-level
+ * "and": each conjunct narrows a row list in its own pass, field-vs-constant ones first as plain array loops,
+ * so the costlier conjuncts only see the rows that are left.
+ */
+final class ScreenerExpression {
+
+    static final List<String> FIELDS = List.of("cmp", "dailyChange", "cmp365", "rank1Year", "rank1Month",
+            "rank2Month", "rank1Week", "marketCap");
+
+    static final int MAX_LENGTH = 1000;
+
+    private static final Map<String, String> FIELD_NAMES = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        for (String field : FIELDS) FIELD_NAMES.put(field, field);
+    }
+
+    @FunctionalInterface
+    interface RowPredicate {
+        boolean test(int row);
+    }
+
+    @FunctionalInterface
+    private interface RowValue {
+        double value(int row);
+    }
+
+    private final String text;
+    private final Node root;
+    // top-level "and" operands, column comparisons first
+    private final List<Node> conjuncts;
+
+    private ScreenerExpression(String text, Node root) {
+        this.text = text;
+        this.root = root;
+        List<Node> operands = root instanceof Logical l && l.and() ? l.operands() : List.of(root);
+        List<Node> ordered = new ArrayList<>(operands.size());
+        for (Node n : operands) if (isColumnTest(n)) ordered.add(n);
+        for (Node n : operands) if (!isColumnTest(n)) ordered.add(n);
+        this.conjuncts = List.copyOf(ordered);
+    }
+
+    /**
+     * @throws IllegalArgumentException with the position of the first problem
+     */
+    static ScreenerExpression parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Screener expression is empty");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Screener expression is longer than " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(text);
+        Node root = parser.expression();
+        parser.expectEnd();
+        if (!root.isCondition()) {
+            throw new IllegalArgumentException("Screener expression must be a condition, e.g. rank1Week > 5");
+        }
+        return new ScreenerExpression(text, root);
+    }
+
+    String text() {
+        return text;
+    }
+
+    RowPredicate bind(UniverseSnapshot u) {
+        return condition(root, u);
+    }
+
+    /**
+     * Fills {@code rows} with the matching rows of the snapshot, in row order.
+     *
+     * @param rows at least {@code u.size()} long
+     * @return the number of matches
+     */
+    int select(UniverseSnapshot u, int[] rows) {
+        int n = u.size();
+        for (int i = 0; i < n; i++) rows[i] = i;
+        for (Node conjunct : conjuncts) {
+            if (n == 0) break;
+            n = filter(conjunct, u, rows, n);
+        }
+        return n;
+    }
+
+    // keeps the first n rows that pass, in order
+    private static int filter(Node node, UniverseSnapshot u, int[] rows, int n) {
+        int m = 0;
+        if (node instanceof Between b && isColumnTest(b)) {
+            double[] column = u.column(((Field) b.value()).name());
+            double low = ((Constant) b.low()).value(), high = ((Constant) b.high()).value();
+            for (int k = 0; k < n; k++) {
+                int i = rows[k];
+                if (column[i] >= low && column[i] <= high) rows[m++] = i;
+            }
+            return m;
+        }
+        if (node instanceof Comparison c && isColumnTest(c)) {
+            double[] column = u.column(((Field) c.left()).name());
+            double v = ((Constant) c.right()).value();
+            switch (c.op()) {
+                case ">" -> {
+                    for (int k = 0; k < n; k++) if (column[rows[k]] > v) rows[m++] = rows[k];
+                }
+                case ">=" -> {
+                    for (int k = 0; k < n; k++) if (column[rows[k]] >= v) rows[m++] = rows[k];
+                }
+                case "<" -> {
+                    for (int k = 0; k < n; k++) if (column[rows[k]] < v) rows[m++] = rows[k];
+                }
+                case "<=" -> {
+                    for (int k = 0; k < n; k++) if (column[rows[k]] <= v) rows[m++] = rows[k];
+                }
+                case "=" -> {
+                    for (int k = 0; k < n; k++) if (column[rows[k]] == v) rows[m++] = rows[k];
+                }
+                default -> {
+                    for (int k = 0; k < n; k++) {
+                        double x = column[rows[k]];
+                        if (x != v && !Double.isNaN(x)) rows[m++] = rows[k];
+                    }
+                }
+            }
+            return m;
+        }
+        RowPredicate predicate = condition(node, u);
+        for (int k = 0; k < n; k++) {
+            if (predicate.test(rows[k])) rows[m++] = rows[k];
+        }
+        return m;
+    }
+
+    private static boolean isColumnTest(Node node) {
+        if (node instanceof Comparison c) return c.left() instanceof Field && c.right() instanceof Constant;
+        if (node instanceof Between b) {
+            return b.value() instanceof Field && b.low() instanceof Constant && b.high() instanceof Constant;
+        }
+        return false;
+    }
+
+    // ---------- binding ----------
+
+    private static RowPredicate condition(Node node, UniverseSnapshot u) {
+        if (node instanceof Logical logical) {
+            RowPredicate[] parts = new RowPredicate[logical.operands().size()];
+            for (int k = 0; k < parts.length; k++) parts[k] = condition(logical.operands().get(k), u);
+            if (parts.length == 2) {
+                RowPredicate a = parts[0], b = parts[1];
+                return logical.and() ? i -> a.test(i) && b.test(i) : i -> a.test(i) || b.test(i);
+            }
+            return logical.and()
+                    ? i -> {
+                        for (RowPredicate p : parts) if (!p.test(i)) return false;
+                        return true;
+                    }
+                    : i -> {
+                        for (RowPredicate p : parts) if (p.test(i)) return true;
+                        return false;
+                    };
+        }
+        if (node instanceof Not not) {
+            RowPredicate operand = condition(not.operand(), u);
+            return i -> !operand.test(i);
+        }
+        if (node instanceof Between between) {
+            if (between.value() instanceof Field f && between.low() instanceof Constant lo
+                    && between.high() instanceof Constant hi) {
+                double[] column = u.column(f.name());
+                double low = lo.value(), high = hi.value();
+                return i -> column[i] >= low && column[i] <= high;
+            }
+            RowValue value = value(between.value(), u), low = value(between.low(), u), high = value(between.high(), u);
+            return i -> {
+                double v = value.value(i);
+                return v >= low.value(i) && v <= high.value(i);
+            };
+        }
+        Comparison c = (Comparison) node;
+        if (c.left() instanceof Field f && c.right() instanceof Constant k) {
+            double[] column = u.column(f.name());
+            double constant = k.value();
+            return switch (c.op()) {
+                case ">" -> i -> column[i] > constant;
+                case ">=" -> i -> column[i] >= constant;
+                case "<" -> i -> column[i] < constant;
+                case "<=" -> i -> column[i] <= constant;
+                case "=" -> i -> column[i] == constant;
+                default -> i -> column[i] != constant && !Double.isNaN(column[i]);
+            };
+        }
+        RowValue left = value(c.left(), u), right = value(c.right(), u);
+        return switch (c.op()) {
+            case ">" -> i -> left.value(i) > right.value(i);
+            case ">=" -> i -> left.value(i) >= right.value(i);
+            case "<" -> i -> left.value(i) < right.value(i);
+            case "<=" -> i -> left.value(i) <= right.value(i);
+            case "=" -> i -> left.value(i) == right.value(i);
+            default -> i -> {
+                double l = left.value(i), r = right.value(i);
+                return l != r && !Double.isNaN(l) && !Double.isNaN(r);
+            };
+        };
+    }
+
+    private static RowValue value(Node node, UniverseSnapshot u) {
+        if (node instanceof Constant k) {
+            double constant = k.value();
+            return i -> constant;
+        }
+        if (node instanceof Field f) {
+            double[] column = u.column(f.name());
+            return i -> column[i];
+        }
+        if (node instanceof Negate n) {
+            RowValue operand = value(n.operand(), u);
+            return i -> -operand.value(i);
+        }
+        Arithmetic a = (Arithmetic) node;
+        if (a.right() instanceof Constant k) {
+            RowValue left = value(a.left(), u);
+            double constant = k.value();
+            return switch (a.op()) {
+                case '+' -> i -> left.value(i) + constant;
+                case '-' -> i -> left.value(i) - constant;
+                case '*' -> i -> left.value(i) * constant;
+                default -> i -> left.value(i) / constant;
+            };
+        }
+        RowValue left = value(a.left(), u), right = value(a.right(), u);
+        return switch (a.op()) {
+            case '+' -> i -> left.value(i) + right.value(i);
+            case '-' -> i -> left.value(i) - right.value(i);
+            case '*' -> i -> left.value(i) * right.value(i);
+            default -> i -> left.value(i) / right.value(i);
+        };
+    }
+
+    // ---------- syntax tree ----------
+
+    private interface Node {
+        boolean isCondition();
+    }
+
+    private record Constant(double value) implements Node {
+        public boolean isCondition() {
+            return false;
+        }
+    }
+
+    private record Field(String name) implements Node {
+        public boolean isCondition() {
+            return false;
+        }
+    }
+
+    private record Negate(Node operand) implements Node {
+        public boolean isCondition() {
+            return false;
+        }
+    }
+
+    private record Arithmetic(char op, Node left, Node right) implements Node {
+        public boolean isCondition() {
+            return false;
+        }
+    }
+
+    private record Comparison(String op, Node left, Node right) implements Node {
+        public boolean isCondition() {
+            return true;
+        }
+    }
+
+    private record Between(Node value, Node low, Node high) implements Node {
+        public boolean isCondition() {
+            return true;
+        }
+    }
+
+    private record Not(Node operand) implements Node {
+        public boolean isCondition() {
+            return true;
+        }
+    }
+
+    private record Logical(boolean and, List<Node> operands) implements Node {
+        public boolean isCondition() {
+            return true;
+        }
+    }
+
+    // ---------- parser ----------
+
+    /** Recursive descent over the raw text; tokens are read on demand. */
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node expression() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(and());
+            while (keyword("or")) operands.add(and());
+            return operands.size() == 1 ? operands.get(0) : new Logical(false, operands(operands));
+        }
+
+        private Node and() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(not());
+            while (keyword("and")) operands.add(not());
+            return operands.size() == 1 ? operands.get(0) : new Logical(true, operands(operands));
+        }
+
+        private Node not() {
+            int start = skipSpace();
+            if (keyword("not")) {
+                Node operand = not();
+                requireCondition(operand, start, "not");
+                return new Not(operand);
+            }
+            return comparison();
+        }
+
+        private Node comparison() {
+            int start = skipSpace();
+            Node left = sum();
+            if (keyword("between")) {
+                requireNumber(left, start, "between");
+                int lowStart = skipSpace();
+                Node low = sum();
+                requireNumber(low, lowStart, "between");
+                if (!keyword("and")) throw error("expected 'and' in between");
+                int highStart = skipSpace();
+                Node high = sum();
+                requireNumber(high, highStart, "between");
+                return new Between(left, low, high);
+            }
+            String op = comparisonOperator();
+            if (op == null) return left;
+            requireNumber(left, start, op);
+            int rightStart = skipSpace();
+            Node right = sum();
+            requireNumber(right, rightStart, op);
+            // keep field-vs-constant on the left so it binds to a single array read
+            if (left instanceof Constant && right instanceof Field) {
+                return new Comparison(mirror(op), right, left);
+            }
+            return new Comparison(op, left, right);
+        }
+
+        private Node sum() {
+            Node left = product();
+            while (true) {
+                skipSpace();
+                char c = peek();
+                if (c != '+' && c != '-') return left;
+                int start = pos++;
+                left = arithmetic(c, left, product(), start);
+            }
+        }
+
+        private Node product() {
+            Node left = unary();
+            while (true) {
+                skipSpace();
+                char c = peek();
+                if (c != '*' && c != '/') return left;
+                int start = pos++;
+                left = arithmetic(c, left, unary(), start);
+            }
+        }
+
+        private Node unary() {
+            int start = skipSpace();
+            char c = peek();
+            if (c == '-') {
+                pos++;
+                Node operand = unary();
+                requireNumber(operand, start, "-");
+                return operand instanceof Constant k ? new Constant(-k.value()) : new Negate(operand);
+            }
+            if (c == '(') {
+                pos++;
+                Node inner = expression();
+                skipSpace();
+                if (peek() != ')') throw error("expected ')'");
+                pos++;
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') return number();
+            if (Character.isLetter(c) || c == '_') {
+                String word = word();
+                String field = FIELD_NAMES.get(word);
+                if (field == null) {
+                    pos = start;
+                    throw error("unknown field '" + word + "', expected one of " + FIELDS);
+                }
+                return new Field(field);
+            }
+            throw error(c == 0 ? "unexpected end of expression" : "unexpected '" + c + "'");
+        }
+
+        private Node number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) pos++;
+            if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                pos++;
+                if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) pos++;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("invalid number");
+            }
+        }
+
+        private Node arithmetic(char op, Node left, Node right, int at) {
+            if (left.isCondition() || right.isCondition()) {
+                pos = at;
+                throw error("'" + op + "' needs numbers on both sides");
+            }
+            if (left instanceof Constant a && right instanceof Constant b) {
+                return new Constant(switch (op) {
+                    case '+' -> a.value() + b.value();
+                    case '-' -> a.value() - b.value();
+                    case '*' -> a.value() * b.value();
+                    default -> a.value() / b.value();
+                });
+            }
+            return new Arithmetic(op, left, right);
+        }
+
+        private String comparisonOperator() {
+            skipSpace();
+            for (String op : new String[]{">=", "<=", "==", "!=", "<>", ">", "<", "="}) {
+                if (text.startsWith(op, pos)) {
+                    pos += op.length();
+                    return switch (op) {
+                        case "==" -> "=";
+                        case "<>" -> "!=";
+                        default -> op;
+                    };
+                }
+            }
+            return null;
+        }
+
+        private static String mirror(String op) {
+            return switch (op) {
+                case ">" -> "<";
+                case ">=" -> "<=";
+                case "<" -> ">";
+                case "<=" -> ">=";
+                default -> op;
+            };
+        }
+
+        private List<Node> operands(List<Node> operands) {
+            for (Node operand : operands) {
+                if (!operand.isCondition()) throw error("'and'/'or' need conditions on both sides");
+            }
+            return List.copyOf(operands);
+        }
+
+        private void requireNumber(Node node, int at, String op) {
+            if (node.isCondition()) {
+                pos = at;
+                throw error("'" + op + "' needs a number, not a condition");
+            }
+        }
+
+        private void requireCondition(Node node, int at, String op) {
+            if (!node.isCondition()) {
+                pos = at;
+                throw error("'" + op + "' needs a condition, e.g. rank1Week > 5");
+            }
+        }
+
+        // consumes the keyword when it is the next whole word
+        private boolean keyword(String keyword) {
+            int start = skipSpace();
+            if (!Character.isLetter(peek())) return false;
+            String word = word();
+            if (word.equalsIgnoreCase(keyword)) return true;
+            pos = start;
+            return false;
+        }
+
+        private String word() {
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (pos < text.length()) {
+                int start = pos;
+                String token = Character.isLetter(peek()) ? word().toLowerCase(Locale.ROOT) : String.valueOf(peek());
+                pos = start;
+                throw error("unexpected '" + token + "'");
+            }
+        }
+
+        private int skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+            return pos;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid screener expression at position " + (pos + 1) + ": "
+                    + message);
+        }
+    }
+}
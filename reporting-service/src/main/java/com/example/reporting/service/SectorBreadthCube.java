@@ -0,0 +1,148 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.SectorBreadthResponse;
+import com.example.reporting.model.UniverseSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Breadth aggregated per (sector, market-cap tier) cell over one {@link UniverseSnapshot}; immutable once built.
+ * <p>
+ * Tiers are by market-cap rank: the first {@code largeCapRank} stocks are large caps, the next ones up to
+ * {@code midCapRank} mid caps, the rest small caps. Stocks without a market cap have no tier and are left out;
+ * stocks without a sector go to {@link #UNCLASSIFIED}. Slices merge cells, so any slice costs
+ * O(sectors x tiers), independent of the universe size.
+ */
+final class SectorBreadthCube {
+
+    static final String UNCLASSIFIED = "Unclassified";
+    static final String ALL = "all";
+    static final List<String> TIERS = List.of("large", "mid", "small");
+
+    // per-cell counters, in this order
+    private static final int TOTAL = 0, GREEN = 1, MISSING = 2, ABOVE3 = 3, ABOVE5 = 4, ABOVE8 = 5,
+            BELOW3 = 6, BELOW5 = 7, BELOW8 = 8, COUNTERS = 9;
+
+    private final long generation;
+    private final String[] sectors;
+    // [sector * TIERS + tier][counter]
+    private final int[][] counts;
+    private final double[] changeSum;
+    private final int[] changeCount;
+
+    private SectorBreadthCube(long generation, String[] sectors) {
+        this.generation = generation;
+        this.sectors = sectors;
+        int cells = sectors.length * TIERS.size();
+        this.counts = new int[cells][COUNTERS];
+        this.changeSum = new double[cells];
+        this.changeCount = new int[cells];
+    }
+
+    static SectorBreadthCube build(UniverseSnapshot u, int largeCapRank, int midCapRank) {
+        // sector names in alphabetical order, as served
+        Map<String, Integer> sectorIndex = new TreeMap<>();
+        for (int i = 0; i < u.size(); i++) {
+            sectorIndex.putIfAbsent(u.sector[i] != null ? u.sector[i] : UNCLASSIFIED, 0);
+        }
+        String[] names = sectorIndex.keySet().toArray(new String[0]);
+        for (int s = 0; s < names.length; s++) sectorIndex.put(names[s], s);
+
+        // tier by market-cap rank; only the top midCapRank need to be ordered
+        int[] rows = new int[u.size()];
+        int n = 0;
+        for (int i = 0; i < u.size(); i++) {
+            if (!Double.isNaN(u.marketCap[i])) rows[n++] = i;
+        }
+        IndexSort.sortTop(rows, n, Math.min(midCapRank, n), IndexSort.byColumn(u.marketCap, true));
+        int[] tier = new int[u.size()];
+        Arrays.fill(tier, -1);
+        for (int k = 0; k < n; k++) {
+            tier[rows[k]] = k < largeCapRank ? 0 : k < midCapRank ? 1 : 2;
+        }
+
+        SectorBreadthCube cube = new SectorBreadthCube(u.version(), names);
+        for (int i = 0; i < u.size(); i++) {
+            if (tier[i] < 0) continue;
+            int sector = sectorIndex.get(u.sector[i] != null ? u.sector[i] : UNCLASSIFIED);
+            cube.add(sector * TIERS.size() + tier[i], u.dailyChange[i]);
+        }
+        return cube;
+    }
+
+    private void add(int cell, double change) {
+        int[] c = counts[cell];
+        c[TOTAL]++;
+        if (Double.isNaN(change)) {
+            c[MISSING]++;
+            change = 0;
+        } else {
+            changeSum[cell] += change;
+            changeCount[cell]++;
+        }
+        if (change >= 0) c[GREEN]++;
+        if (change >= 3) c[ABOVE3]++;
+        if (change >= 5) c[ABOVE5]++;
+        if (change >= 8) c[ABOVE8]++;
+        if (change <= -3) c[BELOW3]++;
+        if (change <= -5) c[BELOW5]++;
+        if (change <= -8) c[BELOW8]++;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * @param sector  only this sector (case-insensitive), or null for all
+     * @param tier    only this tier, or null for all
+     * @param groupBy "cell", "sector" or "tier"
+     */
+    List<SectorBreadthResponse.Cell> slice(String sector, String tier, String groupBy) {
+        int tierFilter = tier == null ? -1 : TIERS.indexOf(tier.toLowerCase(Locale.ROOT));
+        if (tier != null && tierFilter < 0) {
+            throw new IllegalArgumentException("tier must be one of " + TIERS);
+        }
+        boolean bySector = groupBy.equals("cell") || groupBy.equals("sector");
+        boolean byTier = groupBy.equals("cell") || groupBy.equals("tier");
+        if (!bySector && !byTier) {
+            throw new IllegalArgumentException("groupBy must be cell, sector or tier");
+        }
+
+        List<SectorBreadthResponse.Cell> result = new ArrayList<>();
+        int[] sum = new int[COUNTERS];
+        double[] change = new double[2];
+        // one pass per output group; groups are tiny, so re-scanning the cells is cheaper than allocating maps
+        for (int s = 0; s < (bySector ? sectors.length : 1); s++) {
+            for (int t = 0; t < (byTier ? TIERS.size() : 1); t++) {
+                Arrays.fill(sum, 0);
+                change[0] = 0;
+                change[1] = 0;
+                for (int cs = 0; cs < sectors.length; cs++) {
+                    if (bySector && cs != s) continue;
+                    if (sector != null && !sectors[cs].equalsIgnoreCase(sector)) continue;
+                    for (int ct = 0; ct < TIERS.size(); ct++) {
+                        if (byTier && ct != t) continue;
+                        if (tierFilter >= 0 && ct != tierFilter) continue;
+                        int cell = cs * TIERS.size() + ct;
+                        for (int k = 0; k < COUNTERS; k++) sum[k] += counts[cell][k];
+                        change[0] += changeSum[cell];
+                        change[1] += changeCount[cell];
+                    }
+                }
+                if (sum[TOTAL] == 0) continue;
+                result.add(new SectorBreadthResponse.Cell(
+                        bySector ? sectors[s] : ALL, byTier ? TIERS.get(t) : ALL,
+                        sum[TOTAL], sum[GREEN], sum[TOTAL] - sum[GREEN], sum[MISSING],
+                        sum[ABOVE3], sum[ABOVE5], sum[ABOVE8], sum[BELOW3], sum[BELOW5], sum[BELOW8],
+                        change[1] == 0 ? null : Math.round(change[0] / change[1] * 100.0) / 100.0));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.reporting.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ticker -> sector mapping from {@code reporting.sectors.file}, read once at startup.
+ * <p>
+ * A CSV with a header row naming a symbol column ("Symbol" or "Ticker") and a sector column ("Sector" or
+ * "Industry"), so NSE's index constituent lists (e.g. ind_nifty500list.csv) can be used as they are; without
+ * such a header, column 1 is the ticker and column 2 the sector. Tickers match with or without the "NSE:"
+ * prefix, case-insensitively.
+ */
+@Component
+public class SectorClassification {
+
+    private static final String PREFIX = "NSE:";
+
+    @Value("${reporting.sectors.file:classpath:sectors.csv}")
+    private Resource file;
+
+    private Map<String, String> sectors = Map.of();
+
+    @PostConstruct
+    public void load() {
+        if (!file.exists()) {
+            System.out.println("No sector mapping at " + file.getDescription() + "; every stock is unclassified");
+            return;
+        }
+        Map<String, String> loaded = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            if (line == null) return;
+            List<String> header = split(line.replace("\uFEFF", ""));
+            int symbolColumn = indexOf(header, "symbol", "ticker");
+            int sectorColumn = indexOf(header, "sector", "industry");
+            if (symbolColumn < 0 || sectorColumn < 0) {
+                // no recognizable header: the first line is data
+                symbolColumn = 0;
+                sectorColumn = 1;
+                put(loaded, names, header, symbolColumn, sectorColumn);
+            }
+            while ((line = reader.readLine()) != null) {
+                put(loaded, names, split(line), symbolColumn, sectorColumn);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read sector mapping " + file.getDescription(), e);
+        }
+        sectors = loaded;
+        System.out.println("Loaded sectors for " + loaded.size() + " tickers (" + names.size() + " sectors)");
+    }
+
+    /**
+     * @return the stock's sector, or null when it is not in the mapping
+     */
+    public String sectorOf(String ticker) {
+        return ticker == null ? null : sectors.get(key(ticker));
+    }
+
+    private static void put(Map<String, String> loaded, Map<String, String> names, List<String> fields,
+                            int symbolColumn, int sectorColumn) {
+        if (fields.size() <= Math.max(symbolColumn, sectorColumn)) return;
+        String symbol = fields.get(symbolColumn);
+        String sector = fields.get(sectorColumn);
+        if (symbol.isEmpty() || sector.isEmpty()) return;
+        // one String instance per sector name
+        loaded.put(key(symbol), names.computeIfAbsent(sector, s -> s));
+    }
+
+    private static String key(String ticker) {
+        String t = ticker.trim().toUpperCase(Locale.ROOT);
+        return t.startsWith(PREFIX) ? t.substring(PREFIX.length()) : t;
+    }
+
+    private static int indexOf(List<String> header, String... names) {
+        for (int i = 0; i < header.size(); i++) {
+            for (String name : names) {
+                if (header.get(i).equalsIgnoreCase(name)) return i;
+            }
+        }
+        return -1;
+    }
+
+    // comma-separated, with optional double quotes around fields ("" inside quotes is a quote)
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
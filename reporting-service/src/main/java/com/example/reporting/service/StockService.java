@@ -1,20 +1,57 @@
 package com.example.reporting.service;
 
+import com.example.reporting.model.CursorPage;
+import com.example.reporting.model.PageCursor;
+import com.example.reporting.model.ScreenerResponse;
 import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.StockQuery;
+import com.example.reporting.model.UniverseSnapshot;
 import com.example.reporting.repository.StockAnalyticsRepository;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
+/**
+ * Dashboard queries, answered from the in-memory {@link UniverseSnapshot} (no database access per request).
+ * Views and minimum filters are ANDs of the snapshot's {@link DashboardBitmaps}; only the rows they select are
+ * checked further (search text, cursor), sorting works on those row indices, and only the returned page is
+ * materialized as {@link StockAnalytics} objects. The dashboard page query can instead run in SQL
+ * ({@code reporting.query.mode=sql}).
+ */
 @Service
 public class StockService {
 
+    // getTopGainers only ever ranked the first 500 matches
+    private static final int TOP_GAINERS_LIMIT = 500;
+
+    private final UniverseSnapshotService snapshots;
     private final StockAnalyticsRepository repository;
+    private final AtomicReference<DashboardBitmaps> bitmaps = new AtomicReference<>();
+    // compiled screeners by expression text
+    private final Map<String, ScreenerExpression> screeners = new ConcurrentHashMap<>();
+
+    // snapshot = in-memory UniverseSnapshot, sql = filtered/sorted/paged by the database
+    @Value("${reporting.query.mode:snapshot}")
+    private String queryMode;
 
-    public StockService(StockAnalyticsRepository repository) {
+    @Value("${reporting.screener.cache-size:500}")
+    private int screenerCacheSize;
+
+    public StockService(UniverseSnapshotService snapshots, StockAnalyticsRepository repository) {
+        this.snapshots = snapshots;
         this.repository = repository;
     }
 
@@ -30,110 +67,410 @@ public class StockService {
             int page,
             int pageSize // 👈 renamed for clarity
     ) {
-        return repository.findAll().stream()
-                .filter(s -> s.getCmp() != null && s.getMarketCap() != null)
-
-                // ✅ View-based filters
-                .filter(s -> {
-                    return switch (view) {
-                        case "52w" -> s.getCmp365() != null && s.getCmp() >= s.getCmp365();
-                        case "recent" -> s.getCmp365() == null;
-                        case "daily" -> s.getDailyChange() != null && s.getDailyChange() >= 10.0;
-                        default -> true;
-                    };
-                })
-
-                // ✅ Normal filters
-                .filter(s -> minMarketCap == null || s.getMarketCap() >= minMarketCap)
-                .filter(s -> minDailyChange == null || (s.getDailyChange() != null && s.getDailyChange() >= minDailyChange))
-                .filter(s -> minRank1Week == null || (s.getRank1Week() != null && s.getRank1Week() >= minRank1Week))
-                .filter(s -> minRank1Month == null || (s.getRank1Month() != null && s.getRank1Month() >= minRank1Month))
-                .filter(s -> {
-                    if (search == null || search.isBlank()) return true;
-                    String q = search.toLowerCase();
-                    return (s.getTicker() != null && s.getTicker().toLowerCase().contains(q)) ||
-                            (s.getName() != null && s.getName().toLowerCase().contains(q));
-                })
-
-                // ✅ Sorting
-                .sorted(getComparator(sortBy, order))
-
-                // ✅ Pagination
-                .skip((long) page * pageSize) // cast to long to avoid overflow
-                .limit(pageSize)
-                .collect(Collectors.toList());
-    }
-
-
-    private Comparator<StockAnalytics> getComparator(String sortBy, String order) {
-        Comparator<StockAnalytics> comparator;
+        return findStocks(new StockQuery(minMarketCap, minDailyChange, minRank1Week, minRank1Month,
+                sortBy, order, search, view, page, pageSize)).getContent();
+    }
 
-        switch (sortBy) {
-            case "cmp" -> comparator = Comparator.comparing(
-                    StockAnalytics::getCmp, Comparator.nullsLast(Double::compareTo));
-            case "marketCap" -> comparator = Comparator.comparing(
-                    StockAnalytics::getMarketCap, Comparator.nullsLast(Double::compareTo));
-            case "dailyChange" -> comparator = Comparator.comparing(
-                    StockAnalytics::getDailyChange, Comparator.nullsLast(Double::compareTo));
-            case "rank1Week" -> comparator = Comparator.comparing(
-                    StockAnalytics::getRank1Week, Comparator.nullsLast(Double::compareTo));
-            case "rank1Month" -> comparator = Comparator.comparing(
-                    StockAnalytics::getRank1Month, Comparator.nullsLast(Double::compareTo));
-            case "rank1Year" -> comparator = Comparator.comparing(
-                    StockAnalytics::getRank1Year, Comparator.nullsLast(Double::compareTo));
-            case "rank2Month" -> comparator = Comparator.comparing(
-                    StockAnalytics::getRank2Month, Comparator.nullsLast(Double::compareTo));
-            case "name" -> comparator = Comparator.comparing(
-                    StockAnalytics::getName, Comparator.nullsLast(String::compareToIgnoreCase));
-            case "ticker" -> comparator = Comparator.comparing(
-                    StockAnalytics::getTicker, Comparator.nullsLast(String::compareToIgnoreCase));
-            case "lastUpdated" -> comparator = Comparator.comparing(
-                    StockAnalytics::getLastUpdated, Comparator.nullsLast(LocalDateTime::compareTo));
-            default -> comparator = Comparator.comparing(
-                    StockAnalytics::getDailyChange, Comparator.nullsLast(Double::compareTo));
+    /**
+     * One dashboard page plus the total number of matches, from the snapshot or, with
+     * {@code reporting.query.mode=sql}, from one SQL query ({@link StockAnalyticsRepository#findPage}).
+     */
+    public Page<StockAnalytics> findStocks(StockQuery query) {
+        if ("sql".equalsIgnoreCase(queryMode)) {
+            return repository.findPage(query);
+        }
+
+        UniverseSnapshot u = snapshots.current();
+        int[] rows = filterDashboard(u, query, null);
+        int n = rows.length;
+
+        // ✅ Pagination
+        int pageSize = Math.max(1, query.pageSize());
+        int page = Math.max(0, query.page());
+        long from = (long) page * pageSize; // long to avoid overflow
+
+        // ✅ Sorting: only as far as the end of the requested page
+        IndexSort.sortTop(rows, n, (int) Math.min(from + pageSize, n),
+                comparator(u, sortField(query.sortBy()), query.descending()));
+        List<StockAnalytics> content =
+                materialize(u, rows, (int) Math.min(from, n), (int) Math.min(from + pageSize, n));
+        return new PageImpl<>(content, PageRequest.of(page, pageSize), n);
+    }
+
+    /**
+     * Keyset paging for the dashboard: the page after {@code cursor} (null for the first page).
+     * Cost does not grow with depth, and rows rewritten by an import between requests are neither
+     * repeated nor skipped because of shifting offsets. {@code query.page()} is ignored.
+     */
+    public CursorPage scrollStocks(StockQuery query, String cursor) {
+        String sortBy = sortField(query.sortBy());
+        PageCursor after = cursor == null ? null : checkCursor(PageCursor.decode(cursor), sortBy, query.descending());
+        int pageSize = Math.max(1, query.pageSize());
+
+        List<StockAnalytics> fetched;
+        if ("sql".equalsIgnoreCase(queryMode)) {
+            fetched = repository.findAfter(query, after, pageSize + 1);
+        } else {
+            UniverseSnapshot u = snapshots.current();
+            int[] rows = filterDashboard(u, query, after == null ? null : afterCursor(u, after));
+            int n = rows.length;
+            IndexSort.sortTop(rows, n, pageSize + 1, comparator(u, sortBy, query.descending()));
+            fetched = materialize(u, rows, 0, Math.min(n, pageSize + 1));
+        }
+        return toCursorPage(fetched, pageSize, row -> cursorAfter(sortBy, query.descending(), row));
+    }
+
+    /**
+     * Cursor continuing after {@code last}, e.g. to let page-number clients switch to keyset paging.
+     */
+    public String cursorAfter(StockQuery query, StockAnalytics last) {
+        return cursorAfter(sortField(query.sortBy()), query.descending(), last);
+    }
+
+    // dashboard filters, as matching rows in row order; rows before the cursor (when given) are left out too
+    private int[] filterDashboard(UniverseSnapshot u, StockQuery query, RowPredicate after) {
+        // ✅ View-based and normal filters (NaN never passes a minimum)
+        RoaringBitmap selected = bitmaps(u).select(query.view(), query.minMarketCap(), query.minDailyChange(),
+                query.minRank1Week(), query.minRank1Month());
+
+        String q = query.hasSearch() ? query.search().toLowerCase(Locale.ROOT) : null;
+        RowPredicate rest = q == null ? after
+                : i -> (contains(u.ticker[i], q) || contains(u.name[i], q)) && (after == null || after.test(i));
+        return toRows(selected, rest);
+    }
+
+    /**
+     * Stocks matching a screener expression (see {@link ScreenerExpression}), ordered like the dashboard and
+     * paged, with what the request cost. Always evaluated on the snapshot, whatever {@code reporting.query.mode}.
+     *
+     * @throws IllegalArgumentException when the expression does not parse
+     */
+    public ScreenerResponse screen(String expression, String sortBy, String order, int page, int pageSize) {
+        long start = System.nanoTime();
+        String text = expression == null ? "" : expression.trim();
+        ScreenerExpression compiled = screeners.get(text);
+        boolean cached = compiled != null;
+        if (!cached) {
+            compiled = ScreenerExpression.parse(text);
+            // bounded by dropping everything: compiling is cheap, the cache only saves it per request
+            if (screeners.size() >= screenerCacheSize) screeners.clear();
+            screeners.put(text, compiled);
         }
+        long compiledAt = System.nanoTime();
+
+        UniverseSnapshot u = snapshots.current();
+        int[] rows = new int[u.size()];
+        int n = compiled.select(u, rows);
+        long evaluatedAt = System.nanoTime();
+
+        pageSize = Math.max(1, pageSize);
+        page = Math.max(0, page);
+        long from = (long) page * pageSize;
+        int to = (int) Math.min(from + pageSize, n);
+        IndexSort.sortTop(rows, n, to, comparator(u, sortField(sortBy), "desc".equalsIgnoreCase(order)));
+        long sortedAt = System.nanoTime();
+
+        List<StockAnalytics> stocks = materialize(u, rows, (int) Math.min(from, n), to);
+        return new ScreenerResponse(text, u.version(), n, page, pageSize, stocks,
+                new ScreenerResponse.Cost(cached, cached ? 0 : micros(start, compiledAt), u.size(),
+                        micros(compiledAt, evaluatedAt), micros(evaluatedAt, sortedAt)));
+    }
+
+    static double micros(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000.0;
+    }
 
-        // ✅ Reverse order if "desc"
-        if ("desc".equalsIgnoreCase(order)) {
-            comparator = comparator.reversed();
+    /**
+     * Ranking for /top-gainers: descending by field with missing values counted as 0,
+     * capped at the first 500 matches, then paged.
+     */
+    public List<StockAnalytics> getTopGainers(
+            Double minMarketCap,
+            Double minRank1Week,
+            Double minDailyChange,
+            Double minRank1Month,
+            String sortBy,
+            int page,
+            int size
+    ) {
+        UniverseSnapshot u = snapshots.current();
+        int[] rows = filterTopGainers(u, minMarketCap, minRank1Week, minDailyChange, minRank1Month, null);
+        int matches = rows.length;
+
+        int n = Math.min(matches, TOP_GAINERS_LIMIT);
+        long from = (long) page * size;
+        if (from > n) return List.of();
+        int to = (int) Math.min(from + size, n);
+
+        double[] key = rankColumn(u, sortBy);
+        IndexSort.sortTop(rows, matches, to, topGainersComparator(u, key));
+        return materialize(u, rows, (int) from, to);
+    }
+
+    /**
+     * Keyset variant of {@link #getTopGainers}: same ranking, ticker as tie-breaker, no 500-row cap.
+     */
+    public CursorPage scrollTopGainers(
+            Double minMarketCap,
+            Double minRank1Week,
+            Double minDailyChange,
+            Double minRank1Month,
+            String sortBy,
+            String cursor,
+            int size
+    ) {
+        UniverseSnapshot u = snapshots.current();
+        double[] key = rankColumn(u, sortBy);
+        String field = key == null ? "ticker" : sortBy;
+        RowPredicate after = null;
+        if (cursor != null) {
+            PageCursor c = checkCursor(PageCursor.decode(cursor), field, true);
+            double value = c.key() == null ? 0 : parseKey(c.key());
+            after = i -> {
+                int cmp = key == null ? 0 : Double.compare(value, zeroIfMissing(key[i]));
+                return cmp > 0 || (cmp == 0 && u.ticker[i].compareTo(c.ticker()) > 0);
+            };
         }
 
-        return comparator;
+        int[] rows = filterTopGainers(u, minMarketCap, minRank1Week, minDailyChange, minRank1Month, after);
+        int n = rows.length;
+        int pageSize = Math.max(1, size);
+        IndexSort.sortTop(rows, n, pageSize + 1, topGainersComparator(u, key));
+        List<StockAnalytics> fetched = materialize(u, rows, 0, Math.min(n, pageSize + 1));
+        return toCursorPage(fetched, pageSize, row -> topGainersCursorAfter(sortBy, row));
     }
 
+    /**
+     * Cursor continuing {@link #scrollTopGainers} after {@code last}.
+     */
+    public String topGainersCursorAfter(String sortBy, StockAnalytics last) {
+        boolean ranked = ranksBy(sortBy);
+        return new PageCursor(ranked ? sortBy : "ticker", true,
+                ranked ? Double.toString(zeroIfMissing(numericValue(last, sortBy))) : null, last.getTicker()).encode();
+    }
 
+    private int[] filterTopGainers(UniverseSnapshot u, Double minMarketCap, Double minRank1Week,
+                                   Double minDailyChange, Double minRank1Month, RowPredicate after) {
+        return toRows(bitmaps(u).select("all", minMarketCap, minDailyChange, minRank1Week, minRank1Month), after);
+    }
+
+    private static IndexSort.RowComparator topGainersComparator(UniverseSnapshot u, double[] key) {
+        return (a, b) -> {
+            int c = key == null ? 0 : Double.compare(zeroIfMissing(key[b]), zeroIfMissing(key[a]));
+            return c != 0 ? c : u.ticker[a].compareTo(u.ticker[b]);
+        };
+    }
 
     public List<StockAnalytics> get52WeekHighs() {
-        return repository.findAll().stream()
-                .filter(s -> s.getCmp() != null && s.getCmp365() != null)
-                .filter(s -> s.getCmp() >= s.getCmp365())
-                .sorted(Comparator.comparing(StockAnalytics::getCmp).reversed())
-                .collect(Collectors.toList());
+        UniverseSnapshot u = snapshots.current();
+        int[] rows = bitmaps(u).fiftyTwoWeekHighs().toArray();
+        int n = rows.length;
+        IndexSort.sort(rows, n, IndexSort.byColumn(u.cmp, true));
+        return materialize(u, rows, 0, n);
     }
+
     public List<StockAnalytics> getTopDailyMovers() {
-        return repository.findAll().stream()
-                .filter(s -> s.getDailyChange() != null && s.getDailyChange() >= 5.0)
-                .sorted(Comparator.comparing(StockAnalytics::getDailyChange).reversed())
-                .collect(Collectors.toList());
+        UniverseSnapshot u = snapshots.current();
+        int[] rows = bitmaps(u).dailyChangeAtLeast(5.0).toArray();
+        int n = rows.length;
+        IndexSort.sort(rows, n, IndexSort.byColumn(u.dailyChange, true));
+        return materialize(u, rows, 0, n);
     }
 
     public List<StockAnalytics> getRecentIpoStocks() {
-        return repository.findAll().stream()
-                .filter(s -> s.getCmp365() == null) // assume IPO if no 1Y price history
-                .filter(s -> s.getCmp() != null)    // skip blank stocks
-                .sorted(Comparator.comparing(StockAnalytics::getCmp).reversed())
-                .collect(Collectors.toList());
-    }
-
-    private Double getFieldAsDouble(StockAnalytics s, String fieldName) {
-        return switch (fieldName) {
-            case "cmp" -> s.getCmp();
-            case "marketCap" -> s.getMarketCap();
-            case "dailyChange" -> s.getDailyChange();
-            case "rank1Week" -> s.getRank1Week();
-            case "rank1Month" -> s.getRank1Month();
-            case "rank1Year" -> s.getRank1Year();
-            default -> null;
+        UniverseSnapshot u = snapshots.current();
+        // assume IPO if no 1Y price history; skip blank stocks
+        int[] rows = bitmaps(u).recentListings().toArray();
+        int n = rows.length;
+        IndexSort.sort(rows, n, IndexSort.byColumn(u.cmp, true));
+        return materialize(u, rows, 0, n);
+    }
+
+    // built on the first request after each snapshot swap
+    private DashboardBitmaps bitmaps(UniverseSnapshot u) {
+        DashboardBitmaps cached = bitmaps.get();
+        if (cached != null && cached.source() == u) {
+            return cached;
+        }
+        DashboardBitmaps built = DashboardBitmaps.build(u);
+        bitmaps.set(built);
+        return built;
+    }
+
+    // selected rows in row order, those failing the predicate (when given) left out
+    private static int[] toRows(RoaringBitmap selected, RowPredicate predicate) {
+        if (predicate == null) return selected.toArray();
+        int[] rows = new int[selected.getCardinality()];
+        int n = 0;
+        for (IntIterator it = selected.getIntIterator(); it.hasNext(); ) {
+            int i = it.next();
+            if (predicate.test(i)) rows[n++] = i;
+        }
+        return n == rows.length ? rows : Arrays.copyOf(rows, n);
+    }
+
+    // ties broken by ticker, as in the SQL path, so both modes page identically
+    static IndexSort.RowComparator comparator(UniverseSnapshot u, String sortBy, boolean descending) {
+        IndexSort.RowComparator primary = switch (sortBy) {
+            case "cmp", "marketCap", "dailyChange", "rank1Week", "rank1Month", "rank1Year", "rank2Month" ->
+                    IndexSort.byColumn(u.column(sortBy), descending);
+            case "name" -> IndexSort.byText(u.name, descending);
+            case "ticker" -> IndexSort.byText(u.ticker, descending);
+            case "lastUpdated" -> IndexSort.byLong(u.lastUpdated, Long.MIN_VALUE, descending);
+            default -> IndexSort.byColumn(u.dailyChange, descending);
+        };
+        return (a, b) -> {
+            int c = primary.compare(a, b);
+            return c != 0 ? c : u.ticker[a].compareTo(u.ticker[b]);
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowPredicate {
+        boolean test(int row);
+    }
+
+    static String sortField(String sortBy) {
+        if (sortBy == null) return "dailyChange";
+        return switch (sortBy) {
+            case "cmp", "marketCap", "dailyChange", "rank1Week", "rank1Month", "rank1Year", "rank2Month",
+                 "name", "ticker", "lastUpdated" -> sortBy;
+            default -> "dailyChange";
+        };
+    }
+
+    private static PageCursor checkCursor(PageCursor cursor, String sortBy, boolean descending) {
+        if (!cursor.sortBy().equals(sortBy) || cursor.descending() != descending) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return cursor;
+    }
+
+    // true for snapshot rows strictly after the cursor in (sort value, ticker) order, missing values last
+    private static RowPredicate afterCursor(UniverseSnapshot u, PageCursor c) {
+        String sortBy = c.sortBy();
+        boolean desc = c.descending();
+        String ticker = c.ticker();
+        if (c.key() == null) {
+            // cursor is inside the trailing block of rows without a value: only those rows, by ticker
+            return i -> isMissing(u, sortBy, i) && u.ticker[i].compareTo(ticker) > 0;
+        }
+        RowPredicate missing = i -> isMissing(u, sortBy, i);
+        IndexSort.RowComparator order;
+        switch (sortBy) {
+            case "name", "ticker" -> {
+                String[] column = sortBy.equals("name") ? u.name : u.ticker;
+                String key = c.key();
+                order = (i, unused) -> desc ? key.compareToIgnoreCase(column[i]) : column[i].compareToIgnoreCase(key);
+            }
+            case "lastUpdated" -> {
+                long key = Math.floorDiv(parseLong(c.key()), 1_000_000L);
+                order = (i, unused) -> desc ? Long.compare(key, u.lastUpdated[i]) : Long.compare(u.lastUpdated[i], key);
+            }
+            default -> {
+                double[] column = u.column(sortBy);
+                double key = parseKey(c.key());
+                order = (i, unused) -> desc ? Double.compare(key, column[i]) : Double.compare(column[i], key);
+            }
+        }
+        return i -> {
+            if (missing.test(i)) return true;
+            int cmp = order.compare(i, -1);
+            return cmp > 0 || (cmp == 0 && u.ticker[i].compareTo(ticker) > 0);
+        };
+    }
+
+    private static boolean isMissing(UniverseSnapshot u, String sortBy, int i) {
+        return switch (sortBy) {
+            case "name" -> u.name[i] == null;
+            case "ticker" -> u.ticker[i] == null;
+            case "lastUpdated" -> u.lastUpdated[i] == Long.MIN_VALUE;
+            default -> Double.isNaN(u.column(sortBy)[i]);
+        };
+    }
+
+    private static String cursorAfter(String sortBy, boolean descending, StockAnalytics row) {
+        String key = switch (sortBy) {
+            case "name" -> row.getName();
+            case "ticker" -> row.getTicker();
+            case "lastUpdated" -> row.getLastUpdated() == null ? null
+                    : Long.toString(UniverseSnapshot.epochSeconds(row.getLastUpdated()) * 1_000_000L
+                    + row.getLastUpdated().getNano() / 1_000);
+            default -> {
+                Double value = numericValue(row, sortBy);
+                yield value == null ? null : Double.toString(value);
+            }
         };
+        return new PageCursor(sortBy, descending, key, row.getTicker()).encode();
+    }
+
+    private static Double numericValue(StockAnalytics row, String field) {
+        return switch (field) {
+            case "cmp" -> row.getCmp();
+            case "marketCap" -> row.getMarketCap();
+            case "rank1Week" -> row.getRank1Week();
+            case "rank1Month" -> row.getRank1Month();
+            case "rank1Year" -> row.getRank1Year();
+            case "rank2Month" -> row.getRank2Month();
+            default -> row.getDailyChange();
+        };
+    }
+
+    private static double zeroIfMissing(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static double parseKey(String key) {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static long parseLong(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // fetched holds up to pageSize + 1 rows; the extra row only signals that another page exists
+    private static CursorPage toCursorPage(List<StockAnalytics> fetched, int pageSize,
+                                           Function<StockAnalytics, String> cursorOf) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPage(fetched, null);
+        }
+        List<StockAnalytics> page = new ArrayList<>(fetched.subList(0, pageSize));
+        return new CursorPage(page, cursorOf.apply(page.get(pageSize - 1)));
+    }
+
+    // fields /top-gainers can rank by; anything else leaves the matches unsorted
+    private static double[] rankColumn(UniverseSnapshot u, String field) {
+        return ranksBy(field) ? u.column(field) : null;
+    }
+
+    private static boolean ranksBy(String field) {
+        return switch (field) {
+            case "cmp", "marketCap", "dailyChange", "rank1Week", "rank1Month", "rank1Year" -> true;
+            default -> false;
+        };
+    }
+
+    private static double zeroIfMissing(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    private static boolean contains(String text, String lowerQuery) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(lowerQuery);
+    }
+
+    static List<StockAnalytics> materialize(UniverseSnapshot u, int[] rows, int from, int to) {
+        List<StockAnalytics> page = new ArrayList<>(Math.max(0, to - from));
+        for (int k = from; k < to; k++) {
+            page.add(u.toEntity(rows[k]));
+        }
+        return page;
     }
 }
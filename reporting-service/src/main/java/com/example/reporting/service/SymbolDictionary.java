@@ -0,0 +1,116 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Canonical ticker lookup for one {@link UniverseSnapshot}, built next to its {@link SymbolSearchIndex}.
+ * <p>
+ * Maps, case-insensitively, the ticker itself ("NSE:TCS"), the plain symbol ("TCS", NSE before BSE, as
+ * resolve always preferred) and the normalized company name ("tata consultancy services", punctuation and a
+ * trailing "Ltd"/"Limited" ignored; the largest company wins a shared name) to a snapshot row. Anything else
+ * goes through a caller-supplied search, and its answer, including "unknown", is cached as an alias until the
+ * next snapshot replaces the dictionary, unless the search says it was cut short (then the next request searches
+ * again rather than being stuck with a partial answer for a whole import cycle).
+ */
+final class SymbolDictionary {
+
+    static final int UNKNOWN = -1;
+
+    private final SymbolSearchIndex index;
+    private final Map<String, Integer> byTicker;
+    private final Map<String, Integer> byName;
+    // alias and negative cache: query -> row or UNKNOWN
+    private final Map<String, Integer> resolved = new ConcurrentHashMap<>();
+    private final int maxResolved;
+
+    private SymbolDictionary(SymbolSearchIndex index, int size, int maxResolved) {
+        this.index = index;
+        this.byTicker = new HashMap<>(size * 4);
+        this.byName = new HashMap<>(size * 2);
+        this.maxResolved = maxResolved;
+    }
+
+    static SymbolDictionary build(SymbolSearchIndex index, int maxResolved) {
+        UniverseSnapshot u = index.source();
+        SymbolDictionary dictionary = new SymbolDictionary(index, u.size(), maxResolved);
+        // by market-cap rank, so the first company to claim a key keeps it
+        for (int rank = 0; rank < u.size(); rank++) {
+            int row = index.row(rank);
+            if (u.ticker[row] != null) dictionary.byTicker.putIfAbsent(u.ticker[row].toUpperCase(Locale.ROOT), row);
+            String name = normalizeName(u.name[row]);
+            if (!name.isEmpty()) dictionary.byName.putIfAbsent(name, row);
+        }
+        for (String exchange : new String[]{"NSE:", "BSE:"}) {
+            for (int rank = 0; rank < u.size(); rank++) {
+                int row = index.row(rank);
+                String ticker = u.ticker[row];
+                if (ticker != null && ticker.regionMatches(true, 0, exchange, 0, exchange.length())) {
+                    dictionary.byTicker.putIfAbsent(ticker.substring(exchange.length()).toUpperCase(Locale.ROOT), row);
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    SymbolSearchIndex index() {
+        return index;
+    }
+
+    /**
+     * @param search consulted for queries that are not a ticker, symbol or company name; its answer is cached
+     *               when {@link Lookup#complete()}
+     * @return the snapshot row, or {@link #UNKNOWN}
+     */
+    int resolve(String query, Function<String, Lookup> search) {
+        String q = query.trim();
+        if (q.isEmpty()) return UNKNOWN;
+        Integer row = byTicker.get(q.toUpperCase(Locale.ROOT));
+        if (row == null) row = byName.get(normalizeName(q));
+        if (row != null) return row;
+
+        String key = q.toLowerCase(Locale.ROOT);
+        row = resolved.get(key);
+        if (row == null) {
+            Lookup found = search.apply(q);
+            row = found.row();
+            if (found.complete()) {
+                // bounded by dropping everything: aliases are cheap to find again
+                if (resolved.size() >= maxResolved) resolved.clear();
+                resolved.put(key, row);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @param row      the snapshot row, or {@link #UNKNOWN}
+     * @param complete false when the search ran out of time, so the answer must not be cached
+     */
+    record Lookup(int row, boolean complete) {
+    }
+
+    // "Tata Consultancy Services Ltd." -> "tata consultancy services"
+    static String normalizeName(String name) {
+        if (name == null) return "";
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (c != '.' && c != '\'' && sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        String normalized = sb.toString().trim();
+        for (String suffix : new String[]{" limited", " ltd"}) {
+            if (normalized.endsWith(suffix)) return normalized.substring(0, normalized.length() - suffix.length());
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Autocomplete index over ticker and company name of one {@link UniverseSnapshot}; immutable once built.
+ * <p>
+ * Stocks are numbered by market-cap rank (largest first, missing caps last), and every list in the index is
+ * kept in that order, so the first hits found are the best ranked and a query can stop at its limit.
+ * <ul>
+ *   <li>Prefix trie over the symbol ("tcs"), the full ticker ("nse:tcs") and the name from each word start
+ *   ("tata consultancy...", "consultancy..."), {@link #MAX_KEY_LENGTH} characters deep; each node keeps the
+ *   top {@link #MAX_RESULTS} ranks below it, so a prefix lookup is O(query length). Nodes are parallel
+ *   int/char arrays rather than objects.</li>
+ *   <li>Trigram postings over ticker and name for substring matches: the query's trigram lists are intersected
+ *   (smallest first) and candidates verified with {@code contains}.</li>
+ * </ul>
+ * Matching is case-insensitive; whitespace runs in names and queries count as one space. Queries longer than
+ * the trie is deep are answered by the substring path alone.
+ */
+final class SymbolSearchIndex {
+
+    static final int MAX_RESULTS = 50;
+
+    // deeper nodes cost memory for every name suffix and rarely narrow an autocomplete further
+    private static final int MAX_KEY_LENGTH = 16;
+
+    private final UniverseSnapshot source;
+    // rank -> snapshot row
+    private final int[] rows;
+    private final String[] tickerText;
+    private final String[] nameText;
+    private final Trie trie = new Trie();
+    private final Map<Long, int[]> trigrams;
+    private final Map<String, Integer> rankByTicker;
+
+    private SymbolSearchIndex(UniverseSnapshot source, int[] rows) {
+        this.source = source;
+        this.rows = rows;
+        this.tickerText = new String[rows.length];
+        this.nameText = new String[rows.length];
+        this.trigrams = new HashMap<>(rows.length * 8);
+        this.rankByTicker = new HashMap<>(rows.length * 2);
+    }
+
+    static SymbolSearchIndex build(UniverseSnapshot u) {
+        int[] rows = new int[u.size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = i;
+        IndexSort.RowComparator byCap = IndexSort.byColumn(u.marketCap, true);
+        IndexSort.sort(rows, rows.length, (a, b) -> {
+            int c = byCap.compare(a, b);
+            return c != 0 ? c : compareNullable(u.ticker[a], u.ticker[b]);
+        });
+
+        SymbolSearchIndex index = new SymbolSearchIndex(u, rows);
+        Map<Long, IntList> postings = new HashMap<>(rows.length * 8);
+        for (int rank = 0; rank < rows.length; rank++) {
+            String ticker = normalize(u.ticker[rows[rank]]);
+            String name = normalize(u.name[rows[rank]]);
+            index.tickerText[rank] = ticker;
+            index.nameText[rank] = name;
+            if (u.ticker[rows[rank]] != null) index.rankByTicker.putIfAbsent(u.ticker[rows[rank]], rank);
+            index.forEachKey(rank, index.trie::count);
+            addTrigrams(postings, ticker, rank);
+            addTrigrams(postings, name, rank);
+        }
+        // second pass once the list sizes are known, so all top lists share one array
+        index.trie.allocate();
+        for (int rank = 0; rank < rows.length; rank++) {
+            index.forEachKey(rank, index.trie::fill);
+        }
+        postings.forEach((key, list) -> index.trigrams.put(key, list.toArray()));
+        return index;
+    }
+
+    private interface KeyConsumer {
+        void accept(String key, int rank);
+    }
+
+    private void forEachKey(int rank, KeyConsumer consumer) {
+        String ticker = tickerText[rank];
+        String name = nameText[rank];
+        consumer.accept(ticker, rank);
+        int colon = ticker.indexOf(':');
+        if (colon >= 0) consumer.accept(ticker.substring(colon + 1), rank);
+        for (int start = 0; start < name.length(); start++) {
+            boolean wordStart = start == 0 || !Character.isLetterOrDigit(name.charAt(start - 1));
+            if (wordStart && Character.isLetterOrDigit(name.charAt(start))) {
+                consumer.accept(name.substring(start, Math.min(name.length(), start + MAX_KEY_LENGTH)), rank);
+            }
+        }
+    }
+
+    UniverseSnapshot source() {
+        return source;
+    }
+
+    /**
+     * @return the ticker's market-cap rank (0 = largest), or -1 when it is not in the snapshot
+     */
+    int rank(String ticker) {
+        Integer rank = rankByTicker.get(ticker);
+        return rank != null ? rank : -1;
+    }
+
+    /**
+     * @return the snapshot row of a rank
+     */
+    int row(int rank) {
+        return rows[rank];
+    }
+
+    /**
+     * @return snapshot rows matching the query: prefix matches first, then other substring matches
+     * (for queries of three or more characters), each group by market cap; at most {@code limit}
+     */
+    int[] search(String query, int limit) {
+        String q = normalize(query);
+        limit = Math.max(1, Math.min(limit, MAX_RESULTS));
+        if (q.isEmpty()) return new int[0];
+
+        int[] ranks = new int[limit];
+        int n = 0;
+        int node = q.length() <= MAX_KEY_LENGTH ? trie.find(q) : -1;
+        if (node >= 0) {
+            for (int i = trie.topOffset[node]; i < trie.topOffset[node + 1] && n < limit; i++) ranks[n++] = trie.top[i];
+        }
+        if (n < limit && q.length() >= 3) {
+            n = substringMatches(q, ranks, n, limit);
+        }
+
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) result[i] = rows[ranks[i]];
+        return result;
+    }
+
+    private int substringMatches(String q, int[] ranks, int n, int limit) {
+        int grams = q.length() - 2;
+        int[][] lists = new int[grams][];
+        for (int i = 0; i < grams; i++) {
+            int[] list = trigrams.get(trigram(q, i));
+            if (list == null) return n; // some trigram occurs nowhere
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int prefixHits = n;
+        int[] smallest = lists[0];
+        for (int rank : smallest) {
+            if (n == limit) break;
+            if (!inAll(lists, rank)) continue;
+            if (!tickerText[rank].contains(q) && !nameText[rank].contains(q)) continue;
+            if (contains(ranks, prefixHits, rank)) continue; // already listed as a prefix match
+            ranks[n++] = rank;
+        }
+        return n;
+    }
+
+    private static boolean inAll(int[][] lists, int rank) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i], rank) < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static void addTrigrams(Map<Long, IntList> postings, String text, int rank) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new IntList(4)).addIfNew(rank);
+        }
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String lower = text.trim().toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean space = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space) sb.append(' ');
+                space = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int compareNullable(String a, String b) {
+        if (a == null || b == null) return a == b ? 0 : (a == null ? 1 : -1);
+        return a.compareTo(b);
+    }
+
+    /**
+     * Character trie in parallel arrays (node 0 is the root; children are a linked list of siblings).
+     * Built in two passes over the same keys: {@link #count}, {@link #allocate}, then {@link #fill}.
+     */
+    private static final class Trie {
+        char[] label = new char[1024];
+        int[] firstChild = new int[1024];
+        int[] nextSibling = new int[1024];
+        // distinct ranks below each node during count, ranks filled so far during fill
+        int[] count = new int[1024];
+        int[] lastRank = new int[1024];
+        int size = 1;
+        int[] topOffset;
+        int[] top;
+
+        Trie() {
+            firstChild[0] = -1;
+            nextSibling[0] = -1;
+            lastRank[0] = -1;
+        }
+
+        int find(String key) {
+            int node = 0;
+            for (int i = 0; i < key.length() && node >= 0; i++) {
+                node = child(node, key.charAt(i));
+            }
+            return node;
+        }
+
+        void count(String key, int rank) {
+            int node = 0;
+            for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH); i++) {
+                int next = child(node, key.charAt(i));
+                node = next >= 0 ? next : addChild(node, key.charAt(i));
+                if (lastRank[node] != rank) {
+                    lastRank[node] = rank;
+                    count[node]++;
+                }
+            }
+        }
+
+        void allocate() {
+            topOffset = new int[size + 1];
+            for (int node = 0; node < size; node++) {
+                topOffset[node + 1] = topOffset[node] + Math.min(count[node], MAX_RESULTS);
+                count[node] = 0;
+                lastRank[node] = -1;
+            }
+            top = new int[topOffset[size]];
+        }
+
+        // ranks arrive in ascending order, so each node's list is sorted and keeps the best MAX_RESULTS
+        void fill(String key, int rank) {
+            int node = 0;
+            for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH); i++) {
+                node = child(node, key.charAt(i));
+                if (lastRank[node] != rank) {
+                    lastRank[node] = rank;
+                    if (topOffset[node] + count[node] < topOffset[node + 1]) {
+                        top[topOffset[node] + count[node]++] = rank;
+                    }
+                }
+            }
+        }
+
+        private int child(int node, char c) {
+            for (int k = firstChild[node]; k >= 0; k = nextSibling[k]) {
+                if (label[k] == c) return k;
+            }
+            return -1;
+        }
+
+        private int addChild(int parent, char c) {
+            if (size == label.length) {
+                int capacity = size * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                count = Arrays.copyOf(count, capacity);
+                lastRank = Arrays.copyOf(lastRank, capacity);
+            }
+            int node = size++;
+            label[node] = c;
+            firstChild[node] = -1;
+            nextSibling[node] = firstChild[parent];
+            firstChild[parent] = node;
+            lastRank[node] = -1;
+            return node;
+        }
+    }
+
+    /** Growable sorted int list. */
+    private static final class IntList {
+        int[] values;
+        int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        // values are appended in ascending order; the same value may arrive several times in a row
+        void addIfNew(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.UniverseSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ticker/company autocomplete from a {@link SymbolSearchIndex} over the current {@link UniverseSnapshot};
+ * no database access per keystroke.
+ * <p>
+ * The index is rebuilt in the background once per new snapshot (i.e. per import), on the snapshot refresh
+ * interval; searches keep using the previous index meanwhile and only the very first search builds inline.
+ * <p>
+ * Typo-tolerant search uses a {@link FuzzySymbolIndex} that is kept rather than rebuilt: each new snapshot only
+ * adds the tickers that appeared or were renamed and removes the ones that disappeared.
+ * <p>
+ * {@link #resolve} answers from a {@link SymbolDictionary} rebuilt with the index, falling back to search and
+ * fuzzy search once per distinct unknown input; a fuzzy search cut short by its budget is not remembered.
+ */
+@Service
+public class SymbolSearchService {
+
+    private final UniverseSnapshotService snapshots;
+    private final AtomicReference<SymbolSearchIndex> index = new AtomicReference<>();
+    private final AtomicReference<SymbolDictionary> dictionary = new AtomicReference<>();
+
+    private final FuzzySymbolIndex fuzzy = new FuzzySymbolIndex();
+    private final ReadWriteLock fuzzyLock = new ReentrantReadWriteLock();
+    // ticker -> name as added to the fuzzy index; only touched by rebuildIfStale
+    private final Map<String, String> fuzzyNames = new HashMap<>();
+
+    // a fuzzy search returns whatever it found when this runs out
+    @Value("${reporting.search.fuzzy-budget-micros:2000}")
+    private long fuzzyBudgetMicros;
+
+    // aliases and unknown inputs remembered per snapshot
+    @Value("${reporting.search.resolve-cache-size:10000}")
+    private int resolveCacheSize;
+
+    public SymbolSearchService(UniverseSnapshotService snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Stocks whose ticker or name starts with (ranked first) or contains the query, each group by market cap.
+     *
+     * @param limit capped at 50
+     */
+    public List<StockAnalytics> search(String query, int limit) {
+        SymbolSearchIndex current = index.get();
+        if (current == null) {
+            current = rebuildIfStale();
+        }
+        int[] rows = current.search(query, limit);
+        List<StockAnalytics> hits = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            hits.add(current.source().toEntity(row));
+        }
+        return hits;
+    }
+
+    /**
+     * Stocks whose ticker or name tokens are within a few edits of every word of the query ("relaince",
+     * "infosis"), closest first, then by market cap.
+     *
+     * @param limit capped at 50
+     */
+    public List<StockAnalytics> fuzzySearch(String query, int limit) {
+        SymbolSearchIndex current = index.get();
+        if (current == null) {
+            current = rebuildIfStale();
+        }
+        int[] rows = fuzzyRows(current, query, limit).rows();
+        List<StockAnalytics> hits = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            hits.add(current.source().toEntity(row));
+        }
+        return hits;
+    }
+
+    /**
+     * Canonical stock for a ticker ("NSE:TCS"), plain symbol ("TCS", NSE before BSE), company name, or failing
+     * those the best search hit and then the closest spelling.
+     */
+    public Optional<StockAnalytics> resolve(String query) {
+        if (query == null || query.isBlank()) return Optional.empty();
+        SymbolDictionary current = dictionary.get();
+        if (current == null) {
+            rebuildIfStale();
+            current = dictionary.get();
+        }
+        SymbolSearchIndex searchIndex = current.index();
+        int row = current.resolve(query, q -> {
+            int[] hits = searchIndex.search(q, 1);
+            if (hits.length > 0) return new SymbolDictionary.Lookup(hits[0], true);
+            FuzzyRows fuzzyHits = fuzzyRows(searchIndex, q, 1);
+            return new SymbolDictionary.Lookup(
+                    fuzzyHits.rows().length > 0 ? fuzzyHits.rows()[0] : SymbolDictionary.UNKNOWN, fuzzyHits.complete());
+        });
+        return row != SymbolDictionary.UNKNOWN ? Optional.of(searchIndex.source().toEntity(row)) : Optional.empty();
+    }
+
+    private FuzzyRows fuzzyRows(SymbolSearchIndex current, String query, int limit) {
+        limit = Math.max(1, Math.min(limit, SymbolSearchIndex.MAX_RESULTS));
+        long deadline = System.nanoTime() + fuzzyBudgetMicros * 1000;
+
+        FuzzySymbolIndex.Result result;
+        fuzzyLock.readLock().lock();
+        try {
+            result = fuzzy.search(query, deadline);
+        } finally {
+            fuzzyLock.readLock().unlock();
+        }
+        Map<String, Integer> matches = result.matches();
+
+        // {distance, market-cap rank}
+        List<int[]> ranked = new ArrayList<>(matches.size());
+        for (Map.Entry<String, Integer> match : matches.entrySet()) {
+            int rank = current.rank(match.getKey());
+            // the fuzzy index may already hold tickers of a newer snapshot
+            if (rank >= 0) ranked.add(new int[]{match.getValue(), rank});
+        }
+        ranked.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> m[1]));
+
+        int[] rows = new int[Math.min(limit, ranked.size())];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = current.row(ranked.get(i)[1]);
+        }
+        return new FuzzyRows(rows, result.complete());
+    }
+
+    // complete = the fuzzy lookup finished within its budget
+    private record FuzzyRows(int[] rows, boolean complete) {
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.snapshot.refresh-interval:PT15S}",
+            initialDelayString = "${reporting.snapshot.refresh-interval:PT15S}")
+    public void refreshIfChanged() {
+        try {
+            rebuildIfStale();
+        } catch (Exception e) {
+            // keep serving the previous index
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized SymbolSearchIndex rebuildIfStale() {
+        UniverseSnapshot u = snapshots.current();
+        SymbolSearchIndex cached = index.get();
+        if (cached != null && cached.source() == u) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        SymbolSearchIndex built = SymbolSearchIndex.build(u);
+        int changed = updateFuzzy(u, built);
+        index.set(built);
+        dictionary.set(SymbolDictionary.build(built, resolveCacheSize));
+        System.out.printf("Symbol search index v%d: %d stocks (%d fuzzy updates) in %.1f ms%n",
+                u.version(), u.size(), changed, (System.nanoTime() - start) / 1_000_000.0);
+        return built;
+    }
+
+    // applies the tickers added, renamed or gone since the last snapshot; returns how many
+    private int updateFuzzy(UniverseSnapshot u, SymbolSearchIndex built) {
+        List<String[]> removed = new ArrayList<>();
+        List<String[]> added = new ArrayList<>();
+        for (int i = 0; i < u.size(); i++) {
+            String ticker = u.ticker[i];
+            // duplicates: the row the prefix index ranks is the one that counts
+            if (ticker == null || built.row(built.rank(ticker)) != i) continue;
+            if (!fuzzyNames.containsKey(ticker)) {
+                added.add(new String[]{ticker, u.name[i]});
+            } else if (!Objects.equals(fuzzyNames.get(ticker), u.name[i])) {
+                removed.add(new String[]{ticker, fuzzyNames.get(ticker)});
+                added.add(new String[]{ticker, u.name[i]});
+            }
+        }
+        for (Map.Entry<String, String> indexed : fuzzyNames.entrySet()) {
+            if (built.rank(indexed.getKey()) < 0) removed.add(new String[]{indexed.getKey(), indexed.getValue()});
+        }
+        if (removed.isEmpty() && added.isEmpty()) return 0;
+
+        fuzzyLock.writeLock().lock();
+        try {
+            for (String[] r : removed) {
+                fuzzy.remove(r[0], r[1]);
+                fuzzyNames.remove(r[0]);
+            }
+            for (String[] a : added) {
+                fuzzy.add(a[0], a[1]);
+                fuzzyNames.put(a[0], a[1]);
+            }
+        } finally {
+            fuzzyLock.writeLock().unlock();
+        }
+        return removed.size() + added.size();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link UniverseSnapshot} of stock_analytics.
+ * <p>
+ * Every {@code reporting.snapshot.refresh-interval} the latest import_generation commit sequence is checked; when
+ * it moved, a new snapshot is built in one repeatable-read transaction (so it matches that generation exactly)
+ * and swapped in atomically. The commit sequence rather than the generation id: ids are allocated when an import
+ * starts, so a lower id committing after a higher one would not move max(id). Readers call {@link #current()} and never block on a rebuild.
+ * Without an import_generation table the snapshot is rebuilt on every refresh.
+ */
+@Service
+public class UniverseSnapshotService {
+
+    private static final String LATEST_GENERATION_SQL =
+            "SELECT max(commit_seq) FROM import_generation";
+
+    // per row, the commit sequence of the generation that last wrote it
+    private static final String LOAD_SQL =
+            "SELECT s.ticker, s.name, s.cmp, s.daily_change, s.cmp365, s.rank1year, s.rank1month, s.rank2month, " +
+            "s.rank1week, s.market_cap, s.last_updated, g.commit_seq " +
+            "FROM stock_analytics s LEFT JOIN import_generation g ON g.id = s.generation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SectorClassification sectors;
+    private final TransactionTemplate snapshotTransaction;
+    private final AtomicReference<UniverseSnapshot> current = new AtomicReference<>();
+
+    // strings of the previous snapshot, reused so unchanged tickers/names are not duplicated on every rebuild
+    private Map<String, String> internPool = new HashMap<>();
+
+    public UniverseSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   SectorClassification sectors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sectors = sectors;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @return the latest snapshot; the first call builds it
+     */
+    public UniverseSnapshot current() {
+        UniverseSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            refresh();
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.snapshot.refresh-interval:PT15S}",
+            initialDelayString = "${reporting.snapshot.refresh-interval:PT15S}")
+    public void refreshIfChanged() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // keep serving the previous snapshot
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void refresh() {
+        UniverseSnapshot previous = current.get();
+        Long latest = latestGeneration();
+        if (previous != null && latest != null && latest == previous.version()) {
+            return;
+        }
+        long start = System.nanoTime();
+        UniverseSnapshot next = snapshotTransaction.execute(status -> build());
+        current.set(next);
+        System.out.printf("Universe snapshot v%d: %d rows in %.1f ms%n",
+                next.version(), next.size(), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private Long latestGeneration() {
+        try {
+            return jdbcTemplate.queryForObject(LATEST_GENERATION_SQL, Long.class);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    private UniverseSnapshot build() {
+        Long generation = latestGeneration();
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM stock_analytics", Integer.class);
+        UniverseSnapshot s = new UniverseSnapshot(generation != null ? generation : -1, count != null ? count : 0);
+        Map<String, String> pool = new HashMap<>(Math.max(16, s.size() * 4));
+        int[] row = {0};
+
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            int i = row[0]++;
+            if (i >= s.size()) return; // cannot happen under repeatable read; guard anyway
+            s.ticker[i] = intern(pool, rs.getString(1));
+            s.name[i] = intern(pool, rs.getString(2));
+            s.cmp[i] = column(rs, 3);
+            s.dailyChange[i] = column(rs, 4);
+            s.cmp365[i] = column(rs, 5);
+            s.rank1Year[i] = column(rs, 6);
+            s.rank1Month[i] = column(rs, 7);
+            s.rank2Month[i] = column(rs, 8);
+            s.rank1Week[i] = column(rs, 9);
+            s.marketCap[i] = column(rs, 10);
+            Timestamp updated = rs.getTimestamp(11);
+            s.lastUpdated[i] = UniverseSnapshot.epochSeconds(updated != null ? updated.toLocalDateTime() : null);
+            s.sector[i] = sectors.sectorOf(s.ticker[i]);
+            long written = rs.getLong(12);
+            s.generation[i] = rs.wasNull() ? -1 : written;
+        });
+        internPool = pool;
+        return s;
+    }
+
+    private String intern(Map<String, String> pool, String value) {
+        if (value == null) return null;
+        String shared = internPool.getOrDefault(value, value);
+        pool.putIfAbsent(shared, shared);
+        return shared;
+    }
+
+    private static double column(ResultSet rs, int index) throws SQLException {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.reporting.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link PageCursor} tokens: round trips, and tokens that were not produced by {@link PageCursor#encode()}.
+ */
+class PageCursorTest {
+
+    @Test
+    void roundTrips() {
+        for (PageCursor cursor : new PageCursor[]{
+                new PageCursor("rank1Week", true, "-0.0", "NSE:TCS"),
+                new PageCursor("name", false, "Tata Consultancy Services Ltd.", "NSE:TCS"),
+                new PageCursor("lastUpdated", true, "1700000000000000", "BSE:M&M"),
+                new PageCursor("cmp", false, null, "NSE:A"),
+                new PageCursor("ticker", false, "", "")}) {
+            assertEquals(cursor, PageCursor.decode(cursor.encode()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not a cursor",
+            "%%%",
+            // well-formed Base64 of the wrong content
+            "aGVsbG8"
+    })
+    void rejectsGarbage(String token) {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2\u001frank1Week\u001fd\u001fv1.5\u001fNSE:TCS",   // other version
+            "1\u001frank1Week\u001fx\u001fv1.5\u001fNSE:TCS",   // direction
+            "1\u001frank1Week\u001fd\u001f\u001fNSE:TCS",       // no key marker
+            "1\u001frank1Week\u001fd\u001fv1.5",                // field missing
+            "1\u001frank1Week\u001fd\u001fv1.5\u001fNSE:TCS\u001fx" // field added
+    })
+    void rejectsTamperedFields(String raw) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token));
+    }
+
+    @Test
+    void rejectsAlteredTokens() {
+        String token = new PageCursor("rank1Week", true, "1.5", "NSE:TCS").encode();
+        // replacing any one character either breaks the layout or decodes to a different cursor
+        for (int i = 0; i < token.length(); i++) {
+            String altered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+            try {
+                assertNotEquals(new PageCursor("rank1Week", true, "1.5", "NSE:TCS"), PageCursor.decode(altered), altered);
+            } catch (IllegalArgumentException expected) {
+                // rejected
+            }
+        }
+    }
+}
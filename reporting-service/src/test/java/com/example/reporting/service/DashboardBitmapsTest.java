@@ -0,0 +1,180 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link DashboardBitmaps} against the row loop it replaced in StockService.filterDashboard: random view and
+ * minimum combinations over snapshots with ties, NaN, -0.0/+0.0 and +-Infinity, every minimum landing exactly on
+ * (or one ulp beside) a value and so on each bucket bound, and selections that leave nothing to restrict.
+ */
+class DashboardBitmapsTest {
+
+    private static final String[] VIEWS = {null, "all", "52w", "recent", "daily", "other"};
+    private static final double[] SPECIAL = {
+            Double.NaN, 0.0, -0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 10.0, -1e300, 1e300};
+
+    @Test
+    void randomFiltersMatchTheRowLoop() {
+        Random random = new Random(23);
+        for (int size : new int[]{1, 40, 8_000, 100_000}) {
+            UniverseSnapshot u = snapshot(random, size);
+            DashboardBitmaps bitmaps = DashboardBitmaps.build(u);
+            double[][] columns = {u.marketCap, u.dailyChange, u.rank1Week, u.rank1Month};
+            double[] spreads = new double[columns.length];
+            for (int c = 0; c < columns.length; c++) spreads[c] = spread(columns[c]);
+            for (int k = 0; k < (size < 100_000 ? 3_000 : 200); k++) {
+                String view = VIEWS[random.nextInt(VIEWS.length)];
+                Double minMarketCap = minimum(random, columns[0], spreads[0]);
+                Double minDailyChange = minimum(random, columns[1], spreads[1]);
+                Double minRank1Week = minimum(random, columns[2], spreads[2]);
+                Double minRank1Month = minimum(random, columns[3], spreads[3]);
+                assertArrayEquals(
+                        rowLoop(u, view, minMarketCap, minDailyChange, minRank1Week, minRank1Month),
+                        bitmaps.select(view, minMarketCap, minDailyChange, minRank1Week, minRank1Month).toArray(),
+                        () -> view + " " + minMarketCap + " " + minDailyChange + " " + minRank1Week + " "
+                                + minRank1Month);
+            }
+        }
+    }
+
+    @Test
+    void minimumsOnAndBesideEveryValueMatchTheRowLoop() {
+        UniverseSnapshot u = snapshot(new Random(5), 1_500);
+        DashboardBitmaps bitmaps = DashboardBitmaps.build(u);
+        for (double[] column : new double[][]{u.marketCap, u.dailyChange, u.rank1Week, u.rank1Month}) {
+            TreeSet<Double> values = new TreeSet<>();
+            for (double v : column) values.add(v); // Double ordering keeps -0.0 and 0.0 apart
+            for (double v : SPECIAL) values.add(v);
+            int rotation = 0;
+            for (double value : values) {
+                for (double min : new double[]{value, Math.nextDown(value), Math.nextUp(value)}) {
+                    // every minimum on all rows, and on one of the other views in turn
+                    for (String view : new String[]{"all", VIEWS[rotation++ % VIEWS.length]}) {
+                        Double marketCap = column == u.marketCap ? min : null;
+                        Double dailyChange = column == u.dailyChange ? min : null;
+                        Double rank1Week = column == u.rank1Week ? min : null;
+                        Double rank1Month = column == u.rank1Month ? min : null;
+                        assertArrayEquals(rowLoop(u, view, marketCap, dailyChange, rank1Week, rank1Month),
+                                bitmaps.select(view, marketCap, dailyChange, rank1Week, rank1Month).toArray(),
+                                () -> view + " " + min);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptySelectionsStayEmpty() {
+        // no daily movers, and rank1Month missing everywhere (no buckets at all)
+        UniverseSnapshot u = snapshot(new Random(9), 2_000);
+        for (int i = 0; i < u.size(); i++) {
+            u.dailyChange[i] = Math.min(u.dailyChange[i], 9.99);
+            u.rank1Month[i] = Double.NaN;
+        }
+        DashboardBitmaps bitmaps = DashboardBitmaps.build(u);
+        for (double min : SPECIAL) {
+            assertEquals(0, bitmaps.select("daily", min, min, min, null).getCardinality());
+            assertEquals(0, bitmaps.select("all", null, null, null, min).getCardinality());
+            assertArrayEquals(rowLoop(u, "52w", min, null, min, null),
+                    bitmaps.select("52w", min, null, min, null).toArray());
+        }
+
+        DashboardBitmaps none = DashboardBitmaps.build(UniverseSnapshot.EMPTY);
+        assertEquals(0, none.select("all", 0.0, 0.0, 0.0, 0.0).getCardinality());
+        assertEquals(0, none.select(null, null, null, null, null).getCardinality());
+        assertEquals(0, none.dailyChangeAtLeast(Double.NEGATIVE_INFINITY).getCardinality());
+        assertEquals(0, none.fiftyTwoWeekHighs().getCardinality());
+    }
+
+    @Test
+    void viewBitmapsMatchTheRowLoop() {
+        UniverseSnapshot u = snapshot(new Random(17), 10_000);
+        DashboardBitmaps bitmaps = DashboardBitmaps.build(u);
+        assertArrayEquals(rows(u, i -> u.cmp[i] >= u.cmp365[i]), bitmaps.fiftyTwoWeekHighs().toArray());
+        assertArrayEquals(rows(u, i -> Double.isNaN(u.cmp365[i]) && !Double.isNaN(u.cmp[i])),
+                bitmaps.recentListings().toArray());
+        for (double min : SPECIAL) {
+            assertArrayEquals(rows(u, i -> u.dailyChange[i] >= min), bitmaps.dailyChangeAtLeast(min).toArray(),
+                    "dailyChange >= " + min);
+        }
+        // the returned bitmaps are copies
+        bitmaps.fiftyTwoWeekHighs().clear();
+        assertArrayEquals(rows(u, i -> u.cmp[i] >= u.cmp365[i]), bitmaps.fiftyTwoWeekHighs().toArray());
+    }
+
+    // previous StockService.filterDashboard, without search and cursor
+    private static int[] rowLoop(UniverseSnapshot u, String view, Double minMarketCap, Double minDailyChange,
+                                 Double minRank1Week, Double minRank1Month) {
+        String v = view == null ? "all" : view;
+        return rows(u, i -> {
+            double cmp = u.cmp[i];
+            if (Double.isNaN(cmp) || Double.isNaN(u.marketCap[i])) return false;
+            boolean inView = switch (v) {
+                case "52w" -> !Double.isNaN(u.cmp365[i]) && cmp >= u.cmp365[i];
+                case "recent" -> Double.isNaN(u.cmp365[i]);
+                case "daily" -> u.dailyChange[i] >= 10.0;
+                default -> true;
+            };
+            if (!inView) return false;
+            if (minMarketCap != null && !(u.marketCap[i] >= minMarketCap)) return false;
+            if (minDailyChange != null && !(u.dailyChange[i] >= minDailyChange)) return false;
+            if (minRank1Week != null && !(u.rank1Week[i] >= minRank1Week)) return false;
+            return minRank1Month == null || u.rank1Month[i] >= minRank1Month;
+        });
+    }
+
+    private static int[] rows(UniverseSnapshot u, IntPredicate predicate) {
+        return IntStream.range(0, u.size()).filter(predicate).toArray();
+    }
+
+    // null, a special value, a value of the column (often a bucket bound) or a random one
+    private static Double minimum(Random random, double[] column, double spread) {
+        return switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> SPECIAL[random.nextInt(SPECIAL.length)];
+            case 2, 3 -> column[random.nextInt(column.length)];
+            default -> (random.nextDouble() - 0.3) * 2 * spread;
+        };
+    }
+
+    private static double spread(double[] column) {
+        double max = 1;
+        for (double v : column) if (Double.isFinite(v)) max = Math.max(max, Math.abs(v));
+        return max;
+    }
+
+    private static UniverseSnapshot snapshot(Random random, int size) {
+        UniverseSnapshot u = new UniverseSnapshot(1, size);
+        for (int i = 0; i < size; i++) {
+            u.ticker[i] = "T" + i;
+            u.name[i] = "T" + i;
+            u.cmp[i] = value(random, 1000);
+            u.cmp365[i] = value(random, 1000);
+            u.marketCap[i] = value(random, 10_000);
+            u.dailyChange[i] = value(random, 12);
+            u.rank1Week[i] = value(random, 8);
+            u.rank1Month[i] = value(random, 10);
+        }
+        return u;
+    }
+
+    // heavy ties (rounded), missing values, signed zeros and infinities
+    private static double value(Random random, double scale) {
+        int kind = random.nextInt(40);
+        if (kind < 4) return Double.NaN;
+        if (kind == 4) return -0.0;
+        if (kind == 5) return 0.0;
+        if (kind == 6) return random.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        double v = random.nextGaussian() * scale;
+        return kind < 25 ? Math.rint(v) : v;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.reporting.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link FuzzySymbolIndex} against a brute-force scan of every indexed token with a plain optimal string alignment
+ * (restricted Damerau-Levenshtein) distance: random tickers and misspelled queries, tokens longer than the delete
+ * prefix with edits past it, tokens whose deletes share a {@code String.hashCode()}, and the index after
+ * incremental removes and adds.
+ */
+class FuzzySymbolIndexTest {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String[] WORDS = {"reliance", "industries", "infosys", "limited", "ltd", "tata",
+            "consultancy", "services", "bajaj", "finance", "auto", "hdfc", "bank", "mahindra", "kotak", "power",
+            "pharmaceuticals", "chemicals", "engineering", "textiles", "sun", "adani", "ports", "green"};
+
+    private final Random random = new Random(21);
+    // ticker -> name of what the index currently holds
+    private final Map<String, String> indexed = new LinkedHashMap<>();
+    // token length -> token -> tickers of indexed, rebuilt after changes
+    private Map<Integer, Map<String, Set<String>>> tickersByToken;
+    private FuzzySymbolIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzySymbolIndex();
+        for (int i = 0; i < 8_000; i++) add("NSE:" + randomSymbol(i), randomName());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomQueries() {
+        for (int k = 0; k < 300; k++) {
+            assertSearch(randomQuery());
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnLongTokensEditedPastThePrefix() {
+        List<String> tickers = new ArrayList<>(indexed.keySet());
+        int checked = 0;
+        for (int k = 0; k < 2_000 && checked < 300; k++) {
+            String ticker = tickers.get(random.nextInt(tickers.size()));
+            String symbol = ticker.substring(4);
+            if (symbol.length() <= 9) continue;
+            // one or two edits, all at or after position 6, i.e. around and beyond the 7-character prefix
+            String query = symbol;
+            for (int e = 1 + random.nextInt(2); e > 0; e--) {
+                query = edit(query, 6 + random.nextInt(query.length() - 6));
+            }
+            assertSearch(query);
+            assertTrue(search(query).containsKey(ticker) || osa(query, symbol) > 2, query);
+            checked++;
+        }
+        assertEquals(300, checked);
+    }
+
+    @Test
+    void matchesBruteForceAcrossHashCollisions() {
+        // "aan" and "ac0" have the same String.hashCode(), and so do any two strings differing only there
+        assertEquals("aan".hashCode(), "ac0".hashCode());
+        List<String> colliding = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String head = randomWord(1 + random.nextInt(3));
+            String tail = randomWord(random.nextInt(5));
+            add("BSE:" + head + "aan" + tail + i, null);
+            add("BSE:" + head + "ac0" + tail + i, null);
+            colliding.add(head + "aan" + tail + i);
+            colliding.add(head + "ac0" + tail + i);
+        }
+        assertEquals(colliding.get(0).hashCode(), colliding.get(1).hashCode());
+        assertNotEquals(colliding.get(0), colliding.get(1));
+        for (String token : colliding) {
+            assertSearch(token);
+            assertSearch(edit(token, random.nextInt(token.length())));
+        }
+        assertSearch("aan");
+        assertSearch("ac0");
+    }
+
+    @Test
+    void matchesBruteForceAfterIncrementalUpdates() {
+        List<String> tickers = new ArrayList<>(indexed.keySet());
+        Map<String, String> removed = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            String ticker = tickers.get(random.nextInt(tickers.size()));
+            String name = indexed.remove(ticker);
+            if (name == null) continue;
+            index.remove(ticker, name);
+            removed.put(ticker, name);
+            tickersByToken = null;
+        }
+        // renamed: same ticker, other tokens
+        int renamed = 0;
+        for (Map.Entry<String, String> e : removed.entrySet()) {
+            if (renamed++ % 3 == 0) add(e.getKey(), randomName());
+        }
+        for (int i = 0; i < 1_000; i++) add("NSE:" + randomSymbol(10_000 + i), randomName());
+
+        for (int k = 0; k < 300; k++) {
+            assertSearch(randomQuery());
+        }
+        for (String ticker : removed.keySet()) {
+            if (!indexed.containsKey(ticker)) {
+                String symbol = ticker.substring(4);
+                assertFalse(search(symbol).containsKey(ticker), ticker + " was removed");
+            }
+        }
+    }
+
+    private void add(String ticker, String name) {
+        index.add(ticker, name);
+        indexed.put(ticker, name);
+        tickersByToken = null;
+    }
+
+    private Map<String, Integer> search(String query) {
+        FuzzySymbolIndex.Result result = index.search(query, Long.MAX_VALUE);
+        assertTrue(result.complete());
+        return result.matches();
+    }
+
+    private void assertSearch(String query) {
+        assertEquals(bruteForce(query), search(query), query);
+    }
+
+    // per query token: tickers with a token within its allowed distance, at the closest one; summed over tokens
+    private Map<String, Integer> bruteForce(String query) {
+        Set<String> queryTokens = new LinkedHashSet<>();
+        words(query.substring(query.indexOf(':') + 1), queryTokens);
+        if (tickersByToken == null) {
+            tickersByToken = new HashMap<>();
+            for (Map.Entry<String, String> e : indexed.entrySet()) {
+                for (String token : tokens(e.getKey(), e.getValue())) {
+                    tickersByToken.computeIfAbsent(token.length(), n -> new HashMap<>())
+                            .computeIfAbsent(token, t -> new LinkedHashSet<>()).add(e.getKey());
+                }
+            }
+        }
+        Map<String, Integer> result = null;
+        for (String q : queryTokens) {
+            int max = q.length() <= 3 ? 0 : q.length() <= 7 ? 1 : FuzzySymbolIndex.MAX_DISTANCE;
+            Map<String, Integer> matches = new HashMap<>();
+            // tokens whose length differs by more than max are further than max
+            for (int length = q.length() - max; length <= q.length() + max; length++) {
+                for (Map.Entry<String, Set<String>> e : tickersByToken.getOrDefault(length, Map.of()).entrySet()) {
+                    int d = osa(q, e.getKey());
+                    if (d > max) continue;
+                    for (String ticker : e.getValue()) matches.merge(ticker, d, Math::min);
+                }
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                Map<String, Integer> both = new HashMap<>();
+                for (Map.Entry<String, Integer> e : matches.entrySet()) {
+                    Integer before = result.get(e.getKey());
+                    if (before != null) both.put(e.getKey(), before + e.getValue());
+                }
+                result = both;
+            }
+        }
+        return result == null ? Map.of() : result;
+    }
+
+    private static Set<String> tokens(String ticker, String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder symbol = new StringBuilder();
+        for (char c : ticker.substring(ticker.indexOf(':') + 1).toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) symbol.append(c);
+        }
+        if (symbol.length() > 0) tokens.add(symbol.toString());
+        if (name != null) words(name, tokens);
+        return tokens;
+    }
+
+    private static void words(String text, Set<String> into) {
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!word.isEmpty()) into.add(word);
+        }
+    }
+
+    // full-matrix optimal string alignment distance
+    private static int osa(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    // an indexed symbol or name word with up to three edits, sometimes two words, sometimes exchange-prefixed
+    private String randomQuery() {
+        List<String> tickers = new ArrayList<>(indexed.keySet());
+        String ticker = tickers.get(random.nextInt(tickers.size()));
+        List<String> tokens = new ArrayList<>(tokens(ticker, indexed.get(ticker)));
+        StringBuilder query = new StringBuilder(random.nextInt(5) == 0 ? "nse:" : "");
+        for (int w = random.nextInt(4) == 0 ? 2 : 1; w > 0; w--) {
+            String token = tokens.get(random.nextInt(tokens.size()));
+            for (int e = random.nextInt(4); e > 0; e--) token = edit(token, random.nextInt(token.length()));
+            query.append(token).append(' ');
+        }
+        return query.toString().trim();
+    }
+
+    // one insertion, deletion, substitution or transposition at position i
+    private String edit(String s, int i) {
+        char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        return switch (random.nextInt(4)) {
+            case 0 -> s.substring(0, i) + c + s.substring(i);
+            case 1 -> s.length() > 1 ? s.substring(0, i) + s.substring(i + 1) : s;
+            case 2 -> s.substring(0, i) + c + s.substring(i + 1);
+            default -> i + 1 < s.length() ? s.substring(0, i) + s.charAt(i + 1) + s.charAt(i) + s.substring(i + 2) : s;
+        };
+    }
+
+    private String randomSymbol(int i) {
+        // 3 to 14 characters, unique through the numeric suffix
+        return randomWord(2 + random.nextInt(10)) + Integer.toString(i, 36);
+    }
+
+    private String randomName() {
+        StringBuilder name = new StringBuilder();
+        for (int w = 1 + random.nextInt(3); w > 0; w--) {
+            String word = random.nextInt(3) == 0 ? randomWord(3 + random.nextInt(10))
+                    : WORDS[random.nextInt(WORDS.length)];
+            name.append(word).append(random.nextBoolean() ? " " : ". ");
+        }
+        return name.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private String randomWord(int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) word.append(ALPHABET.charAt(random.nextInt(26)));
+        return word.toString();
+    }
+}
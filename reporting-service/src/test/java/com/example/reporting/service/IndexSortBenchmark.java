@@ -0,0 +1,109 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.UniverseSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dashboard page (50 rows, sorted by daily change descending with ticker as tie-breaker) out of a
+ * synthetic universe: boxed {@code List.sort}, full {@link IndexSort#sort} and {@link IndexSort#sortTop},
+ * for page 0 and for the page at offset 1,000.
+ * <p>
+ * Run: {@code mvn test-compile} then run {@link #main} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexSortBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"2000", "20000", "200000"})
+    public int tickers;
+
+    @Param({"0", "1000"})
+    public int offset;
+
+    private UniverseSnapshot universe;
+    private List<StockAnalytics> entities;
+    private int[] filtered;
+    private IndexSort.RowComparator comparator;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        universe = new UniverseSnapshot(1, tickers);
+        entities = new ArrayList<>(tickers);
+        for (int i = 0; i < tickers; i++) {
+            universe.ticker[i] = "NSE:SYM" + i;
+            // rounded to two decimals, with some missing, as in the sheet
+            universe.dailyChange[i] = random.nextInt(20) == 0 ? Double.NaN
+                    : Math.round((random.nextGaussian() * 3) * 100) / 100.0;
+            universe.cmp[i] = 10 + random.nextDouble() * 5_000;
+            universe.marketCap[i] = random.nextDouble() * 1e6;
+            entities.add(universe.toEntity(i));
+        }
+        filtered = new int[tickers];
+        IndexSort.RowComparator byChange = IndexSort.byColumn(universe.dailyChange, true);
+        comparator = (a, b) -> {
+            int c = byChange.compare(a, b);
+            return c != 0 ? c : universe.ticker[a].compareTo(universe.ticker[b]);
+        };
+    }
+
+    @Benchmark
+    public List<StockAnalytics> boxedSort() {
+        List<StockAnalytics> copy = new ArrayList<>(entities);
+        copy.sort(Comparator.comparing(StockAnalytics::getDailyChange,
+                        Comparator.nullsLast(Comparator.<Double>reverseOrder()))
+                .thenComparing(StockAnalytics::getTicker));
+        return copy.subList(Math.min(offset, tickers), Math.min(offset + PAGE_SIZE, tickers));
+    }
+
+    @Benchmark
+    public int fullIndexSort() {
+        int[] rows = rows();
+        IndexSort.sort(rows, tickers, comparator);
+        return rows[Math.min(offset, tickers - 1)];
+    }
+
+    @Benchmark
+    public int topK() {
+        int[] rows = rows();
+        IndexSort.sortTop(rows, tickers, Math.min(offset + PAGE_SIZE, tickers), comparator);
+        return rows[Math.min(offset, tickers - 1)];
+    }
+
+    // a fresh unsorted row list per call, as each request filters the snapshot again
+    private int[] rows() {
+        for (int i = 0; i < tickers; i++) filtered[i] = i;
+        return filtered;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IndexSortBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.reporting.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * {@link IndexSort#sortTop} against the first k rows of {@link IndexSort#sort}, and {@code sort} against a boxed
+ * stable List.sort: heavy ties, NaN keys, k = 0, k = n, k beyond n and k on both sides of the full-sort fallback
+ * ({@code k * 4 >= n}). Rows are passed in ascending index order, as every caller collects them.
+ */
+class IndexSortTest {
+
+    private final Random random = new Random(16);
+
+    @Test
+    void sortMatchesAStableBoxedSort() {
+        for (int n : new int[]{0, 1, 2, 15, 16, 17, 100, 5_000}) {
+            double[] column = column(n, 5);
+            for (boolean descending : new boolean[]{false, true}) {
+                IndexSort.RowComparator cmp = IndexSort.byColumn(column, descending);
+                int[] rows = IntStream.range(0, n).toArray();
+                IndexSort.sort(rows, n, cmp);
+
+                List<Integer> boxed = new ArrayList<>();
+                for (int i = 0; i < n; i++) boxed.add(i);
+                boxed.sort(Comparator.comparing(i -> i, cmp::compare));
+                assertArrayEquals(boxed.stream().mapToInt(Integer::intValue).toArray(), rows, "n=" + n);
+            }
+        }
+    }
+
+    @Test
+    void sortTopMatchesThePrefixOfSort() {
+        for (int n : new int[]{1, 2, 3, 7, 40, 401, 10_000}) {
+            for (int distinct : new int[]{1, 3, 50, 1_000_000}) {
+                double[] column = column(n, distinct);
+                int[] rows = sampleRows(n);
+                for (boolean descending : new boolean[]{false, true}) {
+                    IndexSort.RowComparator cmp = IndexSort.byColumn(column, descending);
+                    for (int k : ks(rows.length)) {
+                        assertTop(rows, k, cmp, "n=" + n + " distinct=" + distinct + " k=" + k);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortTopKeepsTheRowsItWasGiven() {
+        // rows a subset of the snapshot, in ascending order, with a comparator that ties everything
+        int[] rows = sampleRows(1_000);
+        int[] top = rows.clone();
+        IndexSort.sortTop(top, top.length, 10, (a, b) -> 0);
+        assertArrayEquals(Arrays.copyOf(rows, 10), Arrays.copyOf(top, 10));
+
+        int[] untouched = rows.clone();
+        IndexSort.sortTop(untouched, untouched.length, 0, (a, b) -> Integer.compare(b, a));
+        assertArrayEquals(rows, untouched);
+    }
+
+    private static void assertTop(int[] rows, int k, IndexSort.RowComparator cmp, String message) {
+        int n = rows.length;
+        int[] sorted = rows.clone();
+        IndexSort.sort(sorted, n, cmp);
+        int[] top = rows.clone();
+        IndexSort.sortTop(top, n, k, cmp);
+        int m = Math.max(0, Math.min(k, n));
+        assertArrayEquals(Arrays.copyOf(sorted, m), Arrays.copyOf(top, m), message);
+    }
+
+    // 0, 1, around the k * 4 >= n fallback, n - 1, n and beyond
+    private static int[] ks(int n) {
+        int fallback = (n + 3) / 4; // smallest k sorted in full
+        return IntStream.of(0, 1, 2, fallback - 2, fallback - 1, fallback, fallback + 1, n / 2, n - 1, n, n + 5)
+                .filter(k -> k >= 0).distinct().toArray();
+    }
+
+    // ascending row indices with gaps, as selected by a filter
+    private int[] sampleRows(int n) {
+        int[] rows = new int[n];
+        int row = 0;
+        for (int i = 0; i < n; i++) {
+            row += 1 + random.nextInt(3);
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    // indexed by row, so large enough for sampleRows; about 10% NaN, the rest from {@code distinct} values
+    private double[] column(int n, int distinct) {
+        double[] column = new double[3 * n + 1];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = random.nextInt(10) == 0 ? Double.NaN
+                    : distinct >= 1_000_000 ? random.nextGaussian() : random.nextInt(distinct) - distinct / 2;
+        }
+        return column;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.SavedScreener;
+import com.example.reporting.model.SavedScreenerRequest;
+import com.example.reporting.model.ScreenerChangesResponse;
+import com.example.reporting.model.ScreenerResponse;
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.UniverseSnapshot;
+import com.example.reporting.repository.SavedScreenerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Saved screeners kept up to date across snapshots, compared with evaluating each expression in full: rows
+ * rewritten and tickers listed by each import, and one snapshot with a deleted row (full re-evaluation).
+ */
+class SavedScreenerServiceTest {
+
+    private static final String[] EXPRESSIONS = {
+            "rank1Week > 5 and cmp >= cmp365 * 0.95",
+            "dailyChange > 2 or rank1Month < -12",
+            "marketCap between 500 and 5000 and not rank1Week > 0"
+    };
+
+    private final Random random = new Random(7);
+    private final List<SavedScreener> saved = new ArrayList<>();
+    private UniverseSnapshot current;
+    private SavedScreenerService service;
+
+    @BeforeEach
+    void setUp() {
+        SavedScreenerRepository repository = inMemoryRepository();
+        UniverseSnapshotService snapshots = new UniverseSnapshotService(null, null, null) {
+            @Override
+            public UniverseSnapshot current() {
+                return current;
+            }
+        };
+        service = new SavedScreenerService(snapshots, repository);
+        ReflectionTestUtils.setField(service, "maxPerUser", 20);
+        ReflectionTestUtils.setField(service, "historyGenerations", 3);
+    }
+
+    @Test
+    void resultsAndChangesMatchFullEvaluation() {
+        current = new UniverseSnapshot(1, 5000);
+        for (int i = 0; i < current.size(); i++) fill(current, i, "T" + i, random.nextInt(2));
+        List<Long> ids = new ArrayList<>();
+        for (int k = 0; k < EXPRESSIONS.length; k++) {
+            ids.add(service.create("alice", new SavedScreenerRequest("s" + k, EXPRESSIONS[k])).id());
+        }
+        UniverseSnapshot first = current;
+
+        int listed = 0;
+        for (long version = 2; version <= 8; version++) {
+            boolean deleteOne = version == 6;
+            int added = deleteOne ? 0 : random.nextInt(20);
+            UniverseSnapshot previous = current;
+            UniverseSnapshot next = new UniverseSnapshot(version, previous.size() + added - (deleteOne ? 1 : 0));
+            int j = 0;
+            for (int i = 0; i < previous.size(); i++) {
+                if (deleteOne && i == 3) continue;
+                copy(previous, i, next, j);
+                if (random.nextInt(25) == 0) fill(next, j, previous.ticker[i], version);
+                j++;
+            }
+            for (int k = 0; k < added; k++) fill(next, j++, "N" + listed++, version);
+            current = next;
+            service.refreshIfChanged();
+
+            for (int k = 0; k < EXPRESSIONS.length; k++) {
+                Set<String> expected = matches(EXPRESSIONS[k], next);
+                ScreenerResponse results = service.results("alice", ids.get(k), "ticker", "asc", 0, 100_000)
+                        .orElseThrow();
+                assertEquals(expected, tickers(results.stocks()), "results at v" + version);
+                assertEquals(expected.size(), results.total());
+
+                ScreenerChangesResponse changes = service.changes("alice", ids.get(k), version - 1).orElseThrow();
+                Set<String> before = matches(EXPRESSIONS[k], previous);
+                assertEquals(difference(expected, before), new HashSet<>(changes.entered()), "entered at v" + version);
+                assertEquals(difference(before, expected), new HashSet<>(changes.left()), "left at v" + version);
+
+                if (version <= 4) {
+                    // within the three kept generations: net change since the screener was saved
+                    ScreenerChangesResponse sinceSaved = service.changes("alice", ids.get(k), 1).orElseThrow();
+                    Set<String> initial = matches(EXPRESSIONS[k], first);
+                    assertEquals(difference(expected, initial), new HashSet<>(sinceSaved.entered()));
+                    assertEquals(difference(initial, expected), new HashSet<>(sinceSaved.left()));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.changes("alice", ids.get(0), 1));
+    }
+
+    @Test
+    void screenersArePrivateAndValidated() {
+        current = new UniverseSnapshot(1, 100);
+        for (int i = 0; i < current.size(); i++) fill(current, i, "T" + i, 1);
+        Long id = service.create("alice", new SavedScreenerRequest("mine", EXPRESSIONS[0])).id();
+
+        assertFalse(service.results("bob", id, "ticker", "asc", 0, 10).isPresent());
+        assertFalse(service.delete("bob", id));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create("alice", new SavedScreenerRequest("mine", "cmp > 1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create("alice", new SavedScreenerRequest("other", "cmp >")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create("alice", new SavedScreenerRequest(" ", "cmp > 1")));
+    }
+
+    private void fill(UniverseSnapshot u, int i, String ticker, long generation) {
+        u.ticker[i] = ticker;
+        u.name[i] = ticker;
+        u.cmp[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextDouble() * 1000;
+        u.cmp365[i] = random.nextDouble() * 1000;
+        u.marketCap[i] = random.nextDouble() * 10000;
+        u.rank1Week[i] = random.nextGaussian() * 8;
+        u.dailyChange[i] = random.nextGaussian() * 4;
+        u.rank1Month[i] = random.nextGaussian() * 10;
+        u.lastUpdated[i] = Long.MIN_VALUE;
+        u.generation[i] = generation;
+    }
+
+    private static void copy(UniverseSnapshot from, int i, UniverseSnapshot to, int j) {
+        to.ticker[j] = from.ticker[i];
+        to.name[j] = from.name[i];
+        to.cmp[j] = from.cmp[i];
+        to.cmp365[j] = from.cmp365[i];
+        to.marketCap[j] = from.marketCap[i];
+        to.rank1Week[j] = from.rank1Week[i];
+        to.dailyChange[j] = from.dailyChange[i];
+        to.rank1Month[j] = from.rank1Month[i];
+        to.lastUpdated[j] = from.lastUpdated[i];
+        to.generation[j] = from.generation[i];
+    }
+
+    private static Set<String> matches(String expression, UniverseSnapshot u) {
+        int[] rows = new int[u.size()];
+        int n = ScreenerExpression.parse(expression).select(u, rows);
+        Set<String> tickers = new HashSet<>();
+        for (int k = 0; k < n; k++) tickers.add(u.ticker[rows[k]]);
+        return tickers;
+    }
+
+    private static Set<String> tickers(List<StockAnalytics> stocks) {
+        Set<String> tickers = new HashSet<>();
+        for (StockAnalytics stock : stocks) tickers.add(stock.getTicker());
+        return tickers;
+    }
+
+    private static Set<String> difference(Set<String> a, Set<String> b) {
+        Set<String> result = new HashSet<>(a);
+        result.removeAll(b);
+        return result;
+    }
+
+    // just the queries SavedScreenerService uses, over a list
+    private SavedScreenerRepository inMemoryRepository() {
+        long[] nextId = {0};
+        return (SavedScreenerRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{SavedScreenerRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> new ArrayList<>(saved);
+                    case "save" -> {
+                        SavedScreener screener = (SavedScreener) args[0];
+                        if (screener.getId() == null) {
+                            screener.setId(++nextId[0]);
+                            saved.add(screener);
+                        }
+                        yield screener;
+                    }
+                    case "countByUserSub" -> saved.stream().filter(s -> s.getUserSub().equals(args[0])).count();
+                    case "existsByUserSubAndName" -> saved.stream()
+                            .anyMatch(s -> s.getUserSub().equals(args[0]) && s.getName().equals(args[1]));
+                    case "findByIdAndUserSub" -> saved.stream()
+                            .filter(s -> s.getId().equals(args[0]) && s.getUserSub().equals(args[1])).findFirst();
+                    case "findByUserSubOrderByName" -> saved.stream()
+                            .filter(s -> s.getUserSub().equals(args[0])).toList();
+                    case "delete" -> {
+                        saved.remove(args[0]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link ScreenerExpression} against hand-written predicates over a random snapshot with missing values, and
+ * malformed expressions that must be rejected at parse time (400) rather than fail during evaluation (500).
+ */
+class ScreenerExpressionTest {
+
+    private static final int ROWS = 20_000;
+
+    private static UniverseSnapshot u;
+
+    @BeforeAll
+    static void buildSnapshot() {
+        Random random = new Random(3);
+        u = new UniverseSnapshot(1, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            u.ticker[i] = "T" + i;
+            u.cmp[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextDouble() * 1000;
+            u.cmp365[i] = random.nextInt(6) == 0 ? Double.NaN : random.nextDouble() * 1000;
+            u.marketCap[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextDouble() * 10000;
+            u.rank1Week[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian() * 8;
+            u.dailyChange[i] = random.nextGaussian() * 4;
+            u.rank1Month[i] = random.nextGaussian() * 10;
+        }
+    }
+
+    static Stream<Arguments> expressions() {
+        return Stream.of(
+                Arguments.of("rank1Week > 5 and cmp >= cmp365 * 0.95 and marketCap between 500 and 5000",
+                        (IntPredicate) i -> u.rank1Week[i] > 5 && u.cmp[i] >= u.cmp365[i] * 0.95
+                                && u.marketCap[i] >= 500 && u.marketCap[i] <= 5000),
+                Arguments.of("RANK1WEEK>5 OR dailyChange<-3",
+                        (IntPredicate) i -> u.rank1Week[i] > 5 || u.dailyChange[i] < -3),
+                Arguments.of("not (rank1Week > 5)",
+                        (IntPredicate) i -> !(u.rank1Week[i] > 5)),
+                Arguments.of("5 < rank1Week",
+                        (IntPredicate) i -> u.rank1Week[i] > 5),
+                Arguments.of("-(dailyChange) >= 2 * 1.5",
+                        (IntPredicate) i -> -u.dailyChange[i] >= 3),
+                Arguments.of("rank1Week != 0 and (dailyChange > 1 or rank1Month > 5 or cmp < 100)",
+                        (IntPredicate) i -> u.rank1Week[i] != 0 && !Double.isNaN(u.rank1Week[i])
+                                && (u.dailyChange[i] > 1 || u.rank1Month[i] > 5 || u.cmp[i] < 100)),
+                Arguments.of("(cmp - cmp365) / cmp365 * 100 > 20",
+                        (IntPredicate) i -> (u.cmp[i] - u.cmp365[i]) / u.cmp365[i] * 100 > 20),
+                Arguments.of("dailyChange between -1 and 1 and not rank1Month > 0",
+                        (IntPredicate) i -> u.dailyChange[i] >= -1 && u.dailyChange[i] <= 1
+                                && !(u.rank1Month[i] > 0)),
+                Arguments.of("1e3 <= marketCap",
+                        (IntPredicate) i -> u.marketCap[i] >= 1000));
+    }
+
+    @ParameterizedTest
+    @MethodSource("expressions")
+    void bindAndSelectMatchTheReference(String text, IntPredicate reference) {
+        ScreenerExpression expression = ScreenerExpression.parse(text);
+
+        ScreenerExpression.RowPredicate bound = expression.bind(u);
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(reference.test(i), bound.test(i), "row " + i);
+        }
+
+        int[] rows = new int[ROWS];
+        int n = expression.select(u, rows);
+        assertArrayEquals(IntStream.range(0, ROWS).filter(reference).toArray(), Arrays.copyOf(rows, n));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "rank1Week",
+            "rank1Week >",
+            "foo > 1",
+            "rank1Week > 1 and",
+            "(rank1Week > 1",
+            "rank1Week > 1)",
+            "rank1Week > 1 and 5",
+            "rank1Week between 1",
+            "not rank1Week",
+            "(rank1Week > 1) + 2 > 1",
+            "rank1Week > 1 xyz",
+            "rank1Week >> 1",
+            "1..2 > rank1Week",
+            "(cmp > 1) between 0 and 5",
+            "rank1Week between (cmp > 1) and 5",
+            "rank1Week between 0 and (cmp > 1)"
+    })
+    void rejectsMalformedExpressions(String text) {
+        assertThrows(IllegalArgumentException.class, () -> ScreenerExpression.parse(text));
+    }
+}
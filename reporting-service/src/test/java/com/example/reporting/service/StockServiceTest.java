@@ -0,0 +1,165 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.CursorPage;
+import com.example.reporting.model.PageCursor;
+import com.example.reporting.model.StockAnalytics;
+import com.example.reporting.model.StockQuery;
+import com.example.reporting.model.UniverseSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset paging of the dashboard on the snapshot: walking {@link StockService#scrollStocks} to the end gives the
+ * page-number ordering of {@link StockService#findStocks}, with no row repeated or skipped, for every sort field in
+ * both directions over tied values, missing values, signed zeros and case-mixed names and tickers.
+ */
+class StockServiceTest {
+
+    private static final String[] SORTS = {"cmp", "marketCap", "dailyChange", "rank1Week", "rank1Month",
+            "rank1Year", "rank2Month", "name", "ticker", "lastUpdated", "unknown"};
+    private static final String[] NAMES = {"Alpha Ltd", "ALPHA LTD", "alpha ltd", "Beta", "beta", "\u00c9clair", null};
+
+    private UniverseSnapshot current;
+    private StockService service;
+
+    @BeforeEach
+    void setUp() {
+        current = snapshot(new Random(15), 300);
+        UniverseSnapshotService snapshots = new UniverseSnapshotService(null, null, null) {
+            @Override
+            public UniverseSnapshot current() {
+                return current;
+            }
+        };
+        service = new StockService(snapshots, null);
+        ReflectionTestUtils.setField(service, "queryMode", "snapshot");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"asc", "desc"})
+    void cursorWalkMatchesPageNumberOrdering(String order) {
+        for (String sortBy : SORTS) {
+            for (int pageSize : new int[]{1, 7, 64}) {
+                assertWalk(new StockQuery(null, null, null, null, sortBy, order, null, "all", 0, pageSize));
+            }
+            assertWalk(new StockQuery(1.0, null, null, null, sortBy, order, null, "52w", 0, 5));
+            assertWalk(new StockQuery(null, 0.0, null, null, sortBy, order, "alpha", null, 0, 3));
+        }
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSort() {
+        StockQuery byRank = new StockQuery(null, null, null, null, "rank1Week", "desc", null, "all", 0, 10);
+        String cursor = service.scrollStocks(byRank, null).nextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> service.scrollStocks(
+                new StockQuery(null, null, null, null, "rank1Week", "asc", null, "all", 0, 10), cursor));
+        assertThrows(IllegalArgumentException.class, () -> service.scrollStocks(
+                new StockQuery(null, null, null, null, "cmp", "desc", null, "all", 0, 10), cursor));
+        assertThrows(IllegalArgumentException.class, () -> service.scrollStocks(
+                new StockQuery(null, null, null, null, "ticker", "desc", null, "all", 0, 10), cursor));
+    }
+
+    @Test
+    void rejectsCursorsWithAnUnreadableKey() {
+        for (String sortBy : new String[]{"rank1Week", "lastUpdated"}) {
+            String cursor = new PageCursor(sortBy, true, "1e3x", "NSE:A").encode();
+            assertThrows(IllegalArgumentException.class, () -> service.scrollStocks(
+                    new StockQuery(null, null, null, null, sortBy, "desc", null, "all", 0, 10), cursor));
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.scrollStocks(
+                new StockQuery(null, null, null, null, "cmp", "desc", null, "all", 0, 10), "not a cursor"));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        StockQuery query = new StockQuery(null, null, null, null, "ticker", "asc", null, "all", 0, 100_000);
+        assertNull(service.scrollStocks(query, null).nextCursor());
+    }
+
+    private void assertWalk(StockQuery query) {
+        List<String> expected = tickers(service.findStocks(withPage(query, 0, 100_000)).getContent());
+
+        // page-number pages of the same size agree with the one big page
+        List<String> numbered = new ArrayList<>();
+        for (int page = 0; numbered.size() < expected.size(); page++) {
+            numbered.addAll(tickers(service.findStocks(withPage(query, page, query.pageSize())).getContent()));
+        }
+        assertEquals(expected, numbered, () -> "page numbers " + query);
+
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage page = service.scrollStocks(query, cursor);
+            walked.addAll(tickers(page.stocks()));
+            if (page.nextCursor() == null) {
+                assertTrue(page.stocks().size() <= query.pageSize());
+            } else {
+                assertEquals(query.pageSize(), page.stocks().size());
+                // the cursor after a page's last row is the one a page-number client would switch with
+                StockAnalytics last = page.stocks().get(page.stocks().size() - 1);
+                assertEquals(page.nextCursor(), service.cursorAfter(query, last));
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null && walked.size() <= expected.size());
+
+        assertEquals(expected, walked, () -> "cursor walk " + query);
+        assertEquals(walked.size(), new HashSet<>(walked).size(), () -> "duplicates in " + query);
+    }
+
+    private static StockQuery withPage(StockQuery q, int page, int pageSize) {
+        return new StockQuery(q.minMarketCap(), q.minDailyChange(), q.minRank1Week(), q.minRank1Month(), q.sortBy(),
+                q.order(), q.search(), q.view(), page, pageSize);
+    }
+
+    private static List<String> tickers(List<StockAnalytics> stocks) {
+        List<String> tickers = new ArrayList<>(stocks.size());
+        for (StockAnalytics stock : stocks) tickers.add(stock.getTicker());
+        return tickers;
+    }
+
+    private static UniverseSnapshot snapshot(Random random, int size) {
+        UniverseSnapshot u = new UniverseSnapshot(1, size);
+        for (int i = 0; i < size; i++) {
+            // distinct tickers that differ only in case, so ticker sorts tie and fall back to the exact ticker
+            String base = "q" + Integer.toString(i / 2, 36);
+            u.ticker[i] = "NSE:" + (i % 2 == 0 ? base.toUpperCase(Locale.ROOT) : base) + "x";
+            u.name[i] = NAMES[random.nextInt(NAMES.length)];
+            u.cmp[i] = random.nextInt(30) == 0 ? Double.NaN : random.nextInt(50);
+            u.cmp365[i] = random.nextInt(5) == 0 ? Double.NaN : random.nextInt(50);
+            u.marketCap[i] = random.nextInt(30) == 0 ? Double.NaN : random.nextInt(10);
+            u.dailyChange[i] = value(random);
+            u.rank1Week[i] = value(random);
+            u.rank1Month[i] = value(random);
+            u.rank1Year[i] = value(random);
+            u.rank2Month[i] = value(random);
+            u.lastUpdated[i] = random.nextInt(8) == 0 ? Long.MIN_VALUE : 1_700_000_000L + random.nextInt(5) * 60;
+        }
+        return u;
+    }
+
+    // few distinct values, so most rows tie; missing values, signed zeros and infinities
+    private static double value(Random random) {
+        return switch (random.nextInt(12)) {
+            case 0 -> Double.NaN;
+            case 1 -> -0.0;
+            case 2 -> 0.0;
+            case 3 -> random.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            default -> random.nextInt(7) - 3 + (random.nextBoolean() ? 0.5 : 0);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.reporting.service;
+
+import com.example.reporting.model.UniverseSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link SymbolDictionary}: direct keys, and which fallback answers are remembered.
+ */
+class SymbolDictionaryTest {
+
+    private SymbolDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        UniverseSnapshot u = new UniverseSnapshot(1, 3);
+        String[][] stocks = {
+                {"NSE:TCS", "Tata Consultancy Services Ltd."},
+                {"BSE:TCS", "Tata Consultancy Services Ltd."},
+                {"NSE:INFY", "Infosys Limited"}};
+        for (int i = 0; i < stocks.length; i++) {
+            u.ticker[i] = stocks[i][0];
+            u.name[i] = stocks[i][1];
+            u.marketCap[i] = 1000 - i;
+            u.cmp[i] = 100;
+        }
+        dictionary = SymbolDictionary.build(SymbolSearchIndex.build(u), 100);
+    }
+
+    @Test
+    void resolvesTickersSymbolsAndNamesWithoutSearching() {
+        AtomicInteger searches = new AtomicInteger();
+        assertEquals(0, dictionary.resolve("nse:tcs", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(1, dictionary.resolve("BSE:TCS", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(0, dictionary.resolve("tcs", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(2, dictionary.resolve("Infosys Ltd", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(0, searches.get());
+    }
+
+    @Test
+    void remembersCompleteAnswersIncludingUnknown() {
+        AtomicInteger searches = new AtomicInteger();
+        assertEquals(2, dictionary.resolve("infosis", q -> lookup(searches, 2, true)));
+        assertEquals(2, dictionary.resolve("INFOSIS", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(SymbolDictionary.UNKNOWN,
+                dictionary.resolve("zzz", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(SymbolDictionary.UNKNOWN, dictionary.resolve("zzz", q -> lookup(searches, 2, true)));
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void searchesAgainAfterAnAnswerCutShort() {
+        AtomicInteger searches = new AtomicInteger();
+        assertEquals(SymbolDictionary.UNKNOWN,
+                dictionary.resolve("infosis", q -> lookup(searches, SymbolDictionary.UNKNOWN, false)));
+        assertEquals(2, dictionary.resolve("infosis", q -> lookup(searches, 2, true)));
+        assertEquals(2, dictionary.resolve("infosis", q -> lookup(searches, SymbolDictionary.UNKNOWN, true)));
+        assertEquals(2, searches.get());
+    }
+
+    private static SymbolDictionary.Lookup lookup(AtomicInteger searches, int row, boolean complete) {
+        searches.incrementAndGet();
+        return new SymbolDictionary.Lookup(row, complete);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.sheetimport.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal local stand-in for the Sheets API, for running the importer offline.
+ * Serves rows from a captured ValueRange JSON (data starting at sheet row 2) for
+ * values.get, values.batchGet and the sheet metadata call, and accepts appends.
+ * <p>
+ * Run with profile {@code sheets-stand-in} and point {@code google.sheets.root-url}
+ * at this service (e.g. http://localhost:8085/) with {@code google.sheets.auth=none}.
+ */
+@RestController
+@Profile("sheets-stand-in")
+public class SheetsStandInController {
+
+    private static final Pattern ROW_SPAN = Pattern.compile("![A-Z]+(\\d+)?(?::[A-Z]+(\\d+)?)?$");
+
+    private final ObjectMapper mapper;
+
+    @Value("${google.sheets.stand-in.values-file:classpath:stand-in/main-values.json}")
+    private Resource valuesFile;
+
+    public SheetsStandInController(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @GetMapping(value = "/v4/spreadsheets/{spreadsheetId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JsonNode spreadsheet(@PathVariable String spreadsheetId) throws IOException {
+        ObjectNode properties = mapper.createObjectNode().put("title", "Main");
+        properties.putObject("gridProperties").put("rowCount", values().size() + 1);
+        ObjectNode body = mapper.createObjectNode();
+        body.putArray("sheets").addObject().set("properties", properties);
+        return body;
+    }
+
+    @GetMapping(value = "/v4/spreadsheets/{spreadsheetId}/values/{range}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JsonNode get(@PathVariable String spreadsheetId, @PathVariable String range) throws IOException {
+        return valueRange(range, values());
+    }
+
+    @GetMapping(value = "/v4/spreadsheets/{spreadsheetId}/values:batchGet", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JsonNode batchGet(@PathVariable String spreadsheetId, @RequestParam List<String> ranges) throws IOException {
+        ArrayNode all = values();
+        ObjectNode body = mapper.createObjectNode().put("spreadsheetId", spreadsheetId);
+        ArrayNode valueRanges = body.putArray("valueRanges");
+        for (String range : ranges) {
+            valueRanges.add(valueRange(range, all));
+        }
+        return body;
+    }
+
+    @PostMapping(value = "/v4/spreadsheets/{spreadsheetId}/values/{range}:append", produces = MediaType.APPLICATION_JSON_VALUE)
+    public JsonNode append(@PathVariable String spreadsheetId, @PathVariable String range) {
+        return mapper.createObjectNode().put("spreadsheetId", spreadsheetId);
+    }
+
+    private ArrayNode values() throws IOException {
+        try (InputStream in = valuesFile.getInputStream()) {
+            JsonNode values = mapper.readTree(in).path("values");
+            return values.isArray() ? (ArrayNode) values : mapper.createArrayNode();
+        }
+    }
+
+    // slices the captured rows to the requested sheet rows; columns are served as captured
+    private ObjectNode valueRange(String range, ArrayNode all) {
+        int from = 2;
+        int to = all.size() + 1;
+        Matcher m = ROW_SPAN.matcher(range);
+        if (m.find()) {
+            if (m.group(1) != null) from = Integer.parseInt(m.group(1));
+            if (m.group(2) != null) to = Integer.parseInt(m.group(2));
+        }
+        ObjectNode node = mapper.createObjectNode().put("range", range).put("majorDimension", "ROWS");
+        ArrayNode rows = node.putArray("values");
+        for (int row = Math.max(from, 2); row <= to && row - 2 < all.size(); row++) {
+            rows.add(all.get(row - 2));
+        }
+        return node;
+    }
+}
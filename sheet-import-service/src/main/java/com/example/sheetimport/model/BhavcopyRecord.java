@@ -0,0 +1,30 @@
+package com.example.sheetimport.model;
+
+import java.time.LocalDate;
+
+/**
+ * One security line of an NSE cash-market bhavcopy, in either the legacy or the UDiFF layout.
+ * Prices are NaN and counts -1 when the file leaves them blank.
+ */
+public record BhavcopyRecord(String symbol,
+                             String series,
+                             LocalDate tradeDate,
+                             double open,
+                             double high,
+                             double low,
+                             double close,
+                             double last,
+                             double prevClose,
+                             long volume,
+                             double turnover,
+                             long trades,
+                             String isin) {
+
+    /**
+     * @return percent change of close over the previous close, rounded to 2 places; NaN if unknown
+     */
+    public double changePercent() {
+        if (!(prevClose > 0) || Double.isNaN(close)) return Double.NaN;
+        return Math.round((close - prevClose) / prevClose * 10_000) / 100.0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One import run. Ids are allocated when the run starts, so two replicas importing concurrently can commit
+ * out of id order; commitSeq is assigned at commit, in commit order ({@link
+ * com.example.sheetimport.repository.GenerationCommitSequence}). Readers treat the highest commitSeq as the
+ * current generation of stock_analytics.
+ */
+@Entity
+@Table(name = "import_generation",
+        indexes = @Index(name = "import_generation_commit_seq_uk", columnList = "commit_seq", unique = true))
+public class ImportGeneration {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String source;
+    private String writeMode;
+    private Integer rowCount;
+    // rows that differed from the previous poll and were actually written
+    private Integer changedRows;
+    private LocalDateTime startedAt;
+    private LocalDateTime committedAt;
+    // position in commit order, null until committed
+    @Column(name = "commit_seq")
+    private Long commitSeq;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getWriteMode() {
+        return writeMode;
+    }
+
+    public void setWriteMode(String writeMode) {
+        this.writeMode = writeMode;
+    }
+
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public Integer getChangedRows() {
+        return changedRows;
+    }
+
+    public void setChangedRows(Integer changedRows) {
+        this.changedRows = changedRows;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCommittedAt() {
+        return committedAt;
+    }
+
+    public void setCommittedAt(LocalDateTime committedAt) {
+        this.committedAt = committedAt;
+    }
+
+    public Long getCommitSeq() {
+        return commitSeq;
+    }
+
+    public void setCommitSeq(Long commitSeq) {
+        this.commitSeq = commitSeq;
+    }
+}
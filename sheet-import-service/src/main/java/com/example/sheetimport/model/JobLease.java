@@ -0,0 +1,45 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Lease on a scheduled job across replicas. Only the owner runs the job until expiresAt;
+ * token increases on every change of owner and fences writes of a replica that lost the lease.
+ * Maintained by JobLeaseService with plain SQL; mapped here so the table is part of the schema.
+ * The timestamps are timestamptz, so replicas in different JVM time zones agree on expiry.
+ */
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+
+    @Id
+    private String name;
+
+    private String owner;
+    private Long token;
+    @Column(columnDefinition = "timestamp with time zone")
+    private Instant acquiredAt;
+    @Column(columnDefinition = "timestamp with time zone")
+    private Instant expiresAt;
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Long getToken() {
+        return token;
+    }
+
+    public Instant getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Market breadth of stock_analytics as of one committed import generation, for charting breadth
+ * through the session. Appended by MarketBreadthSeriesStore with plain SQL; mapped here so the
+ * table is part of the schema.
+ * <p>
+ * Counts use the headline breadth rules of reporting's /api/market-breadth: every row, with a
+ * missing daily_change counted as unchanged (0).
+ */
+@Entity
+@Table(name = "market_breadth_series", indexes = @Index(name = "market_breadth_series_ts_idx", columnList = "ts"))
+public class MarketBreadthPoint {
+
+    @Id
+    private Long generation;
+
+    // the generation's committedAt
+    private LocalDateTime ts;
+
+    private Integer total;
+    private Integer advances;   // daily_change > 0
+    private Integer declines;   // daily_change < 0
+    private Integer unchanged;  // daily_change = 0 or missing
+    private Integer missing;    // daily_change missing
+    private Integer above3;     // >= +3%
+    private Integer above5;     // >= +5%
+    private Integer above8;     // >= +8%
+    private Integer below3;     // <= -3%
+    private Integer below5;     // <= -5%
+    private Integer below8;     // <= -8%
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public LocalDateTime getTs() {
+        return ts;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public Integer getAdvances() {
+        return advances;
+    }
+
+    public Integer getDeclines() {
+        return declines;
+    }
+
+    public Integer getUnchanged() {
+        return unchanged;
+    }
+
+    public Integer getMissing() {
+        return missing;
+    }
+
+    public Integer getAbove3() {
+        return above3;
+    }
+
+    public Integer getAbove5() {
+        return above5;
+    }
+
+    public Integer getAbove8() {
+        return above8;
+    }
+
+    public Integer getBelow3() {
+        return below3;
+    }
+
+    public Integer getBelow5() {
+        return below5;
+    }
+
+    public Integer getBelow8() {
+        return below8;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An NSE symbol already present on the "Main" sheet, and the sheet row it was written to.
+ * Lets NseTickerSyncJob diff the exchange list without reading the sheet.
+ */
+@Entity
+@Table(name = "nse_ticker")
+public class NseTicker {
+
+    @Id
+    private String symbol;
+
+    private Integer sheetRow;
+    private LocalDateTime firstSeen;
+
+    public NseTicker() {
+    }
+
+    public NseTicker(String symbol, Integer sheetRow, LocalDateTime firstSeen) {
+        this.symbol = symbol;
+        this.sheetRow = sheetRow;
+        this.firstSeen = firstSeen;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Integer getSheetRow() {
+        return sheetRow;
+    }
+
+    public void setSheetRow(Integer sheetRow) {
+        this.sheetRow = sheetRow;
+    }
+
+    public LocalDateTime getFirstSeen() {
+        return firstSeen;
+    }
+
+    public void setFirstSeen(LocalDateTime firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+}
@@ -113,6 +113,59 @@ public class StockAnalytics {
 
     private LocalDateTime lastUpdated;
 
+    // import_generation.id of the poll that last wrote this row
+    private Long generation;
+
+    // RowFingerprintCache hash of the parsed sheet content, used to skip unchanged rows
+    private Long contentHash;
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(Long generation) {
+        this.generation = generation;
+    }
+
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    // end-of-day fields, written only by the bhavcopy import (BhavcopyWriter), never by sheet saves
+    @Column(insertable = false, updatable = false)
+    private Double openPrice;
+    @Column(insertable = false, updatable = false)
+    private Double highPrice;
+    @Column(insertable = false, updatable = false)
+    private Double lowPrice;
+    @Column(insertable = false, updatable = false)
+    private Double prevClose;
+    @Column(insertable = false, updatable = false)
+    private Long volume;
+
+    public Double getOpenPrice() {
+        return openPrice;
+    }
+
+    public Double getHighPrice() {
+        return highPrice;
+    }
+
+    public Double getLowPrice() {
+        return lowPrice;
+    }
+
+    public Double getPrevClose() {
+        return prevClose;
+    }
+
+    public Long getVolume() {
+        return volume;
+    }
 
 // Getters and Setters
 }
\ No newline at end of file
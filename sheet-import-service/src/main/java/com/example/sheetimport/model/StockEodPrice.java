@@ -0,0 +1,121 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * End-of-day history from the exchange bhavcopy, one row per ticker and trading day.
+ * Written in bulk by BhavcopyWriter; the entity exists so the table is managed with the rest of the schema.
+ */
+@Entity
+@Table(name = "stock_eod_price")
+@IdClass(StockEodPrice.Key.class)
+public class StockEodPrice {
+
+    @Id
+    private String ticker;
+
+    @Id
+    private LocalDate tradeDate;
+
+    private String series;
+    private Double openPrice;
+    private Double highPrice;
+    private Double lowPrice;
+    private Double closePrice;
+    private Double lastPrice;
+    private Double prevClose;
+    private Long volume;
+    private Double turnover;
+    private Long trades;
+    private String isin;
+
+    // import_generation.id of the bhavcopy import that wrote this row
+    private Long generation;
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public String getSeries() {
+        return series;
+    }
+
+    public Double getOpenPrice() {
+        return openPrice;
+    }
+
+    public Double getHighPrice() {
+        return highPrice;
+    }
+
+    public Double getLowPrice() {
+        return lowPrice;
+    }
+
+    public Double getClosePrice() {
+        return closePrice;
+    }
+
+    public Double getLastPrice() {
+        return lastPrice;
+    }
+
+    public Double getPrevClose() {
+        return prevClose;
+    }
+
+    public Long getVolume() {
+        return volume;
+    }
+
+    public Double getTurnover() {
+        return turnover;
+    }
+
+    public Long getTrades() {
+        return trades;
+    }
+
+    public String getIsin() {
+        return isin;
+    }
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String ticker;
+        private LocalDate tradeDate;
+
+        public Key() {
+        }
+
+        public Key(String ticker, LocalDate tradeDate) {
+            this.ticker = ticker;
+            this.tradeDate = tradeDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(ticker, other.ticker) && Objects.equals(tradeDate, other.tradeDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ticker, tradeDate);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sheetimport.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Where a source stopped, keyed by source name: the HTTP cache validators of the last successfully processed
+ * download, or for the file source the modification time (lastModified, ISO-8601) and path (etag) of the last
+ * imported snapshot.
+ */
+@Entity
+@Table(name = "sync_state")
+public class SyncState {
+
+    @Id
+    private String name;
+
+    private String etag;
+    private String lastModified;
+    private LocalDateTime updatedAt;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
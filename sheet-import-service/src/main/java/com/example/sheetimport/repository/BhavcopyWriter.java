@@ -0,0 +1,133 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.BhavcopyRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk write path for bhavcopy records: one JDBC batch into stock_eod_price and one into stock_analytics
+ * per chunk. Only the end-of-day columns of stock_analytics are touched; sheet-derived columns
+ * (ranks, market cap, name of known tickers) are left as they are.
+ * <p>
+ * Runs in the caller's transaction, so a whole file is published together with its generation.
+ */
+@Repository
+public class BhavcopyWriter {
+
+    public static final String TICKER_PREFIX = "NSE:";
+
+    private static final String HISTORY_UPSERT_SQL =
+            "INSERT INTO stock_eod_price (ticker, trade_date, series, open_price, high_price, low_price, " +
+            "close_price, last_price, prev_close, volume, turnover, trades, isin, generation) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ticker, trade_date) DO UPDATE SET " +
+            "series = EXCLUDED.series, open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, " +
+            "low_price = EXCLUDED.low_price, close_price = EXCLUDED.close_price, last_price = EXCLUDED.last_price, " +
+            "prev_close = EXCLUDED.prev_close, volume = EXCLUDED.volume, turnover = EXCLUDED.turnover, " +
+            "trades = EXCLUDED.trades, isin = EXCLUDED.isin, generation = EXCLUDED.generation";
+
+    // new tickers get the symbol as a placeholder name; existing names are kept
+    private static final String ANALYTICS_UPSERT_SQL =
+            "INSERT INTO stock_analytics (ticker, name, cmp, daily_change, open_price, high_price, low_price, " +
+            "prev_close, volume, last_updated, generation) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ticker) DO UPDATE SET " +
+            "cmp = EXCLUDED.cmp, daily_change = EXCLUDED.daily_change, open_price = EXCLUDED.open_price, " +
+            "high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, prev_close = EXCLUDED.prev_close, " +
+            "volume = EXCLUDED.volume, last_updated = EXCLUDED.last_updated, generation = EXCLUDED.generation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer batchTimer;
+
+    public BhavcopyWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTimer = Timer.builder("sheet_import.bhavcopy.write.batch")
+                .description("Time spent writing one chunk of bhavcopy records (history + stock_analytics)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Symbols must be unique within the chunk (Postgres rejects touching a row twice in one statement).
+     */
+    public void writeChunk(List<BhavcopyRecord> chunk, long generation, LocalDateTime now) {
+        long start = System.nanoTime();
+        jdbcTemplate.batchUpdate(HISTORY_UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BhavcopyRecord r = chunk.get(i);
+                ps.setString(1, TICKER_PREFIX + r.symbol());
+                ps.setDate(2, Date.valueOf(r.tradeDate()));
+                ps.setString(3, r.series());
+                setDouble(ps, 4, r.open());
+                setDouble(ps, 5, r.high());
+                setDouble(ps, 6, r.low());
+                setDouble(ps, 7, r.close());
+                setDouble(ps, 8, r.last());
+                setDouble(ps, 9, r.prevClose());
+                setCount(ps, 10, r.volume());
+                setDouble(ps, 11, r.turnover());
+                setCount(ps, 12, r.trades());
+                ps.setString(13, r.isin().isEmpty() ? null : r.isin());
+                ps.setLong(14, generation);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+
+        Timestamp updated = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(ANALYTICS_UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BhavcopyRecord r = chunk.get(i);
+                ps.setString(1, TICKER_PREFIX + r.symbol());
+                ps.setString(2, r.symbol());
+                setDouble(ps, 3, r.close());
+                setDouble(ps, 4, r.changePercent());
+                setDouble(ps, 5, r.open());
+                setDouble(ps, 6, r.high());
+                setDouble(ps, 7, r.low());
+                setDouble(ps, 8, r.prevClose());
+                setCount(ps, 9, r.volume());
+                ps.setTimestamp(10, updated);
+                ps.setLong(11, generation);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static void setCount(PreparedStatement ps, int index, long value) throws SQLException {
+        if (value < 0) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
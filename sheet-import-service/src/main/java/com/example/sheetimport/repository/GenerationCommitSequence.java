@@ -0,0 +1,53 @@
+package com.example.sheetimport.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Hands out import_generation.commit_seq in commit order. {@link #next()} takes a transaction-scoped advisory
+ * lock, so committers queue on it and each one reads the sequence only after the previous holder has committed;
+ * the lock is held for the tail of the import transaction only (commit marker and breadth point), not while rows
+ * are written.
+ */
+@Repository
+public class GenerationCommitSequence {
+
+    // any constant shared by all replicas
+    private static final long LOCK_KEY = 0x696d706f7274L; // "import"
+
+    private static final String NEXT_SQL = "SELECT coalesce(max(commit_seq), 0) + 1 FROM import_generation";
+
+    // generations committed before commit_seq existed keep their id, which is then the best ordering there is
+    private static final String BACKFILL_SQL =
+            "UPDATE import_generation SET commit_seq = id WHERE commit_seq IS NULL AND committed_at IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM import_generation WHERE commit_seq IS NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenerationCommitSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            int updated = jdbcTemplate.update(BACKFILL_SQL);
+            if (updated > 0) System.out.println("Backfilled commit_seq of " + updated + " import generations");
+        } catch (DataAccessException e) {
+            // another replica backfilling concurrently
+            System.out.println("Could not backfill import_generation.commit_seq: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Must be called inside the transaction that commits the generation; the returned value is reserved
+     * until that transaction ends.
+     */
+    public long next() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+        Long next = jdbcTemplate.queryForObject(NEXT_SQL, Long.class);
+        return next != null ? next : 1;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.ImportGeneration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportGenerationRepository extends JpaRepository<ImportGeneration, Long> {
+}
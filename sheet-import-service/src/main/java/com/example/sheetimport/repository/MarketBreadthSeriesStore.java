@@ -0,0 +1,48 @@
+package com.example.sheetimport.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Appends one market_breadth_series point per committed generation, aggregated by the database in a
+ * single INSERT ... SELECT over stock_analytics. Called inside the import transaction, so the point
+ * describes exactly the rows that generation publishes.
+ */
+@Repository
+public class MarketBreadthSeriesStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO market_breadth_series (generation, ts, total, advances, declines, unchanged, missing, " +
+            "above3, above5, above8, below3, below5, below8) " +
+            "SELECT ?, ?, count(*), " +
+            "count(*) FILTER (WHERE daily_change > 0), " +
+            "count(*) FILTER (WHERE daily_change < 0), " +
+            "count(*) FILTER (WHERE daily_change = 0 OR daily_change IS NULL), " +
+            "count(*) FILTER (WHERE daily_change IS NULL), " +
+            "count(*) FILTER (WHERE daily_change >= 3), " +
+            "count(*) FILTER (WHERE daily_change >= 5), " +
+            "count(*) FILTER (WHERE daily_change >= 8), " +
+            "count(*) FILTER (WHERE daily_change <= -3), " +
+            "count(*) FILTER (WHERE daily_change <= -5), " +
+            "count(*) FILTER (WHERE daily_change <= -8) " +
+            "FROM stock_analytics " +
+            "ON CONFLICT (generation) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${sheet-import.breadth.enabled:true}")
+    private boolean enabled;
+
+    public MarketBreadthSeriesStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(long generation, LocalDateTime committedAt) {
+        if (!enabled) return;
+        jdbcTemplate.update(INSERT_SQL, generation, Timestamp.valueOf(committedAt));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.NseTicker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface NseTickerRepository extends JpaRepository<NseTicker, String> {
+
+    @Query("select t.symbol from NseTicker t")
+    List<String> findAllSymbols();
+
+    @Query("select max(t.sheetRow) from NseTicker t")
+    Integer findMaxSheetRow();
+}
@@ -0,0 +1,138 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.StockAnalytics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk write path for stock_analytics.
+ * Rows are sent in JDBC batches of a single INSERT ... ON CONFLICT (ticker) DO UPDATE,
+ * so one poll costs a handful of round trips instead of a select + insert/update per ticker.
+ */
+@Repository
+public class StockAnalyticsBatchWriter {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO stock_analytics (ticker, name, cmp, daily_change, cmp365, rank1year, rank1month, " +
+            "rank2month, rank1week, market_cap, last_updated, generation, content_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ticker) DO UPDATE SET " +
+            "name = EXCLUDED.name, cmp = EXCLUDED.cmp, daily_change = EXCLUDED.daily_change, " +
+            "cmp365 = EXCLUDED.cmp365, rank1year = EXCLUDED.rank1year, rank1month = EXCLUDED.rank1month, " +
+            "rank2month = EXCLUDED.rank2month, rank1week = EXCLUDED.rank1week, " +
+            "market_cap = EXCLUDED.market_cap, last_updated = EXCLUDED.last_updated, " +
+            "generation = EXCLUDED.generation, content_hash = EXCLUDED.content_hash";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer batchTimer;
+
+    @Value("${sheet-import.batch-size:500}")
+    private int batchSize;
+
+    public StockAnalyticsBatchWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTimer = Timer.builder("sheet_import.write.batch")
+                .description("Time spent writing one JDBC upsert batch into stock_analytics")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Upserts all rows in one transaction, {@code sheet-import.batch-size} rows per JDBC batch.
+     * Tickers must be unique within the list (Postgres rejects touching a row twice in one statement).
+     */
+    @Transactional
+    public WriteStats upsertAll(List<StockAnalytics> rows) {
+        int size = Math.max(1, batchSize);
+        int batches = 0;
+        long maxBatchNanos = 0;
+        long start = System.nanoTime();
+
+        for (int from = 0; from < rows.size(); from += size) {
+            List<StockAnalytics> chunk = rows.subList(from, Math.min(from + size, rows.size()));
+            long batchStart = System.nanoTime();
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new UpsertSetter(chunk));
+            long batchNanos = System.nanoTime() - batchStart;
+
+            batchTimer.record(batchNanos, TimeUnit.NANOSECONDS);
+            maxBatchNanos = Math.max(maxBatchNanos, batchNanos);
+            batches++;
+        }
+
+        return new WriteStats(rows.size(), batches, System.nanoTime() - start, maxBatchNanos);
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static final class UpsertSetter implements BatchPreparedStatementSetter {
+
+        private final List<StockAnalytics> chunk;
+
+        private UpsertSetter(List<StockAnalytics> chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            StockAnalytics s = chunk.get(i);
+            ps.setString(1, s.getTicker());
+            ps.setString(2, s.getName());
+            setDouble(ps, 3, s.getCmp());
+            setDouble(ps, 4, s.getDailyChange());
+            setDouble(ps, 5, s.getCmp365());
+            setDouble(ps, 6, s.getRank1Year());
+            setDouble(ps, 7, s.getRank1Month());
+            setDouble(ps, 8, s.getRank2Month());
+            setDouble(ps, 9, s.getRank1Week());
+            setDouble(ps, 10, s.getMarketCap());
+            ps.setTimestamp(11, s.getLastUpdated() != null ? Timestamp.valueOf(s.getLastUpdated()) : null);
+            if (s.getGeneration() == null) {
+                ps.setNull(12, Types.BIGINT);
+            } else {
+                ps.setLong(12, s.getGeneration());
+            }
+            if (s.getContentHash() == null) {
+                ps.setNull(13, Types.BIGINT);
+            } else {
+                ps.setLong(13, s.getContentHash());
+            }
+        }
+
+        @Override
+        public int getBatchSize() {
+            return chunk.size();
+        }
+    }
+
+    public record WriteStats(int rows, int batches, long totalNanos, long maxBatchNanos) {
+
+        public double rowsPerSecond() {
+            return totalNanos == 0 ? 0 : rows * 1_000_000_000.0 / totalNanos;
+        }
+
+        public double avgBatchMillis() {
+            return batches == 0 ? 0 : totalNanos / 1_000_000.0 / batches;
+        }
+
+        public double maxBatchMillis() {
+            return maxBatchNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.StockAnalytics;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Staging load for stock_analytics: COPY the poll into a session-private temp table,
+ * then publish it with one INSERT ... SELECT ... ON CONFLICT statement.
+ * <p>
+ * The publish runs in the caller's transaction, so the whole generation becomes visible
+ * at commit. Readers keep seeing the previous generation until then and are never blocked
+ * (MVCC row versions, no ACCESS EXCLUSIVE lock as a table rename would need).
+ */
+@Repository
+public class StockAnalyticsStagingLoader {
+
+    private static final String COLUMNS =
+            "ticker, name, cmp, daily_change, cmp365, rank1year, rank1month, rank2month, rank1week, " +
+            "market_cap, last_updated, generation, content_hash";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS stock_analytics_staging " +
+            "(LIKE stock_analytics INCLUDING DEFAULTS) ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+            "COPY stock_analytics_staging (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String PUBLISH_SQL =
+            "INSERT INTO stock_analytics (" + COLUMNS + ") " +
+            "SELECT " + COLUMNS + " FROM stock_analytics_staging " +
+            "ON CONFLICT (ticker) DO UPDATE SET " +
+            "name = EXCLUDED.name, cmp = EXCLUDED.cmp, daily_change = EXCLUDED.daily_change, " +
+            "cmp365 = EXCLUDED.cmp365, rank1year = EXCLUDED.rank1year, rank1month = EXCLUDED.rank1month, " +
+            "rank2month = EXCLUDED.rank2month, rank1week = EXCLUDED.rank1week, " +
+            "market_cap = EXCLUDED.market_cap, last_updated = EXCLUDED.last_updated, " +
+            "generation = EXCLUDED.generation, content_hash = EXCLUDED.content_hash";
+
+    // rows encoded per writeToCopy call
+    private static final int COPY_CHUNK_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public StockAnalyticsStagingLoader(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Loads and publishes {@code rows}; must join the transaction that also commits the generation.
+     *
+     * @return number of rows published
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int loadAndPublish(List<StockAnalytics> rows) throws SQLException {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        copyIn(rows);
+        return jdbcTemplate.update(PUBLISH_SQL);
+    }
+
+    private void copyIn(List<StockAnalytics> rows) throws SQLException {
+        // same physical connection the surrounding transaction is bound to
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder sb = new StringBuilder(COPY_CHUNK_ROWS * 128);
+            for (int i = 0; i < rows.size(); i++) {
+                appendCsvRow(sb, rows.get(i));
+                if ((i + 1) % COPY_CHUNK_ROWS == 0) {
+                    flush(copy, sb);
+                }
+            }
+            flush(copy, sb);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copy, StringBuilder sb) throws SQLException {
+        if (sb.length() == 0) return;
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        sb.setLength(0);
+    }
+
+    private static void appendCsvRow(StringBuilder sb, StockAnalytics s) {
+        appendText(sb, s.getTicker());
+        sb.append(',');
+        appendText(sb, s.getName());
+        sb.append(',');
+        appendValue(sb, s.getCmp());
+        sb.append(',');
+        appendValue(sb, s.getDailyChange());
+        sb.append(',');
+        appendValue(sb, s.getCmp365());
+        sb.append(',');
+        appendValue(sb, s.getRank1Year());
+        sb.append(',');
+        appendValue(sb, s.getRank1Month());
+        sb.append(',');
+        appendValue(sb, s.getRank2Month());
+        sb.append(',');
+        appendValue(sb, s.getRank1Week());
+        sb.append(',');
+        appendValue(sb, s.getMarketCap());
+        sb.append(',');
+        appendValue(sb, s.getLastUpdated());
+        sb.append(',');
+        appendValue(sb, s.getGeneration());
+        sb.append(',');
+        appendValue(sb, s.getContentHash());
+        sb.append('\n');
+    }
+
+    // unquoted empty field = NULL in COPY csv format
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value != null) {
+            sb.append(value);
+        }
+    }
+
+    // quoted so an empty name stays '' rather than NULL
+    private static void appendText(StringBuilder sb, String value) {
+        if (value == null) return;
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
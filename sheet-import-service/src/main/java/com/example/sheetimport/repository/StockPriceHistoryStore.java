@@ -0,0 +1,151 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.StockAnalytics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only history of stock_analytics values: every changed row of every generation,
+ * in stock_price_history range-partitioned by day on ts.
+ * <p>
+ * The primary key (ticker, ts) is the only index, so a per-ticker date range read is an index range scan
+ * on the partitions of that range. Hibernate cannot declare partitioned tables, so the parent table and
+ * the daily partitions are created here; partitions are made ahead of time and on demand, outside the
+ * import transaction (creating a partition locks the parent).
+ */
+@Repository
+public class StockPriceHistoryStore {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String CREATE_PARENT_SQL =
+            "CREATE TABLE IF NOT EXISTS stock_price_history (" +
+            "ticker varchar(255) NOT NULL, ts timestamp(6) NOT NULL, generation bigint NOT NULL, " +
+            "cmp double precision, daily_change double precision, rank1week double precision, " +
+            "rank1month double precision, rank2month double precision, rank1year double precision, " +
+            "market_cap double precision, " +
+            "PRIMARY KEY (ticker, ts)) PARTITION BY RANGE (ts)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_price_history (ticker, ts, generation, cmp, daily_change, rank1week, rank1month, " +
+            "rank2month, rank1year, market_cap) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ticker, ts) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<LocalDate> partitions = ConcurrentHashMap.newKeySet();
+
+    @Value("${sheet-import.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sheet-import.history.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    @Value("${sheet-import.batch-size:500}")
+    private int batchSize;
+
+    public StockPriceHistoryStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void createTable() {
+        if (!enabled) return;
+        jdbcTemplate.execute(CREATE_PARENT_SQL);
+        createUpcomingPartitions();
+    }
+
+    // a little after midnight, so the day's first poll never waits on DDL
+    @Scheduled(cron = "${sheet-import.history.partition-cron:0 5 0 * * *}")
+    public void createUpcomingPartitions() {
+        if (!enabled) return;
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            try {
+                ensurePartition(today.plusDays(i));
+            } catch (DataAccessException e) {
+                // another replica creating the same partition concurrently; retried on demand
+                System.out.println("Could not create history partition for " + today.plusDays(i) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void ensurePartition(LocalDate day) {
+        if (partitions.contains(day)) return;
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_price_history_" + PARTITION_SUFFIX.format(day) +
+                " PARTITION OF stock_price_history FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        partitions.add(day);
+    }
+
+    /**
+     * Makes sure the partitions for the rows' timestamps exist. Call before the write transaction.
+     */
+    public void preparePartitions(List<StockAnalytics> rows) {
+        LocalDate last = null;
+        for (StockAnalytics row : rows) {
+            LocalDate day = row.getLastUpdated().toLocalDate();
+            if (!day.equals(last)) {
+                ensurePartition(day);
+                last = day;
+            }
+        }
+    }
+
+    /**
+     * Appends one history row per entry, at the row's lastUpdated; runs in the caller's transaction.
+     */
+    public void append(List<StockAnalytics> rows) {
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < rows.size(); from += size) {
+            List<StockAnalytics> chunk = rows.subList(from, Math.min(from + size, rows.size()));
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    StockAnalytics s = chunk.get(i);
+                    ps.setString(1, s.getTicker());
+                    ps.setTimestamp(2, Timestamp.valueOf(s.getLastUpdated()));
+                    ps.setLong(3, s.getGeneration());
+                    setDouble(ps, 4, s.getCmp());
+                    setDouble(ps, 5, s.getDailyChange());
+                    setDouble(ps, 6, s.getRank1Week());
+                    setDouble(ps, 7, s.getRank1Month());
+                    setDouble(ps, 8, s.getRank2Month());
+                    setDouble(ps, 9, s.getRank1Year());
+                    setDouble(ps, 10, s.getMarketCap());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            });
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
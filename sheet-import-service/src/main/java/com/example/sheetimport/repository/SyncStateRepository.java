@@ -0,0 +1,7 @@
+package com.example.sheetimport.repository;
+
+import com.example.sheetimport.model.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+}
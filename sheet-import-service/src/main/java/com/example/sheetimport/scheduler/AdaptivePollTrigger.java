@@ -0,0 +1,137 @@
+package com.example.sheetimport.scheduler;
+
+import com.example.sheetimport.service.MarketCalendar;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedule for SheetPollingJob ({@code sheet-import.poll.mode}):
+ * <ul>
+ *   <li>{@code adaptive} - polls every {@code session-interval} while the market is open, doubling the
+ *       interval after each poll without changes up to {@code max-interval}; after the close, one more poll
+ *       {@code post-close-delay} later for settled closing prices, then nothing until the next session.</li>
+ *   <li>{@code fixed} - every {@code fixed-interval}, around the clock (e.g. to replay file snapshots).</li>
+ * </ul>
+ * Metrics: {@code sheet_import.poll.interval} (seconds until the next poll), {@code sheet_import.poll.unchanged_streak},
+ * and {@code sheet_import.poll.skipped} - polls not run compared to one every session-interval, tagged by reason.
+ */
+@Component
+public class AdaptivePollTrigger implements Trigger {
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 10;
+
+    private final MarketCalendar calendar;
+    private final AtomicInteger unchangedStreak = new AtomicInteger();
+    private final AtomicLong intervalSeconds = new AtomicLong();
+    private final Counter skippedBackoff;
+    private final Counter skippedClosed;
+
+    @Value("${sheet-import.poll.mode:adaptive}")
+    private String mode;
+
+    @Value("${sheet-import.poll.session-interval:PT1M}")
+    private Duration sessionInterval;
+
+    @Value("${sheet-import.poll.max-interval:PT10M}")
+    private Duration maxInterval;
+
+    @Value("${sheet-import.poll.post-close-delay:PT20M}")
+    private Duration postCloseDelay;
+
+    @Value("${sheet-import.poll.fixed-interval:PT5M}")
+    private Duration fixedInterval;
+
+    public AdaptivePollTrigger(MarketCalendar calendar, MeterRegistry meterRegistry) {
+        this.calendar = calendar;
+        Gauge.builder("sheet_import.poll.interval", intervalSeconds, AtomicLong::get)
+                .description("Seconds between the last and the next scheduled sheet poll")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("sheet_import.poll.unchanged_streak", unchangedStreak, AtomicInteger::get)
+                .description("Consecutive polls without changed rows")
+                .register(meterRegistry);
+        this.skippedBackoff = skippedCounter(meterRegistry, "backoff");
+        this.skippedClosed = skippedCounter(meterRegistry, "market-closed");
+    }
+
+    /**
+     * Feeds the backoff; call after every successful poll.
+     */
+    public void recordPoll(boolean changed) {
+        if (changed) {
+            unchangedStreak.set(0);
+        } else {
+            unchangedStreak.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext context) {
+        Instant now = context.getClock().instant();
+        Instant last = context.lastActualExecution();
+        Instant next = last == null ? now : next(last, now);
+        intervalSeconds.set(Duration.between(last != null ? last : now, next).toSeconds());
+        return next;
+    }
+
+    private Instant next(Instant last, Instant now) {
+        if ("fixed".equalsIgnoreCase(mode)) {
+            return last.plus(fixedInterval);
+        }
+
+        if (calendar.isOpen(now)) {
+            Duration interval = backoffInterval();
+            Instant next = last.plus(interval);
+            // don't sleep through the close: the post-close poll takes over from there
+            Instant close = calendar.lastSessionClose(now);
+            if (close != null && next.isAfter(close)) {
+                next = close.plus(postCloseDelay);
+            }
+            countSkipped(skippedBackoff, Duration.between(last, next));
+            return next;
+        }
+
+        Instant close = calendar.lastSessionClose(now);
+        if (close != null && last.isBefore(close.plus(postCloseDelay)) && now.isBefore(close.plus(postCloseDelay).plus(maxInterval))) {
+            // session just ended and closing prices have not been polled yet
+            Instant postClose = close.plus(postCloseDelay);
+            return postClose.isAfter(now) ? postClose : now;
+        }
+
+        Instant open = calendar.nextSessionOpen(now);
+        Instant next = open != null ? open : now.plus(maxInterval);
+        unchangedStreak.set(0);
+        countSkipped(skippedClosed, Duration.between(last, next));
+        return next;
+    }
+
+    private Duration backoffInterval() {
+        int doublings = Math.min(unchangedStreak.get(), MAX_BACKOFF_DOUBLINGS);
+        Duration interval = sessionInterval.multipliedBy(1L << doublings);
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    private void countSkipped(Counter counter, Duration gap) {
+        long skipped = gap.toMillis() / Math.max(1, sessionInterval.toMillis()) - 1;
+        if (skipped > 0) {
+            counter.increment(skipped);
+        }
+    }
+
+    private static Counter skippedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("sheet_import.poll.skipped")
+                .description("Sheet polls not run compared to polling every session-interval")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.sheetimport.scheduler;
+
+import com.example.sheetimport.model.BhavcopyRecord;
+import com.example.sheetimport.model.ImportGeneration;
+import com.example.sheetimport.repository.BhavcopyWriter;
+import com.example.sheetimport.service.BhavcopyParser;
+import com.example.sheetimport.service.JobLeaseService;
+import com.example.sheetimport.service.StockImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports NSE end-of-day bhavcopy files (zip or CSV) dropped into {@code sheet-import.bhavcopy.dir}.
+ * <p>
+ * Each file is streamed through {@link BhavcopyParser} and written in chunks of
+ * {@code sheet-import.bhavcopy.chunk-size} records into stock_eod_price and stock_analytics, all in one
+ * transaction with its own import generation. Imported files are moved to a {@code processed}
+ * subdirectory. {@link #importFile(Path)} can be called directly on a fixture file.
+ */
+@Component
+public class BhavcopyImportJob {
+
+    private static final String SOURCE = "bhavcopy";
+
+    private final BhavcopyWriter writer;
+    private final StockImportService importService;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobRunner jobRunner;
+    private final JobLeaseService leaseService;
+
+    @Value("${sheet-import.bhavcopy.dir:./bhavcopy}")
+    private String directory;
+
+    // comma separated; empty imports every series
+    @Value("${sheet-import.bhavcopy.series:EQ,BE}")
+    private String series;
+
+    @Value("${sheet-import.bhavcopy.chunk-size:1000}")
+    private int chunkSize;
+
+    public BhavcopyImportJob(BhavcopyWriter writer,
+                             StockImportService importService,
+                             TransactionTemplate transactionTemplate,
+                             ClusterJobRunner jobRunner,
+                             JobLeaseService leaseService) {
+        this.writer = writer;
+        this.importService = importService;
+        this.transactionTemplate = transactionTemplate;
+        this.jobRunner = jobRunner;
+        this.leaseService = leaseService;
+    }
+
+    // disabled by default ("-"); e.g. "0 30 18 * * MON-FRI" after NSE publishes the day's file
+    @Scheduled(cron = "${sheet-import.bhavcopy.cron:-}")
+    public void importPending() {
+        try {
+            jobRunner.runExclusively("bhavcopy-import", this::importPending);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void importPending(JobLeaseService.Lease lease) throws IOException {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> listing = Files.list(dir)) {
+            List<Path> files = listing
+                    .filter(Files::isRegularFile)
+                    .filter(BhavcopyImportJob::isBhavcopyFile)
+                    .sorted()
+                    .toList();
+            Path processed = dir.resolve("processed");
+            for (Path file : files) {
+                BhavcopyImportResult result = importFile(file, lease);
+                System.out.println("Imported bhavcopy " + result.summary());
+                Files.createDirectories(processed);
+                Files.move(file, processed.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    public BhavcopyImportResult importFile(Path file) {
+        return importFile(file, null);
+    }
+
+    /**
+     * @param lease verified before commit (null: no fencing)
+     */
+    public synchronized BhavcopyImportResult importFile(Path file, JobLeaseService.Lease lease) {
+        long start = System.nanoTime();
+        Set<String> keep = seriesFilter();
+        ImportGeneration generation = importService.openGeneration(SOURCE, "batch");
+        long generationId = generation.getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        return transactionTemplate.execute(status -> {
+            int size = Math.max(1, chunkSize);
+            List<BhavcopyRecord> chunk = new ArrayList<>(size);
+            Set<String> seen = new HashSet<>();
+            LocalDate[] tradeDate = new LocalDate[1];
+            int[] written = new int[1];
+
+            int parsed;
+            try {
+                parsed = BhavcopyParser.parse(file, keep, record -> {
+                    // a symbol listed under two kept series: first one wins
+                    if (!seen.add(record.symbol())) return;
+                    tradeDate[0] = record.tradeDate();
+                    chunk.add(record);
+                    if (chunk.size() == size) {
+                        writer.writeChunk(chunk, generationId, now);
+                        written[0] += chunk.size();
+                        chunk.clear();
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read bhavcopy " + file, e);
+            }
+            if (!chunk.isEmpty()) {
+                writer.writeChunk(chunk, generationId, now);
+                written[0] += chunk.size();
+            }
+
+            leaseService.verify(lease);
+            importService.commitGeneration(generation, parsed, written[0]);
+            return new BhavcopyImportResult(file.getFileName().toString(), tradeDate[0], generationId,
+                    parsed, written[0], System.nanoTime() - start);
+        });
+    }
+
+    private Set<String> seriesFilter() {
+        return Arrays.stream(series.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isBhavcopyFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".csv");
+    }
+
+    public record BhavcopyImportResult(String file,
+                                       LocalDate tradeDate,
+                                       long generation,
+                                       int records,
+                                       int written,
+                                       long totalNanos) {
+
+        public String summary() {
+            return String.format("%s (%s): generation %d, %d records, %d written in %.1f ms",
+                    file, tradeDate, generation, records, written, totalNanos / 1_000_000.0);
+        }
+    }
+}
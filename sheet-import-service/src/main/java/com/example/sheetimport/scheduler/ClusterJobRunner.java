@@ -0,0 +1,89 @@
+package com.example.sheetimport.scheduler;
+
+import com.example.sheetimport.service.JobLeaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a scheduled job body only on the replica holding the job's lease ({@link JobLeaseService}).
+ * <p>
+ * Metrics, tagged by job: {@code job_lease.wait} (time to take or renew the lease, tagged outcome=acquired|held-elsewhere),
+ * {@code job_lease.hold} (time the job ran under the lease), {@code job_lease.skipped} (ticks left to another replica)
+ * and {@code job_lease.leader} (1 while this replica holds the lease).
+ */
+@Component
+public class ClusterJobRunner {
+
+    private final JobLeaseService leaseService;
+    private final MeterRegistry meterRegistry;
+
+    // false: single replica, every tick runs without touching job_lease
+    @Value("${sheet-import.lease.enabled:true}")
+    private boolean enabled;
+
+    public ClusterJobRunner(JobLeaseService leaseService, MeterRegistry meterRegistry) {
+        this.leaseService = leaseService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param task receives the lease (null when leases are disabled) for fencing its writes
+     * @return false when another replica holds the lease and the task was skipped
+     */
+    public boolean runExclusively(String job, LeasedTask task) throws Exception {
+        if (!enabled) {
+            task.run(null);
+            return true;
+        }
+        registerLeaderGauge(job);
+
+        long waitStart = System.nanoTime();
+        JobLeaseService.Lease lease = leaseService.tryAcquire(job);
+        Timer.builder("job_lease.wait")
+                .description("Time to take or renew a job lease")
+                .tag("job", job)
+                .tag("outcome", lease != null ? "acquired" : "held-elsewhere")
+                .register(meterRegistry)
+                .record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+
+        if (lease == null) {
+            Counter.builder("job_lease.skipped")
+                    .description("Job ticks skipped because another replica holds the lease")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .increment();
+            return false;
+        }
+
+        long holdStart = System.nanoTime();
+        try {
+            task.run(lease);
+        } finally {
+            Timer.builder("job_lease.hold")
+                    .description("Time a job ran while holding its lease")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - holdStart, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    private void registerLeaderGauge(String job) {
+        // registering is idempotent: the registry returns the existing gauge for the same name and tags
+        Gauge.builder("job_lease.leader", leaseService, s -> s.isHeld(job) ? 1 : 0)
+                .description("1 while this replica holds the job's lease")
+                .tag("job", job)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface LeasedTask {
+        void run(JobLeaseService.Lease lease) throws Exception;
+    }
+}
@@ -6,9 +6,13 @@ package com.example.sheetimport.scheduler;
 // Step 5: Add scheduled job to sync latest NSE tickers to Google Sheet
 
 
+import com.example.sheetimport.model.NseTicker;
+import com.example.sheetimport.model.SyncState;
+import com.example.sheetimport.repository.NseTickerRepository;
+import com.example.sheetimport.repository.SyncStateRepository;
+import com.example.sheetimport.service.CsvTokenizer;
 import com.example.sheetimport.service.GoogleSheetService;
-import com.google.api.services.sheets.v4.Sheets;
-import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -16,21 +20,51 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import com.google.api.services.sheets.v4.model.ValueRange;
-import com.google.api.services.sheets.v4.Sheets;
-import java.util.List;
-
+import java.util.TreeSet;
+
+/**
+ * Appends newly listed NSE equities to the "Main" sheet.
+ * <p>
+ * Incremental: the equity list is fetched with If-None-Match / If-Modified-Since and skipped on 304
+ * (for file: URLs, when the file's modification time is unchanged). The list is streamed through
+ * {@link CsvTokenizer} and diffed against the nse_ticker table, which is seeded from the sheet
+ * only once. New symbols are appended {@code nse.sync.append-chunk-size} rows per call and
+ * recorded after each chunk, so a failed run resumes where it stopped. Rows found on the sheet past
+ * the last recorded row (a chunk appended but not recorded) are recorded before appending, so a
+ * rerun does not append them twice.
+ */
 @Component
 public class NseTickerSyncJob {
 
+    private static final String STATE_NAME = "nse-equity-list";
+
     private final GoogleSheetService sheetService;
+    private final NseTickerRepository tickerRepository;
+    private final SyncStateRepository syncStateRepository;
+    private final ClusterJobRunner jobRunner;
+
+    // a file: URL can stand in for the NSE archive in tests
+    @Value("${nse.equity-list.url:https://nsearchives.nseindia.com/content/equities/EQUITY_L.csv}")
+    private String equityListUrl;
 
-    public NseTickerSyncJob(GoogleSheetService sheetService) {
+    @Value("${nse.sync.append-chunk-size:200}")
+    private int appendChunkSize;
+
+    public NseTickerSyncJob(GoogleSheetService sheetService,
+                            NseTickerRepository tickerRepository,
+                            SyncStateRepository syncStateRepository,
+                            ClusterJobRunner jobRunner) {
         this.sheetService = sheetService;
+        this.tickerRepository = tickerRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.jobRunner = jobRunner;
     }
 
  /*   @PostConstruct
@@ -38,59 +72,126 @@ public class NseTickerSyncJob {
         syncNewNseTickers();  // ✅ Run immediately on app start
     }*/
 
-    //@Scheduled(cron = "0 0 2 * * SUN") // Every Sunday at 2:00 AM
-  //  @Scheduled(cron = "0 * * * * *") // every minute for quick testing
+    // disabled by default ("-"); e.g. "0 0 2 * * SUN" for every Sunday at 2:00 AM
+    @Scheduled(cron = "${nse.sync.cron:-}")
     public void syncNewNseTickers() {
         try {
-            // 1. Download latest NSE ticker list
-            URL url = new URL("https://nsearchives.nseindia.com/content/equities/EQUITY_L.csv");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            String line;
-            Set<String> latestTickers = new HashSet<>();
-
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split(",");
-                if (tokens.length > 1 && !tokens[0].equalsIgnoreCase("SYMBOL")) {
-                    latestTickers.add(tokens[0].trim());
-                }
+            jobRunner.runExclusively("nse-ticker-sync", lease -> sync());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void sync() throws Exception {
+        SyncState state = syncStateRepository.findById(STATE_NAME).orElseGet(() -> {
+            SyncState s = new SyncState();
+            s.setName(STATE_NAME);
+            return s;
+        });
+
+        // 1. Download latest NSE ticker list, unless unchanged since the last run
+        URLConnection connection = new URL(equityListUrl).openConnection();
+        if (connection instanceof HttpURLConnection http) {
+            http.setRequestMethod("GET");
+            http.setRequestProperty("User-Agent", "Mozilla/5.0");
+            if (state.getEtag() != null) http.setRequestProperty("If-None-Match", state.getEtag());
+            if (state.getLastModified() != null) http.setRequestProperty("If-Modified-Since", state.getLastModified());
+            if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                System.out.println("NSE equity list not modified since " + state.getLastModified());
+                return;
             }
-            reader.close();
-
-            // 2. Read current tickers from Google Sheet
-            List<List<Object>> currentRows = sheetService.readSheet("Main!A2:A");
-            Set<String> currentTickers = new HashSet<>();
-            for (List<Object> row : currentRows) {
-                if (!row.isEmpty()) {
-                    currentTickers.add(row.get(0).toString().trim());
-                }
+        } else if (state.getLastModified() != null
+                && state.getLastModified().equals(String.valueOf(connection.getLastModified()))) {
+            System.out.println("NSE equity list file unchanged: " + equityListUrl);
+            return;
+        }
+
+        Set<String> latestTickers = readSymbols(connection);
+
+        // 2. Diff against tickers already on the sheet
+        Set<String> currentTickers = new HashSet<>(tickerRepository.findAllSymbols());
+        Integer maxRow = tickerRepository.findMaxSheetRow();
+        int nextRow = maxRow != null ? maxRow + 1 : 2;
+        // first run: seed from the whole sheet; otherwise pick up rows appended by a run that
+        // failed before recording them
+        int found = recordSheetRows(nextRow, currentTickers);
+        if (maxRow == null) {
+            System.out.println("Seeded " + found + " existing rows from Google Sheet.");
+        } else if (found > 0) {
+            System.out.println("Recorded " + found + " rows appended by an earlier run.");
+        }
+        nextRow += found;
+
+        // 3. Append new tickers in chunks (sorted so reruns are deterministic)
+        TreeSet<String> newTickers = new TreeSet<>(latestTickers);
+        newTickers.removeAll(currentTickers);
+
+        int chunkSize = Math.max(1, appendChunkSize);
+        List<String> pending = new ArrayList<>(newTickers);
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<String> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            List<List<Object>> rows = new ArrayList<>(chunk.size());
+            List<NseTicker> added = new ArrayList<>(chunk.size());
+            LocalDateTime now = LocalDateTime.now();
+            for (String ticker : chunk) {
+                rows.add(buildNewTickerRow(ticker, nextRow));
+                added.add(new NseTicker(ticker, nextRow, now));
+                nextRow++;
             }
+            sheetService.appendRows("Main", rows);
+            tickerRepository.saveAll(added);
+        }
 
-            // 3. Compare and find new tickers
-            List<List<Object>> newTickerRows = new ArrayList<>();
-            for (String ticker : latestTickers) {
-                if (!currentTickers.contains(ticker)) {
-                    List<Object> newRow = new ArrayList<>();
-                    newRow.add(ticker); // Column A
-                    newRow.add("NEW");  // Column B: Placeholder name
-                    int rowIndex = 2 + currentRows.size() + newTickerRows.size();
-                    newTickerRows.add(buildNewTickerRow(ticker, rowIndex));
+        if (!pending.isEmpty()) {
+            System.out.println("Added " + pending.size() + " new NSE tickers to Google Sheet.");
+        } else {
+            System.out.println("No new tickers found to add.");
+        }
+
+        // 4. Remember validators only once everything was appended
+        if (connection instanceof HttpURLConnection) {
+            state.setEtag(connection.getHeaderField("ETag"));
+            state.setLastModified(connection.getHeaderField("Last-Modified"));
+        } else {
+            state.setLastModified(String.valueOf(connection.getLastModified()));
+        }
+        state.setUpdatedAt(LocalDateTime.now());
+        syncStateRepository.save(state);
+    }
+
+    private Set<String> readSymbols(URLConnection connection) throws Exception {
+        Set<String> symbols = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            CsvTokenizer csv = new CsvTokenizer(reader);
+            List<String> record = csv.nextRecord();
+            int symbolColumn = record != null ? Math.max(0, record.indexOf("SYMBOL")) : 0;
+            while ((record = csv.nextRecord()) != null) {
+                if (record.size() > symbolColumn && !record.get(symbolColumn).isEmpty()) {
+                    symbols.add(record.get(symbolColumn));
                 }
             }
+        }
+        return symbols;
+    }
 
-
-            if (!newTickerRows.isEmpty()) {
-                sheetService.appendRows("Main", newTickerRows);
-                System.out.println("Added " + newTickerRows.size() + " new NSE tickers to Google Sheet.");
-            } else {
-                System.out.println("No new tickers found to add.");
+    // Records the sheet's column A ("NSE:SYMBOL") from firstRow down, skipping known symbols;
+    // returns the number of rows read, so the next append lands at firstRow + that count.
+    private int recordSheetRows(int firstRow, Set<String> knownSymbols) throws Exception {
+        List<List<Object>> rows = sheetService.readSheet("Main!A" + firstRow + ":A");
+        List<NseTicker> recorded = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> row = rows.get(i);
+            if (row.isEmpty()) continue;
+            String ticker = row.get(0).toString().trim();
+            String symbol = ticker.startsWith("NSE:") ? ticker.substring(4) : ticker;
+            if (!symbol.isEmpty() && knownSymbols.add(symbol)) {
+                recorded.add(new NseTicker(symbol, firstRow + i, now));
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+        tickerRepository.saveAll(recorded);
+        return rows.size();
     }
 
 
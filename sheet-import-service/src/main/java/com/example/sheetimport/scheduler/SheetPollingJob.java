@@ -2,84 +2,85 @@
 package com.example.sheetimport.scheduler;
 
 import com.example.sheetimport.model.StockAnalytics;
-import com.example.sheetimport.model.StockAnalyticsDto;
-import com.example.sheetimport.repository.StockAnalyticsRepository;
-import com.example.sheetimport.service.GoogleSheetService;
-import org.springframework.scheduling.annotation.Scheduled;
+import com.example.sheetimport.service.JobLeaseService;
+import com.example.sheetimport.service.StockImportService;
+import com.example.sheetimport.source.StockRowSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+/**
+ * Polls the configured row source and imports what changed, on the schedule of {@link AdaptivePollTrigger}.
+ */
 @Component
-public class SheetPollingJob {
+public class SheetPollingJob implements SchedulingConfigurer {
 
-    private final GoogleSheetService sheetService;
-    private final StockAnalyticsRepository repository;
+    private final List<StockRowSource> sources;
+    private final StockImportService importService;
+    private final AdaptivePollTrigger trigger;
+    private final ClusterJobRunner jobRunner;
 
+    // google-sheet | file
+    @Value("${sheet-import.source:google-sheet}")
+    private String sourceName;
 
-    public SheetPollingJob(GoogleSheetService sheetService, StockAnalyticsRepository repository) {
-        this.sheetService = sheetService;
-        this.repository = repository;
+    public SheetPollingJob(List<StockRowSource> sources,
+                           StockImportService importService,
+                           AdaptivePollTrigger trigger,
+                           ClusterJobRunner jobRunner) {
+        this.sources = sources;
+        this.importService = importService;
+        this.trigger = trigger;
+        this.jobRunner = jobRunner;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::pollSheetAndProcess, trigger);
     }
 
-    @Scheduled(fixedRate = 300000) // Every 5 minutes
     public void pollSheetAndProcess() {
         try {
-            List<List<Object>> rows = sheetService.readSheet("Main!A2:M");
-            int importedCount = 0;
-             for (List<Object> row : rows) {
-                if (row.size() >= 10 && isValidRow(row)) {
-                    StockAnalytics entity = new StockAnalytics();
-                    entity.setTicker(row.get(0).toString());
-                    entity.setName(row.get(1).toString());
-                    entity.setCmp(parseDouble(row.get(2)));
-                    entity.setDailyChange(parseDouble(row.get(3)));
-                    entity.setCmp365(parseDouble(row.get(4)));
-                    entity.setRank1Year(parseDouble(row.get(5)));
-                    entity.setRank1Month(parseDouble(row.get(9)));
-                    entity.setRank2Month(parseDouble(row.get(10)));
-                    entity.setRank1Week(parseDouble(row.get(11)));
-                    entity.setMarketCap(parseDouble(row.get(12)));
-                    entity.setLastUpdated(LocalDateTime.now());
-                    repository.save(entity);
-                    importedCount++;
-                }
-            }
-
-            System.out.println("Imported " + importedCount + " valid rows from Google Sheets");
+            jobRunner.runExclusively("sheet-poll", this::poll);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private boolean isValidRow(List<Object> row) {
-        String ticker = row.get(0).toString().trim();
-        String cmp = row.get(2).toString().trim();
+    private void poll(JobLeaseService.Lease lease) throws Exception {
+        StockRowSource source = sources.stream()
+                .filter(s -> s.name().equalsIgnoreCase(sourceName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown sheet-import.source: " + sourceName));
 
-        return !ticker.isEmpty()
-                && !cmp.equalsIgnoreCase("#N/A")
-                && !cmp.isEmpty()
-                && isNumeric(cmp);
-    }
+        List<StockAnalytics> rows = source.readRows(LocalDateTime.now());
+        if (rows == null) {
+            trigger.recordPoll(false);
+            return;
+        }
 
-    private boolean isNumeric(String str) {
-        try {
-            Double.parseDouble(str.replace(",", ""));
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+        // Keyed by ticker: the sheet can list a ticker twice and a batched upsert
+        // may not touch the same row twice in one statement (last row wins, as with save()).
+        Map<String, StockAnalytics> parsed = new LinkedHashMap<>();
+        for (StockAnalytics entity : rows) {
+            parsed.put(entity.getTicker(), entity);
         }
-    }
 
-    private Double parseDouble(Object obj) {
-        try {
-            return obj != null ? Double.parseDouble(obj.toString().replaceAll(",", "")) : null;
-        } catch (NumberFormatException e) {
-            return null;
+        if (lease != null && lease.acquired()) {
+            // another replica may have written since this one last polled
+            importService.forgetFingerprints();
         }
+        StockImportService.ImportResult result =
+                importService.importRows(source.name(), new ArrayList<>(parsed.values()), lease);
+        source.imported();
+        System.out.println("Imported valid rows from " + source.name() + ", " + result.summary());
+        trigger.recordPoll(result.changedRows() > 0);
     }
 }
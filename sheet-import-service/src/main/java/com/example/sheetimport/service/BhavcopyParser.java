@@ -0,0 +1,177 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.BhavcopyRecord;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streaming reader for NSE cash-market bhavcopy files, plain CSV or zipped.
+ * <p>
+ * Columns are located by header name, so both the legacy layout
+ * (SYMBOL, SERIES, OPEN, ..., TIMESTAMP) and the UDiFF layout (TckrSymb, SctySrs, OpnPric, ..., TradDt)
+ * are accepted. Records are handed to the consumer as they are tokenized; the file is never held in memory.
+ */
+public final class BhavcopyParser {
+
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+
+    private static final DateTimeFormatter LEGACY_DATE = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MMM-yyyy")
+            .toFormatter(Locale.ENGLISH);
+
+    private BhavcopyParser() {
+    }
+
+    /**
+     * @param series series to keep (e.g. EQ, BE); empty keeps every series
+     * @return number of records passed to the consumer
+     */
+    public static int parse(Path file, Set<String> series, Consumer<BhavcopyRecord> consumer) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), READ_BUFFER_BYTES)) {
+            return parse(in, series, consumer);
+        }
+    }
+
+    /**
+     * Reads a CSV stream, or the first .csv entry when the stream is a zip archive. Does not close the stream.
+     */
+    public static int parse(InputStream in, Set<String> series, Consumer<BhavcopyRecord> consumer) throws IOException {
+        InputStream source = in.markSupported() ? in : new BufferedInputStream(in, READ_BUFFER_BYTES);
+        if (isZip(source)) {
+            ZipInputStream zip = new ZipInputStream(source);
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                    return parseCsv(new InputStreamReader(zip, StandardCharsets.UTF_8), series, consumer);
+                }
+            }
+            throw new IOException("No CSV entry in bhavcopy archive");
+        }
+        return parseCsv(new InputStreamReader(source, StandardCharsets.UTF_8), series, consumer);
+    }
+
+    private static int parseCsv(Reader reader, Set<String> series, Consumer<BhavcopyRecord> consumer) throws IOException {
+        CsvTokenizer csv = new CsvTokenizer(reader);
+        List<String> header = csv.nextRecord();
+        if (header == null) {
+            return 0;
+        }
+        Columns c = Columns.of(header);
+
+        int count = 0;
+        LocalDate lastDate = null;
+        String lastDateText = null;
+        for (List<String> r = csv.nextRecord(); r != null; r = csv.nextRecord()) {
+            String symbol = field(r, c.symbol);
+            if (symbol.isEmpty()) continue;
+            String seriesCode = field(r, c.series);
+            if (!series.isEmpty() && !series.contains(seriesCode)) continue;
+
+            // every line of a bhavcopy carries the same trade date; parse it once
+            String dateText = field(r, c.tradeDate);
+            if (!dateText.equals(lastDateText)) {
+                lastDate = parseDate(dateText);
+                lastDateText = dateText;
+            }
+
+            consumer.accept(new BhavcopyRecord(
+                    symbol,
+                    seriesCode,
+                    lastDate,
+                    number(r, c.open),
+                    number(r, c.high),
+                    number(r, c.low),
+                    number(r, c.close),
+                    number(r, c.last),
+                    number(r, c.prevClose),
+                    count(r, c.volume),
+                    number(r, c.turnover),
+                    count(r, c.trades),
+                    field(r, c.isin)));
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isZip(InputStream in) throws IOException {
+        in.mark(4);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        return b0 == 'P' && b1 == 'K';
+    }
+
+    private static LocalDate parseDate(String text) throws IOException {
+        try {
+            return text.length() == 10 && text.charAt(4) == '-'
+                    ? LocalDate.parse(text)
+                    : LocalDate.parse(text, LEGACY_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IOException("Unparseable bhavcopy trade date: " + text, e);
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column) : "";
+    }
+
+    private static double number(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? NumericCellParser.parse(record.get(column)) : Double.NaN;
+    }
+
+    private static long count(List<String> record, int column) {
+        double value = number(record, column);
+        return Double.isNaN(value) ? -1 : (long) value;
+    }
+
+    /** Column positions resolved from the header row; -1 when a column is absent. */
+    private record Columns(int symbol, int series, int tradeDate, int open, int high, int low, int close,
+                           int last, int prevClose, int volume, int turnover, int trades, int isin) {
+
+        static Columns of(List<String> header) throws IOException {
+            Columns c = new Columns(
+                    find(header, "SYMBOL", "TckrSymb"),
+                    find(header, "SERIES", "SctySrs"),
+                    find(header, "TIMESTAMP", "TradDt"),
+                    find(header, "OPEN", "OpnPric"),
+                    find(header, "HIGH", "HghPric"),
+                    find(header, "LOW", "LwPric"),
+                    find(header, "CLOSE", "ClsPric"),
+                    find(header, "LAST", "LastPric"),
+                    find(header, "PREVCLOSE", "PrvsClsgPric"),
+                    find(header, "TOTTRDQTY", "TtlTradgVol"),
+                    find(header, "TOTTRDVAL", "TtlTrfVal"),
+                    find(header, "TOTALTRADES", "TtlNbOfTxsExctd"),
+                    find(header, "ISIN", "ISIN"));
+            if (c.symbol < 0 || c.close < 0 || c.tradeDate < 0) {
+                throw new IOException("Not a bhavcopy header: " + header);
+            }
+            return c;
+        }
+
+        private static int find(List<String> header, String legacy, String udiff) {
+            for (int i = 0; i < header.size(); i++) {
+                String name = i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i);
+                if (name.equalsIgnoreCase(legacy) || name.equalsIgnoreCase(udiff)) return i;
+            }
+            return -1;
+        }
+    }
+}
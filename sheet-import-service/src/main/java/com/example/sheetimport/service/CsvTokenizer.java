@@ -0,0 +1,118 @@
+package com.example.sheetimport.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 style tokenizer: reads one record at a time from a {@link Reader}.
+ * <p>
+ * Handles quoted fields with embedded delimiters, doubled quotes and line breaks, and both
+ * LF and CRLF record endings. Unquoted fields are trimmed. Only the current record is held in
+ * memory, so arbitrarily large files stream in constant space.
+ */
+public class CsvTokenizer {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder(64);
+    private int position;
+    private int limit;
+
+    public CsvTokenizer(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    public CsvTokenizer(Reader reader) {
+        this(reader, ',');
+    }
+
+    /**
+     * @return the next record's fields, or null at end of input; blank lines are skipped
+     */
+    public List<String> nextRecord() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        boolean any = false;
+
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                if (!any) return null;
+                record.add(finish(wasQuoted));
+                return record;
+            }
+            any = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    int next = peek();
+                    if (next == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && isBlank(field)) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == delimiter) {
+                record.add(finish(wasQuoted));
+                wasQuoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') read();
+                if (record.isEmpty() && field.length() == 0 && !wasQuoted) {
+                    // blank line
+                    any = false;
+                    continue;
+                }
+                record.add(finish(wasQuoted));
+                return record;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private String finish(boolean wasQuoted) {
+        String value = wasQuoted ? field.toString() : field.toString().trim();
+        field.setLength(0);
+        return value;
+    }
+
+    private static boolean isBlank(StringBuilder sb) {
+        for (int i = 0; i < sb.length(); i++) {
+            if (sb.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return EOF;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return EOF;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -2,63 +2,206 @@
 package com.example.sheetimport.service;
 
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.Sheet;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
 import com.google.api.services.sheets.v4.model.ValueRange;
 import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Google Sheets access for the import jobs.
+ * <p>
+ * One {@link Sheets} client, transport and credential set is built on first use and reused,
+ * so polls keep the HTTP connection / TLS session and the cached OAuth access token.
+ * The token is refreshed {@code google.sheets.token-refresh-margin} before it expires, ahead
+ * of the call that would otherwise block on it.
+ * <p>
+ * Each call records {@code sheets.client.stage} timers for auth (token check/refresh),
+ * connect (request sent until response headers) and read (body download + JSON parse).
+ * <p>
+ * Offline: set {@code google.sheets.root-url} to a local stand-in (e.g. this service's own
+ * {@code sheets-stand-in} profile) and {@code google.sheets.auth=none}.
+ */
 @Service
 public class GoogleSheetService {
 
-    private static final String SPREADSHEET_ID = "18gl-L1GwEmOpopFNKrOwmtbaGWoQy2auG_T3DCrPuBk";
     private static final String APPLICATION_NAME = "Stock Portfolio Tracker";
 
     @Value("${google.sa.credentials-file}")
     private Resource credentialsResource;
 
+    @Value("${google.sheets.spreadsheet-id:18gl-L1GwEmOpopFNKrOwmtbaGWoQy2auG_T3DCrPuBk}")
+    private String spreadsheetId;
 
+    // empty = https://sheets.googleapis.com/
+    @Value("${google.sheets.root-url:}")
+    private String rootUrl;
 
+    // service-account | none
+    @Value("${google.sheets.auth:service-account}")
+    private String authMode;
+
+    @Value("${google.sheets.token-refresh-margin:PT10M}")
+    private Duration tokenRefreshMargin;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile Sheets sheets;
+    private GoogleCredentials credentials;
+
+    public GoogleSheetService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     public List<List<Object>> readSheet(String range) throws Exception {
-        Sheets sheets = getSheetsService();
-        ValueRange response = sheets.spreadsheets().values().get(SPREADSHEET_ID, range).execute();
-        return response.getValues();
+        Sheets client = getSheetsService();
+        authenticate("read");
+        ValueRange response = execute("read", client.spreadsheets().values().get(spreadsheetId, range));
+        return response.getValues() != null ? response.getValues() : Collections.emptyList();
     }
 
-    private Sheets getSheetsService() throws Exception {
-        // Load credentials from the location configured in properties/env
-        try (InputStream inputStream = credentialsResource.getInputStream()) {
-            GoogleCredentials credentials = GoogleCredentials.fromStream(inputStream)
-                    .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
-
-            return new Sheets.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(),
-                    JacksonFactory.getDefaultInstance(),
-                    new HttpCredentialsAdapter(credentials)
-            )
-                    .setApplicationName(APPLICATION_NAME)
-                    .build();
+    /**
+     * Reads several A1 ranges in one batchGet call.
+     *
+     * @return one row list per requested range, in request order (empty when a range has no data)
+     */
+    public List<List<List<Object>>> batchReadSheet(List<String> ranges) throws Exception {
+        Sheets client = getSheetsService();
+        authenticate("batch-read");
+        BatchGetValuesResponse response = execute("batch-read",
+                client.spreadsheets().values().batchGet(spreadsheetId).setRanges(ranges));
+
+        List<List<List<Object>>> result = new ArrayList<>(ranges.size());
+        List<ValueRange> valueRanges = response.getValueRanges();
+        for (int i = 0; i < ranges.size(); i++) {
+            ValueRange vr = valueRanges != null && i < valueRanges.size() ? valueRanges.get(i) : null;
+            result.add(vr != null && vr.getValues() != null ? vr.getValues() : Collections.emptyList());
         }
+        return result;
     }
+
+    /**
+     * @return the grid row count of {@code sheetName} (includes trailing empty rows)
+     */
+    public int getRowCount(String sheetName) throws Exception {
+        Sheets client = getSheetsService();
+        authenticate("metadata");
+        Spreadsheet spreadsheet = execute("metadata", client.spreadsheets().get(spreadsheetId)
+                .setFields("sheets.properties(title,gridProperties.rowCount)"));
+        for (Sheet sheet : spreadsheet.getSheets()) {
+            if (sheetName.equals(sheet.getProperties().getTitle())) {
+                return sheet.getProperties().getGridProperties().getRowCount();
+            }
+        }
+        throw new IllegalArgumentException("Sheet not found: " + sheetName);
+    }
+
     public void appendRows(String sheetName, List<List<Object>> rows) throws Exception {
         Sheets sheets = getSheetsService();
 
         ValueRange body = new ValueRange()
                 .setValues(rows);
 
-        sheets.spreadsheets().values()
-                .append(SPREADSHEET_ID, sheetName, body)
-                .setValueInputOption("RAW") // or "USER_ENTERED" if you want formulas parsed
-                .execute();
+        authenticate("append");
+        Sheets.Spreadsheets.Values.Append request = sheets.spreadsheets().values()
+                .append(spreadsheetId, sheetName, body)
+                .setValueInputOption("RAW"); // or "USER_ENTERED" if you want formulas parsed
+        execute("append", request);
+    }
+
+    private Sheets getSheetsService() throws Exception {
+        Sheets client = sheets;
+        if (client != null) return client;
+
+        synchronized (this) {
+            if (sheets == null) {
+                sheets = buildClient();
+            }
+            return sheets;
+        }
+    }
+
+    private Sheets buildClient() throws Exception {
+        boolean standIn = !rootUrl.isBlank();
+        HttpTransport transport = standIn
+                ? new NetHttpTransport()
+                : GoogleNetHttpTransport.newTrustedTransport();
+
+        HttpRequestInitializer initializer;
+        if ("none".equalsIgnoreCase(authMode)) {
+            initializer = request -> { };
+        } else {
+            // Load credentials from the location configured in properties/env
+            try (InputStream inputStream = credentialsResource.getInputStream()) {
+                credentials = GoogleCredentials.fromStream(inputStream)
+                        .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
+            }
+            initializer = new HttpCredentialsAdapter(credentials);
+        }
+
+        Sheets.Builder builder = new Sheets.Builder(transport, JacksonFactory.getDefaultInstance(), initializer)
+                .setApplicationName(APPLICATION_NAME);
+        if (standIn) {
+            builder.setRootUrl(rootUrl.endsWith("/") ? rootUrl : rootUrl + "/");
+        }
+        return builder.build();
+    }
+
+    // Refreshes the cached token when it is missing or about to expire.
+    private void authenticate(String operation) throws Exception {
+        if (credentials == null) return;
+        long start = System.nanoTime();
+        synchronized (this) {
+            AccessToken token = credentials.getAccessToken();
+            Date expiry = token != null ? token.getExpirationTime() : null;
+            if (token == null || (expiry != null
+                    && expiry.getTime() - System.currentTimeMillis() < tokenRefreshMargin.toMillis())) {
+                credentials.refresh();
+            }
+        }
+        stageTimer("auth", operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> T execute(String operation, AbstractGoogleJsonClientRequest<T> request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse response = request.executeUnparsed();
+        long headersAt = System.nanoTime();
+        stageTimer("connect", operation).record(headersAt - start, TimeUnit.NANOSECONDS);
+
+        T parsed = response.parseAs(request.getResponseClass());
+        stageTimer("read", operation).record(System.nanoTime() - headersAt, TimeUnit.NANOSECONDS);
+        return parsed;
+    }
+
+    private Timer stageTimer(String stage, String operation) {
+        return Timer.builder("sheets.client.stage")
+                .description("Google Sheets call latency per stage")
+                .tag("stage", stage)
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 }
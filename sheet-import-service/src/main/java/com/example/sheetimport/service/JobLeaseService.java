@@ -0,0 +1,180 @@
+package com.example.sheetimport.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job leases in the job_lease table, so that of several replicas only one runs each job.
+ * <p>
+ * A lease is taken with one conditional upsert: it succeeds when the row is free, expired or already ours.
+ * The holder keeps it by renewing every {@code sheet-import.lease.renew-interval} on a thread of its own, so leases
+ * stay alive while a long import occupies the scheduler; if the replica dies, the lease expires after
+ * {@code sheet-import.lease.ttl} and the next tick of another replica takes over. Leases are released on shutdown,
+ * so a clean restart fails over at once.
+ * <p>
+ * Expiry is compared with {@code clock_timestamp()}, not {@code now()}: inside a long import transaction
+ * {@code now()} is the transaction's start time, at which an expired lease still looked valid. acquired_at and
+ * expires_at are timestamptz, so the comparison does not depend on the session TimeZone, which pgjdbc takes from
+ * each replica's JVM default zone.
+ * <p>
+ * The token is bumped on every change of owner. Writers call {@link #verify(Lease)} inside their transaction:
+ * it share-locks the lease row, so a replica that lost the lease cannot commit, and a takeover waits for an
+ * in-flight commit of the previous holder.
+ */
+@Component
+public class JobLeaseService {
+
+    private static final String ACQUIRE_SQL =
+            "INSERT INTO job_lease (name, owner, token, acquired_at, expires_at) " +
+            "VALUES (?, ?, 1, clock_timestamp(), clock_timestamp() + ? * interval '1 millisecond') " +
+            "ON CONFLICT (name) DO UPDATE SET " +
+            "token = CASE WHEN job_lease.owner = EXCLUDED.owner THEN job_lease.token ELSE job_lease.token + 1 END, " +
+            "acquired_at = CASE WHEN job_lease.owner = EXCLUDED.owner THEN job_lease.acquired_at ELSE clock_timestamp() END, " +
+            "owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at " +
+            "WHERE job_lease.owner = EXCLUDED.owner OR job_lease.expires_at < clock_timestamp() " +
+            "RETURNING token";
+
+    private static final String VERIFY_SQL =
+            "SELECT token FROM job_lease WHERE name = ? AND owner = ? AND token = ? AND expires_at > clock_timestamp() FOR SHARE";
+
+    // job_lease created before the columns were timestamptz
+    private static final String LOCAL_TIMESTAMP_COLUMNS_SQL =
+            "SELECT column_name FROM information_schema.columns WHERE table_schema = current_schema() " +
+            "AND table_name = 'job_lease' AND column_name IN ('acquired_at', 'expires_at') " +
+            "AND data_type = 'timestamp without time zone'";
+
+    private static final String RELEASE_SQL =
+            "UPDATE job_lease SET expires_at = clock_timestamp() WHERE name = ? AND owner = ? AND token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final ScheduledExecutorService renewer;
+
+    public JobLeaseService(JdbcTemplate jdbcTemplate,
+                           @Value("${sheet-import.lease.owner:}") String owner,
+                           @Value("${sheet-import.lease.ttl:PT45S}") Duration ttl,
+                           @Value("${sheet-import.lease.renew-interval:PT15S}") Duration renewInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        // pid@host plus a random suffix, so a restarted process never inherits its predecessor's lease
+        this.owner = (owner.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : owner)
+                + "/" + UUID.randomUUID().toString().substring(0, 8);
+        this.ttl = ttl;
+        // not on the task scheduler: its single thread is busy for as long as a job runs
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-renew");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = renewInterval.toMillis();
+        renewer.scheduleWithFixedDelay(this::renewHeld, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Converts the timestamp columns of an existing job_lease table to timestamptz. Old values are read in this
+     * session's zone, the zone they were written in when all replicas shared one; leases live for one ttl, so a
+     * mismatch only affects leases taken before the upgrade.
+     */
+    @PostConstruct
+    public void migrateTimestamps() {
+        try {
+            for (String column : jdbcTemplate.queryForList(LOCAL_TIMESTAMP_COLUMNS_SQL, String.class)) {
+                jdbcTemplate.execute("ALTER TABLE job_lease ALTER COLUMN " + column +
+                        " TYPE timestamp with time zone USING " + column + " AT TIME ZONE current_setting('TimeZone')");
+                System.out.println("Converted job_lease." + column + " to timestamp with time zone");
+            }
+        } catch (DataAccessException e) {
+            // e.g. another replica converting concurrently; the table is created as timestamptz when missing
+            System.out.println("Could not migrate job_lease timestamps: " + e.getMessage());
+        }
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * Takes or renews the lease on a job.
+     *
+     * @return the lease, or null when another replica holds it
+     */
+    public Lease tryAcquire(String job) {
+        List<Long> token = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class, job, owner, ttl.toMillis());
+        if (token.isEmpty()) {
+            if (held.remove(job) != null) {
+                System.out.println("Lost lease on " + job + " to another replica");
+            }
+            return null;
+        }
+        Lease previous = held.get(job);
+        Lease lease = new Lease(job, owner, token.get(0), previous == null || previous.token() != token.get(0));
+        held.put(job, lease);
+        if (lease.acquired()) {
+            System.out.println("Acquired lease on " + job + " as " + owner + ", token " + lease.token());
+        }
+        return lease;
+    }
+
+    public boolean isHeld(String job) {
+        return held.containsKey(job);
+    }
+
+    /**
+     * Fencing check; call inside the transaction that publishes the job's writes.
+     *
+     * @throws IllegalStateException if the lease expired or passed to another replica
+     */
+    public void verify(Lease lease) {
+        if (lease == null) return;
+        if (jdbcTemplate.queryForList(VERIFY_SQL, Long.class, lease.job(), lease.owner(), lease.token()).isEmpty()) {
+            held.remove(lease.job());
+            throw new IllegalStateException("Lease on " + lease.job() + " (token " + lease.token() + ") is no longer held");
+        }
+    }
+
+    // keep held leases alive during and between job runs; the heartbeat must be well inside the ttl
+    void renewHeld() {
+        for (String job : List.copyOf(held.keySet())) {
+            try {
+                tryAcquire(job);
+            } catch (Exception e) {
+                System.out.println("Could not renew lease on " + job + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        renewer.shutdownNow();
+        for (Lease lease : List.copyOf(held.values())) {
+            try {
+                jdbcTemplate.update(RELEASE_SQL, lease.job(), lease.owner(), lease.token());
+            } catch (Exception e) {
+                System.out.println("Could not release lease on " + lease.job() + ": " + e.getMessage());
+            }
+        }
+        held.clear();
+    }
+
+    /**
+     * @param acquired true when this call took the lease over (as opposed to renewing it); state cached
+     *                 while another replica was leader may be stale
+     */
+    public record Lease(String job, String owner, long token, boolean acquired) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.sheetimport.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Trading sessions and holidays of the exchange, loaded from {@code sheet-import.poll.calendar-file}
+ * (a properties file; see market-calendar.properties on the classpath for the format).
+ */
+@Component
+public class MarketCalendar {
+
+    // how far ahead nextSessionOpen looks before giving up (covers long holiday stretches)
+    private static final int MAX_LOOKAHEAD_DAYS = 30;
+
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final Set<DayOfWeek> weekend = EnumSet.noneOf(DayOfWeek.class);
+    private final Set<LocalDate> holidays = new HashSet<>();
+    private final Map<LocalDate, LocalTime[]> specialSessions = new HashMap<>();
+
+    public MarketCalendar(@Value("${sheet-import.poll.calendar-file:classpath:market-calendar.properties}")
+                          Resource calendarFile) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = calendarFile.getInputStream()) {
+            p.load(in);
+        }
+        zone = ZoneId.of(p.getProperty("zone", "Asia/Kolkata"));
+        open = LocalTime.parse(p.getProperty("session.open", "09:15"));
+        close = LocalTime.parse(p.getProperty("session.close", "15:30"));
+        for (String day : p.getProperty("weekend", "SATURDAY,SUNDAY").split(",")) {
+            if (!day.isBlank()) weekend.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+        }
+        for (String key : p.stringPropertyNames()) {
+            if (key.startsWith("holiday.")) {
+                holidays.add(LocalDate.parse(key.substring("holiday.".length())));
+            } else if (key.startsWith("special.")) {
+                String[] span = p.getProperty(key).split("-");
+                specialSessions.put(LocalDate.parse(key.substring("special.".length())),
+                        new LocalTime[]{LocalTime.parse(span[0].trim()), LocalTime.parse(span[1].trim())});
+            }
+        }
+        System.out.println("Market calendar: " + open + "-" + close + " " + zone + ", "
+                + holidays.size() + " holidays, " + specialSessions.size() + " special sessions");
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        return specialSessions.containsKey(date) || (!weekend.contains(date.getDayOfWeek()) && !holidays.contains(date));
+    }
+
+    public boolean isOpen(Instant instant) {
+        ZonedDateTime t = instant.atZone(zone);
+        LocalDate date = t.toLocalDate();
+        if (!isTradingDay(date)) return false;
+        LocalTime time = t.toLocalTime();
+        return !time.isBefore(sessionOpen(date)) && time.isBefore(sessionClose(date));
+    }
+
+    /**
+     * @return close of the session that is open at, or most recently ended before, the instant; null if none in range
+     */
+    public Instant lastSessionClose(Instant instant) {
+        ZonedDateTime t = instant.atZone(zone);
+        LocalDate date = t.toLocalDate();
+        for (int i = 0; i <= MAX_LOOKAHEAD_DAYS; i++, date = date.minusDays(1)) {
+            if (!isTradingDay(date)) continue;
+            Instant close = date.atTime(sessionClose(date)).atZone(zone).toInstant();
+            Instant open = date.atTime(sessionOpen(date)).atZone(zone).toInstant();
+            if (open.isBefore(instant) || open.equals(instant)) return close;
+        }
+        return null;
+    }
+
+    /**
+     * @return the next session open strictly after the instant; null if none within {@value #MAX_LOOKAHEAD_DAYS} days
+     */
+    public Instant nextSessionOpen(Instant instant) {
+        LocalDate date = instant.atZone(zone).toLocalDate();
+        for (int i = 0; i <= MAX_LOOKAHEAD_DAYS; i++, date = date.plusDays(1)) {
+            if (!isTradingDay(date)) continue;
+            Instant open = date.atTime(sessionOpen(date)).atZone(zone).toInstant();
+            if (open.isAfter(instant)) return open;
+        }
+        return null;
+    }
+
+    private LocalTime sessionOpen(LocalDate date) {
+        LocalTime[] special = specialSessions.get(date);
+        return special != null ? special[0] : open;
+    }
+
+    private LocalTime sessionClose(LocalDate date) {
+        LocalTime[] special = specialSessions.get(date);
+        return special != null ? special[1] : close;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.StockAnalytics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-ticker 64-bit fingerprint of the last written sheet content.
+ * <p>
+ * The hash covers name and the numeric columns but not lastUpdated/generation, so a poll
+ * that returns the same values produces the same fingerprint and the row is skipped.
+ * Fingerprints are persisted in stock_analytics.content_hash and reloaded on first use
+ * after a restart.
+ */
+@Component
+public class RowFingerprintCache {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // hashed in place of a null column so null and 0.0 differ
+    private static final long NULL_BITS = 0x7ff8dead7ff8beefL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public RowFingerprintCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stamps every row with its content hash and returns only those whose hash differs
+     * from the last written one. Call {@link #remember(List)} once the rows are committed.
+     */
+    public List<StockAnalytics> changedRows(List<StockAnalytics> rows) {
+        ensureLoaded();
+        List<StockAnalytics> changed = new ArrayList<>();
+        for (StockAnalytics row : rows) {
+            long hash = fingerprint(row);
+            row.setContentHash(hash);
+            Long previous = fingerprints.get(row.getTicker());
+            if (previous == null || previous != hash) {
+                changed.add(row);
+            }
+        }
+        return changed;
+    }
+
+    public void remember(List<StockAnalytics> committed) {
+        for (StockAnalytics row : committed) {
+            fingerprints.put(row.getTicker(), row.getContentHash());
+        }
+    }
+
+    /**
+     * Drops all fingerprints; they are reloaded from stock_analytics on next use.
+     */
+    public synchronized void invalidate() {
+        fingerprints.clear();
+        loaded = false;
+    }
+
+    public static long fingerprint(StockAnalytics s) {
+        long h = FNV_OFFSET;
+        String name = s.getName();
+        if (name != null) {
+            for (int i = 0; i < name.length(); i++) {
+                h = (h ^ name.charAt(i)) * FNV_PRIME;
+            }
+        }
+        h = mix(h, s.getCmp());
+        h = mix(h, s.getDailyChange());
+        h = mix(h, s.getCmp365());
+        h = mix(h, s.getRank1Year());
+        h = mix(h, s.getRank1Month());
+        h = mix(h, s.getRank2Month());
+        h = mix(h, s.getRank1Week());
+        h = mix(h, s.getMarketCap());
+        return h;
+    }
+
+    private static long mix(long h, Double value) {
+        long bits = value == null ? NULL_BITS : Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ (bits & 0xff)) * FNV_PRIME;
+            bits >>>= 8;
+        }
+        return h;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            jdbcTemplate.query("SELECT ticker, content_hash FROM stock_analytics WHERE content_hash IS NOT NULL",
+                    rs -> {
+                        fingerprints.put(rs.getString(1), rs.getLong(2));
+                    });
+            loaded = true;
+            System.out.println("Loaded " + fingerprints.size() + " row fingerprints from stock_analytics");
+        }
+    }
+}
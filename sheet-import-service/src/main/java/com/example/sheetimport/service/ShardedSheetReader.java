@@ -0,0 +1,108 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.StockAnalytics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a sheet as row-range shards instead of one large range.
+ * <p>
+ * Shards of {@code sheet-import.shard.rows} rows are grouped {@code ranges-per-request} at a time
+ * into batchGet calls; at most {@code fetch-concurrency} calls are in flight. Each shard is parsed
+ * on the parse pool as soon as its call returns. Results are joined in shard order, so the
+ * output is the same row order as a single-range read regardless of completion order.
+ */
+@Component
+public class ShardedSheetReader {
+
+    private final GoogleSheetService sheetService;
+    private final SheetRowParser rowParser;
+    private final ExecutorService fetchPool;
+    private final ExecutorService parsePool;
+
+    @Value("${sheet-import.shard.rows:1000}")
+    private int shardRows;
+
+    @Value("${sheet-import.shard.ranges-per-request:4}")
+    private int rangesPerRequest;
+
+    public ShardedSheetReader(GoogleSheetService sheetService,
+                              SheetRowParser rowParser,
+                              @Value("${sheet-import.shard.fetch-concurrency:3}") int fetchConcurrency,
+                              @Value("${sheet-import.shard.parse-threads:2}") int parseThreads) {
+        this.sheetService = sheetService;
+        this.rowParser = rowParser;
+        this.fetchPool = Executors.newFixedThreadPool(Math.max(1, fetchConcurrency), namedThreads("sheet-fetch"));
+        this.parsePool = Executors.newFixedThreadPool(Math.max(1, parseThreads), namedThreads("sheet-parse"));
+    }
+
+    /**
+     * @param sheetName sheet title, e.g. "Main"
+     * @param firstRow  first data row (1-based, after the header)
+     * @param columns   column span, e.g. "A:M" for Main!A{from}:M{to}
+     */
+    public List<StockAnalytics> readAndParse(String sheetName, int firstRow, String columns,
+                                             LocalDateTime now) throws Exception {
+        int lastRow = sheetService.getRowCount(sheetName);
+        String[] cols = columns.split(":");
+        int size = Math.max(1, shardRows);
+        int perRequest = Math.max(1, rangesPerRequest);
+
+        List<String> ranges = new ArrayList<>();
+        for (int from = firstRow; from <= lastRow; from += size) {
+            int to = Math.min(from + size - 1, lastRow);
+            ranges.add(sheetName + "!" + cols[0] + from + ":" + cols[1] + to);
+        }
+
+        List<CompletableFuture<List<StockAnalytics>>> shards = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i += perRequest) {
+            List<String> group = ranges.subList(i, Math.min(i + perRequest, ranges.size()));
+            CompletableFuture<List<List<List<Object>>>> fetched = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sheetService.batchReadSheet(group);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to read " + group, e);
+                }
+            }, fetchPool);
+
+            for (int j = 0; j < group.size(); j++) {
+                int shardIndex = j;
+                shards.add(fetched.thenApplyAsync(
+                        values -> rowParser.parseRows(values.get(shardIndex), now), parsePool));
+            }
+        }
+
+        List<StockAnalytics> result = new ArrayList<>();
+        for (CompletableFuture<List<StockAnalytics>> shard : shards) {
+            result.addAll(shard.join());
+        }
+        System.out.printf("Read %s rows %d-%d as %d shards in %d requests%n",
+                sheetName, firstRow, lastRow, ranges.size(), (ranges.size() + perRequest - 1) / perRequest);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchPool.shutdownNow();
+        parsePool.shutdownNow();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.StockAnalytics;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps "Main" sheet rows (columns A..M) to {@link StockAnalytics}.
+ * Stateless, safe to call from several worker threads.
+ */
+@Component
+public class SheetRowParser {
+
+    /**
+     * @return the parsed rows in input order; invalid rows are dropped
+     */
+    public List<StockAnalytics> parseRows(List<List<Object>> rows, LocalDateTime now) {
+        List<StockAnalytics> parsed = new ArrayList<>(rows.size());
+        for (List<Object> row : rows) {
+            StockAnalytics entity = parseRow(row, now);
+            if (entity != null) {
+                parsed.add(entity);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * @return the entity, or null when the row has no ticker or no numeric CMP
+     */
+    public StockAnalytics parseRow(List<Object> row, LocalDateTime now) {
+        if (row.size() < 10) {
+            return null;
+        }
+        String ticker = row.get(0).toString().trim();
+        // CMP is parsed once and doubles as the row validity check
+        double cmp = NumericCellParser.parse(row.get(2));
+        if (ticker.isEmpty() || Double.isNaN(cmp)) {
+            return null;
+        }
+        StockAnalytics entity = new StockAnalytics();
+        entity.setTicker(row.get(0).toString());
+        entity.setName(row.get(1).toString());
+        entity.setCmp(cmp);
+        entity.setDailyChange(NumericCellParser.parseOrNull(row.get(3)));
+        entity.setCmp365(NumericCellParser.parseOrNull(row.get(4)));
+        entity.setRank1Year(NumericCellParser.parseOrNull(row.get(5)));
+        entity.setRank1Month(NumericCellParser.parseOrNull(row.get(9)));
+        // the API trims trailing empty cells, so K..M may be missing
+        entity.setRank2Month(NumericCellParser.parseOrNull(cell(row, 10)));
+        entity.setRank1Week(NumericCellParser.parseOrNull(cell(row, 11)));
+        entity.setMarketCap(NumericCellParser.parseOrNull(cell(row, 12)));
+        entity.setLastUpdated(now);
+        return entity;
+    }
+
+    private static Object cell(List<Object> row, int index) {
+        return index < row.size() ? row.get(index) : null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.ImportGeneration;
+import com.example.sheetimport.model.StockAnalytics;
+import com.example.sheetimport.repository.GenerationCommitSequence;
+import com.example.sheetimport.repository.ImportGenerationRepository;
+import com.example.sheetimport.repository.MarketBreadthSeriesStore;
+import com.example.sheetimport.repository.StockAnalyticsBatchWriter;
+import com.example.sheetimport.repository.StockAnalyticsRepository;
+import com.example.sheetimport.repository.StockAnalyticsStagingLoader;
+import com.example.sheetimport.repository.StockPriceHistoryStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persists one poll's parsed rows as a new import generation.
+ * <p>
+ * Write modes ({@code sheet-import.write-mode}):
+ * <ul>
+ *   <li>{@code jpa} - legacy per-row repository.save</li>
+ *   <li>{@code batch} - JDBC batched INSERT ... ON CONFLICT</li>
+ *   <li>{@code staging} - COPY into a temp staging table, publish with one merge statement</li>
+ * </ul>
+ * Rows and the generation's committedAt are written in one transaction, so readers
+ * either see the whole generation or none of it.
+ * <p>
+ * With {@code sheet-import.delta-detection} on, only rows whose {@link RowFingerprintCache}
+ * hash changed are written; stock_analytics rows stamped with a generation id are exactly
+ * that generation's change set. A poll with no changes opens no generation.
+ * <p>
+ * Changed rows are also appended to stock_price_history ({@link StockPriceHistoryStore}) in the same transaction,
+ * and each committed generation appends one market_breadth_series point ({@link MarketBreadthSeriesStore}).
+ */
+@Service
+public class StockImportService {
+
+    private final StockAnalyticsRepository repository;
+    private final StockAnalyticsBatchWriter batchWriter;
+    private final StockAnalyticsStagingLoader stagingLoader;
+    private final ImportGenerationRepository generationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RowFingerprintCache fingerprintCache;
+    private final JobLeaseService leaseService;
+    private final StockPriceHistoryStore historyStore;
+    private final MarketBreadthSeriesStore breadthStore;
+    private final GenerationCommitSequence commitSequence;
+    private final DistributionSummary changedRowsSummary;
+
+    @Value("${sheet-import.write-mode:batch}")
+    private String writeMode;
+
+    @Value("${sheet-import.delta-detection:true}")
+    private boolean deltaDetection;
+
+    public StockImportService(StockAnalyticsRepository repository,
+                              StockAnalyticsBatchWriter batchWriter,
+                              StockAnalyticsStagingLoader stagingLoader,
+                              ImportGenerationRepository generationRepository,
+                              TransactionTemplate transactionTemplate,
+                              RowFingerprintCache fingerprintCache,
+                              JobLeaseService leaseService,
+                              StockPriceHistoryStore historyStore,
+                              MarketBreadthSeriesStore breadthStore,
+                              GenerationCommitSequence commitSequence,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.batchWriter = batchWriter;
+        this.stagingLoader = stagingLoader;
+        this.generationRepository = generationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fingerprintCache = fingerprintCache;
+        this.leaseService = leaseService;
+        this.historyStore = historyStore;
+        this.breadthStore = breadthStore;
+        this.commitSequence = commitSequence;
+        this.changedRowsSummary = DistributionSummary.builder("sheet_import.rows.changed")
+                .description("Rows per poll whose content differed from the previous poll")
+                .register(meterRegistry);
+    }
+
+    public ImportResult importRows(String source, List<StockAnalytics> rows) {
+        return importRows(source, rows, null);
+    }
+
+    /**
+     * @param source short label stored on the generation (e.g. "google-sheet")
+     * @param rows   parsed rows, unique by ticker
+     * @param lease  job lease the import runs under; verified before commit so a replica that
+     *               lost it cannot publish (null: no fencing)
+     */
+    public ImportResult importRows(String source, List<StockAnalytics> rows, JobLeaseService.Lease lease) {
+        String mode = writeMode.toLowerCase();
+        long start = System.nanoTime();
+
+        List<StockAnalytics> changed = deltaDetection ? fingerprintCache.changedRows(rows) : rows;
+        changedRowsSummary.record(changed.size());
+        if (changed.isEmpty()) {
+            return new ImportResult(null, mode, rows.size(), 0, System.nanoTime() - start, null);
+        }
+
+        ImportGeneration generation = openGeneration(source, mode);
+        Long generationId = generation.getId();
+        changed.forEach(r -> r.setGeneration(generationId));
+
+        if (historyStore.isEnabled()) {
+            historyStore.preparePartitions(changed);
+        }
+
+        ImportGeneration pending = generation;
+        StockAnalyticsBatchWriter.WriteStats batchStats = transactionTemplate.execute(status -> {
+            StockAnalyticsBatchWriter.WriteStats stats = null;
+            switch (mode) {
+                case "jpa" -> {
+                    changed.forEach(repository::save);
+                    // the breadth aggregate in commitGeneration reads stock_analytics over JDBC
+                    repository.flush();
+                }
+                case "staging" -> {
+                    try {
+                        stagingLoader.loadAndPublish(changed);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Staging load failed for generation " + generationId, e);
+                    }
+                }
+                default -> stats = batchWriter.upsertAll(changed);
+            }
+            if (historyStore.isEnabled()) {
+                historyStore.append(changed);
+            }
+
+            leaseService.verify(lease);
+            commitGeneration(pending, rows.size(), changed.size());
+            return stats;
+        });
+
+        if (deltaDetection) {
+            fingerprintCache.remember(changed);
+        }
+        return new ImportResult(generationId, mode, rows.size(), changed.size(),
+                System.nanoTime() - start, batchStats);
+    }
+
+    /**
+     * Forgets the delta-detection state, e.g. after taking over from another replica whose writes
+     * this process has not seen.
+     */
+    public void forgetFingerprints() {
+        fingerprintCache.invalidate();
+    }
+
+    /**
+     * Opens (but does not commit) a generation; its id can be stamped on rows before they are written.
+     */
+    public ImportGeneration openGeneration(String source, String mode) {
+        ImportGeneration generation = new ImportGeneration();
+        generation.setSource(source);
+        generation.setWriteMode(mode);
+        generation.setStartedAt(LocalDateTime.now());
+        return generationRepository.save(generation);
+    }
+
+    /**
+     * Marks the generation committed, with the next commit sequence number, and records its market breadth.
+     * Call inside the transaction that wrote its rows, so the rows, the breadth point and the commit marker
+     * become visible together; concurrent commits queue here until the transaction ends.
+     */
+    public void commitGeneration(ImportGeneration generation, int rowCount, int changedRows) {
+        generation.setRowCount(rowCount);
+        generation.setChangedRows(changedRows);
+        generation.setCommitSeq(commitSequence.next());
+        generation.setCommittedAt(LocalDateTime.now());
+        generationRepository.save(generation);
+        breadthStore.record(generation.getId(), generation.getCommittedAt());
+    }
+
+    /**
+     * @param generation null when nothing changed and no generation was opened
+     */
+    public record ImportResult(Long generation,
+                               String writeMode,
+                               int rows,
+                               int changedRows,
+                               long totalNanos,
+                               StockAnalyticsBatchWriter.WriteStats batchStats) {
+
+        public double rowsPerSecond() {
+            return totalNanos == 0 ? 0 : changedRows * 1_000_000_000.0 / totalNanos;
+        }
+
+        public String summary() {
+            if (generation == null) {
+                return String.format("%d rows, none changed since the last poll", rows);
+            }
+            String text = String.format("generation %d (%s): %d rows, %d changed, written in %.1f ms, %.0f rows/s",
+                    generation, writeMode, rows, changedRows, totalNanos / 1_000_000.0, rowsPerSecond());
+            if (batchStats != null) {
+                text += String.format(", %d batches, %.1f ms/batch avg, %.1f ms/batch max",
+                        batchStats.batches(), batchStats.avgBatchMillis(), batchStats.maxBatchMillis());
+            }
+            return text;
+        }
+    }
+}
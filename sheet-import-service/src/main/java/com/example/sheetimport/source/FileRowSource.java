@@ -0,0 +1,171 @@
+package com.example.sheetimport.source;
+
+import com.example.sheetimport.model.StockAnalytics;
+import com.example.sheetimport.model.SyncState;
+import com.example.sheetimport.repository.SyncStateRepository;
+import com.example.sheetimport.service.CsvTokenizer;
+import com.example.sheetimport.service.SheetRowParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Rows from CSV/TSV snapshots dropped into {@code sheet-import.file.dir}, laid out like
+ * the "Main" sheet (A..M, optional header row).
+ * <p>
+ * Each poll imports the oldest snapshot newer than the last one imported, so a directory
+ * of a day's snapshots replays in order, one per poll. The last imported snapshot is kept in
+ * sync_state once its import has committed, so a restart (or another replica taking over)
+ * carries on after it instead of replaying older snapshots over current prices. Files are
+ * streamed from a {@link FileChannel} through {@link CsvTokenizer}; only one record is held
+ * at a time.
+ */
+@Component
+public class FileRowSource implements StockRowSource {
+
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+
+    private static final String STATE_NAME = "file-source";
+
+    private final SheetRowParser rowParser;
+    private final SyncStateRepository syncStateRepository;
+
+    @Value("${sheet-import.file.dir:./import}")
+    private String directory;
+
+    @Value("${sheet-import.file.skip-header:true}")
+    private boolean skipHeader;
+
+    // snapshot returned by the last readRows, until its import commits
+    private Cursor pending;
+
+    public FileRowSource(SheetRowParser rowParser, SyncStateRepository syncStateRepository) {
+        this.rowParser = rowParser;
+        this.syncStateRepository = syncStateRepository;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized List<StockAnalytics> readRows(LocalDateTime now) throws Exception {
+        Optional<Path> next = nextSnapshot(lastImported());
+        if (next.isEmpty()) {
+            return null;
+        }
+        Path file = next.get();
+        FileTime modified = Files.getLastModifiedTime(file);
+        List<StockAnalytics> rows = parseFile(file, now);
+        pending = new Cursor(modified, file.toString());
+        System.out.println("Read " + rows.size() + " valid rows from " + file);
+        return rows;
+    }
+
+    @Override
+    public synchronized void imported() {
+        if (pending == null) return;
+        SyncState state = syncStateRepository.findById(STATE_NAME).orElseGet(() -> {
+            SyncState s = new SyncState();
+            s.setName(STATE_NAME);
+            return s;
+        });
+        state.setLastModified(pending.modified().toInstant().toString());
+        state.setEtag(pending.name());
+        state.setUpdatedAt(LocalDateTime.now());
+        syncStateRepository.save(state);
+        pending = null;
+    }
+
+    // read on every poll: another replica may have imported since
+    private Cursor lastImported() {
+        return syncStateRepository.findById(STATE_NAME)
+                .filter(s -> s.getLastModified() != null && s.getEtag() != null)
+                .map(s -> new Cursor(FileTime.from(Instant.parse(s.getLastModified())), s.getEtag()))
+                .orElse(new Cursor(FileTime.fromMillis(0), ""));
+    }
+
+    private Optional<Path> nextSnapshot(Cursor after) throws IOException {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(p -> delimiterFor(p) != 0)
+                    .filter(p -> isAfter(p, after))
+                    .min(Comparator.comparing(FileRowSource::modifiedTime).thenComparing(Path::toString));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockAnalytics> parseFile(Path file, LocalDateTime now) throws IOException {
+        List<StockAnalytics> parsed = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder()
+                     .onMalformedInput(CodingErrorAction.REPLACE)
+                     .onUnmappableCharacter(CodingErrorAction.REPLACE), READ_BUFFER_BYTES)) {
+            CsvTokenizer csv = new CsvTokenizer(reader, delimiterFor(file));
+            List<String> record = csv.nextRecord();
+            if (record != null && skipHeader && isHeader(record)) {
+                record = csv.nextRecord();
+            }
+            for (; record != null; record = csv.nextRecord()) {
+                StockAnalytics entity = rowParser.parseRow((List<Object>) (List<?>) record, now);
+                if (entity != null) {
+                    parsed.add(entity);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static boolean isAfter(Path file, Cursor cursor) {
+        int cmp = modifiedTime(file).compareTo(cursor.modified());
+        return cmp > 0 || (cmp == 0 && file.toString().compareTo(cursor.name()) > 0);
+    }
+
+    // header = first cell is a label rather than a ticker
+    private static boolean isHeader(List<String> record) {
+        return !record.isEmpty() && record.get(0).equalsIgnoreCase("ticker");
+    }
+
+    private static char delimiterFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) return ',';
+        if (name.endsWith(".tsv") || name.endsWith(".tab")) return '\t';
+        return 0;
+    }
+
+    private static FileTime modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    // (modification time, file name) of a snapshot
+    private record Cursor(FileTime modified, String name) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sheetimport.source;
+
+import com.example.sheetimport.model.StockAnalytics;
+import com.example.sheetimport.service.GoogleSheetService;
+import com.example.sheetimport.service.ShardedSheetReader;
+import com.example.sheetimport.service.SheetRowParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows from the "Main" sheet, read as one range or as shards ({@code sheet-import.fetch-mode}).
+ */
+@Component
+public class GoogleSheetRowSource implements StockRowSource {
+
+    private final GoogleSheetService sheetService;
+    private final ShardedSheetReader shardedReader;
+    private final SheetRowParser rowParser;
+
+    // "single" = one Main!A2:M read parsed on the calling thread, "sharded" = ShardedSheetReader
+    @Value("${sheet-import.fetch-mode:single}")
+    private String fetchMode;
+
+    public GoogleSheetRowSource(GoogleSheetService sheetService,
+                                ShardedSheetReader shardedReader,
+                                SheetRowParser rowParser) {
+        this.sheetService = sheetService;
+        this.shardedReader = shardedReader;
+        this.rowParser = rowParser;
+    }
+
+    @Override
+    public String name() {
+        return "google-sheet";
+    }
+
+    @Override
+    public List<StockAnalytics> readRows(LocalDateTime now) throws Exception {
+        return "sharded".equalsIgnoreCase(fetchMode)
+                ? shardedReader.readAndParse("Main", 2, "A:M", now)
+                : rowParser.parseRows(sheetService.readSheet("Main!A2:M"), now);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sheetimport.source;
+
+import com.example.sheetimport.model.StockAnalytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where SheetPollingJob gets its rows from. Implementations map their raw rows
+ * (columns laid out as on the "Main" sheet, A..M) through SheetRowParser, so every
+ * source feeds the same parse and persist pipeline.
+ */
+public interface StockRowSource {
+
+    /**
+     * @return the value of {@code sheet-import.source} that selects this source;
+     * also recorded on the import generation
+     */
+    String name();
+
+    /**
+     * @return parsed rows in source order, or null when there is nothing new to import
+     */
+    List<StockAnalytics> readRows(LocalDateTime now) throws Exception;
+
+    /**
+     * Called once the rows of the last {@link #readRows} call are committed, so a source that hands out
+     * successive inputs can move past that one; if the import fails, the next poll reads it again.
+     */
+    default void imported() {
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sheetimport.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Parses a full-market UDiFF bhavcopy (~3,000 securities, zipped and plain) with {@link BhavcopyParser}.
+ * Small real-layout fixtures for both formats are in src/test/resources/bhavcopy.
+ * <p>
+ * Run: {@code mvn test-compile} then run {@link #main} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BhavcopyParserBenchmark {
+
+    private static final int SECURITIES = 3_000;
+    private static final String HEADER = "TradDt,BizDt,Sgmt,Src,FinInstrmTp,FinInstrmId,ISIN,TckrSymb,SctySrs,XpryDt,"
+            + "FininstrmActlXpryDt,StrkPric,OptnTp,FinInstrmNm,OpnPric,HghPric,LwPric,ClsPric,LastPric,PrvsClsgPric,"
+            + "UndrlygPric,SttlmPric,OpnIntrst,ChngInOpnIntrst,TtlTradgVol,TtlTrfVal,TtlNbOfTxsExctd,SsnId,"
+            + "NewBrdLotQty,Rmks,Rsvd1,Rsvd2,Rsvd3,Rsvd4";
+
+    private Path csv;
+    private Path zip;
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = Files.createTempFile("bhavcopy", ".csv");
+        zip = Files.createTempFile("bhavcopy", ".csv.zip");
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writeMarket(out);
+        }
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("BhavCopy_NSE_CM_0_0_0_20240708_F_0000.csv"));
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writeMarket(writer);
+            // flushed, not closed: closing would close the zip stream before the entry is finished
+            writer.flush();
+            out.closeEntry();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(zip);
+    }
+
+    @Benchmark
+    public int parseCsv(Blackhole bh) throws IOException {
+        return BhavcopyParser.parse(csv, Set.of("EQ", "BE"), bh::consume);
+    }
+
+    @Benchmark
+    public int parseZip(Blackhole bh) throws IOException {
+        return BhavcopyParser.parse(zip, Set.of("EQ", "BE"), bh::consume);
+    }
+
+    private static void writeMarket(Writer out) throws IOException {
+        Random random = new Random(42);
+        out.write(HEADER);
+        out.write('\n');
+        for (int i = 0; i < SECURITIES; i++) {
+            double prev = 10 + random.nextDouble() * 5_000;
+            double close = prev * (0.9 + random.nextDouble() * 0.2);
+            String series = i % 10 == 0 ? "BE" : i % 17 == 0 ? "BL" : "EQ";
+            out.write(String.format("2024-07-08,2024-07-08,CM,NSE,STK,%d,INE%06dA01018,SYM%d,%s,,,,,SECURITY %d LTD,"
+                            + "%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,,%.2f,,,%d,%.2f,%d,F1,1,,,,,%n",
+                    i, i, i, series, i, prev, close * 1.02, close * 0.98, close, close, prev, close,
+                    random.nextInt(5_000_000), close * 1000, random.nextInt(100_000)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BhavcopyParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.sheetimport.service;
+
+import com.example.sheetimport.model.BhavcopyRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link BhavcopyParser} on the fixtures in src/test/resources/bhavcopy: the legacy layout (cm08JUL2024bhav.csv)
+ * and the UDiFF layout (BhavCopy_NSE_CM_..._20240708_F_0000.csv) of the same trading day.
+ */
+class BhavcopyParserTest {
+
+    private static final Set<String> EQ_BE = Set.of("EQ", "BE");
+    private static final LocalDate TRADE_DATE = LocalDate.of(2024, 7, 8);
+
+    @Test
+    void parsesLegacyLayout() throws Exception {
+        Map<String, BhavcopyRecord> records = parse("cm08JUL2024bhav.csv", EQ_BE);
+
+        // INFY is in the BL (block deal) series only
+        assertEquals(List.of("20MICRONS", "RELIANCE", "TCS", "AARTIIND"), new ArrayList<>(records.keySet()));
+        BhavcopyRecord reliance = records.get("RELIANCE");
+        assertEquals("EQ", reliance.series());
+        assertEquals(TRADE_DATE, reliance.tradeDate());
+        assertEquals(3185.0, reliance.open());
+        assertEquals(3200.6, reliance.high());
+        assertEquals(3152.05, reliance.low());
+        assertEquals(3170.8, reliance.close());
+        assertEquals(3190.4, reliance.prevClose());
+        assertEquals(3581233, reliance.volume());
+        assertEquals(204412, reliance.trades());
+        assertEquals("INE002A01018", reliance.isin());
+        assertEquals(-0.61, reliance.changePercent());
+        assertEquals("BE", records.get("AARTIIND").series());
+        assertEquals(685.4, records.get("AARTIIND").close());
+    }
+
+    @Test
+    void parsesUdiffLayout() throws Exception {
+        Map<String, BhavcopyRecord> records = parse("BhavCopy_NSE_CM_0_0_0_20240708_F_0000.csv", EQ_BE);
+
+        assertEquals(List.of("RELIANCE", "TCS", "20MICRONS"), new ArrayList<>(records.keySet()));
+        BhavcopyRecord tcs = records.get("TCS");
+        assertEquals("EQ", tcs.series());
+        assertEquals(TRADE_DATE, tcs.tradeDate());
+        assertEquals(4003.1, tcs.close());
+        assertEquals(3966.55, tcs.prevClose());
+        assertEquals(1593027, tcs.volume());
+        assertEquals(98711, tcs.trades());
+        assertEquals("INE467B01029", tcs.isin());
+    }
+
+    @Test
+    void bothLayoutsAgree() throws Exception {
+        Map<String, BhavcopyRecord> legacy = parse("cm08JUL2024bhav.csv", EQ_BE);
+        Map<String, BhavcopyRecord> udiff = parse("BhavCopy_NSE_CM_0_0_0_20240708_F_0000.csv", EQ_BE);
+        for (String symbol : udiff.keySet()) {
+            BhavcopyRecord a = legacy.get(symbol);
+            BhavcopyRecord b = udiff.get(symbol);
+            assertEquals(a.tradeDate(), b.tradeDate(), symbol);
+            assertEquals(a.open(), b.open(), symbol);
+            assertEquals(a.high(), b.high(), symbol);
+            assertEquals(a.low(), b.low(), symbol);
+            assertEquals(a.close(), b.close(), symbol);
+            assertEquals(a.last(), b.last(), symbol);
+            assertEquals(a.prevClose(), b.prevClose(), symbol);
+            assertEquals(a.volume(), b.volume(), symbol);
+            assertEquals(a.turnover(), b.turnover(), symbol);
+            assertEquals(a.trades(), b.trades(), symbol);
+            assertEquals(a.isin(), b.isin(), symbol);
+        }
+    }
+
+    @Test
+    void emptySeriesFilterKeepsEverySeries() throws Exception {
+        Map<String, BhavcopyRecord> records = parse("cm08JUL2024bhav.csv", Set.of());
+        assertEquals(5, records.size());
+        assertEquals("BL", records.get("INFY").series());
+    }
+
+    @Test
+    void readsTheCsvInsideAZip() throws Exception {
+        Path file = fixture("BhavCopy_NSE_CM_0_0_0_20240708_F_0000.csv");
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(zipped)) {
+            zip.putNextEntry(new ZipEntry(file.getFileName().toString()));
+            zip.write(Files.readAllBytes(file));
+            zip.closeEntry();
+        }
+        List<BhavcopyRecord> records = new ArrayList<>();
+        int count;
+        try (InputStream in = new ByteArrayInputStream(zipped.toByteArray())) {
+            count = BhavcopyParser.parse(in, EQ_BE, records::add);
+        }
+        assertEquals(3, count);
+        assertEquals(new ArrayList<>(parse(file.getFileName().toString(), EQ_BE).values()), records);
+    }
+
+    private static Map<String, BhavcopyRecord> parse(String fixture, Set<String> series) throws IOException {
+        Map<String, BhavcopyRecord> records = new LinkedHashMap<>();
+        int count = BhavcopyParser.parse(fixture(fixture), series, r -> records.put(r.symbol(), r));
+        assertEquals(records.size(), count);
+        return records;
+    }
+
+    private static Path fixture(String name) {
+        try {
+            return Paths.get(BhavcopyParserTest.class.getResource("/bhavcopy/" + name).toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException("Missing fixture " + name, e);
+        }
+    }
+}
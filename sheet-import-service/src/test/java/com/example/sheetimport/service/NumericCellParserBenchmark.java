@@ -0,0 +1,88 @@
+package com.example.sheetimport.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NumericCellParser} with the previous replaceAll + Double.parseDouble cell parsing
+ * over a mix of sheet cells (thousands separators, decimals, percentages, blanks, #N/A).
+ * <p>
+ * Run: {@code mvn test-compile} then run {@link #main} from the IDE, or
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.example.sheetimport.service.NumericCellParserBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericCellParserBenchmark {
+
+    // one poll's worth of numeric cells: ~2,500 rows x 10 columns
+    private static final int CELLS = 25_000;
+
+    private Object[] cells;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        cells = new Object[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                cells[i] = "#N/A";
+            } else if (kind == 1) {
+                cells[i] = "";
+            } else if (kind == 2) {
+                cells[i] = String.format("%.2f%%", (random.nextDouble() - 0.5) * 20);
+            } else if (kind < 8) {
+                cells[i] = String.format("%,.2f", random.nextDouble() * 2_000_000);
+            } else {
+                cells[i] = String.format("%.2f", (random.nextDouble() - 0.5) * 200);
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyReplaceAllParse(Blackhole bh) {
+        for (Object cell : cells) {
+            bh.consume(legacyParseDouble(cell));
+        }
+    }
+
+    @Benchmark
+    public void numericCellParser(Blackhole bh) {
+        for (Object cell : cells) {
+            bh.consume(NumericCellParser.parse(cell));
+        }
+    }
+
+    // previous SheetPollingJob.parseDouble
+    private static Double legacyParseDouble(Object obj) {
+        try {
+            return obj != null ? Double.parseDouble(obj.toString().replaceAll(",", "")) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NumericCellParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
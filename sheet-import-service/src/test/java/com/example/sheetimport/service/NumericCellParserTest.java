@@ -0,0 +1,138 @@
+package com.example.sheetimport.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link NumericCellParser} against the previous cell parsing (commas removed, then Double.parseDouble, null on
+ * NumberFormatException): the same value, bit for bit, for every cell the old code accepted, and the deliberate
+ * differences (percentages, separators outside the integer part, Java-only literals, Float cells).
+ */
+class NumericCellParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0", "-0", "+0", "0.0", "-0.0", "007", "1", "-1", "+1", "42", "3.14159", "-273.15", ".5", "5.", "-.5",
+            "1,234", "1,234,567.89", "-12,345.6", "1,,2", ",5",
+            "1e3", "1E3", "1.5e-3", "-2.5E+10", "1e22", "1e23", "1e-22", "1e-23", "1e308", "1e309", "1e-400",
+            "4.9e-324", "1.7976931348623157E308", "0e999999", "9007199254740993", "123456789012345678901234567890",
+            "0.1", "0.30000000000000004", "123456789012345", "1234567890123456", "12345678901234567890",
+            " 42 ", "\t1,000\n", "",
+            " ", "#N/A", "#VALUE!", "#DIV/0!", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1-2", "+-5", "- 5",
+            "12a", "N/A", "--"
+    })
+    void matchesLegacyParsing(String cell) {
+        assertEquals(legacyParseDouble(cell), NumericCellParser.parseOrNull(cell), cell);
+    }
+
+    @Test
+    void matchesLegacyParsingOfNullAndNumbers() {
+        assertNull(NumericCellParser.parseOrNull(null));
+        for (Object cell : new Object[]{7, -3L, 2.5, 1.0e-7}) {
+            assertEquals(legacyParseDouble(cell), NumericCellParser.parseOrNull(cell), cell.toString());
+        }
+        // a Float is widened as is, not re-read from its shortest decimal form
+        assertEquals((double) 1.0e-7f, NumericCellParser.parseOrNull(1.0e-7f));
+    }
+
+    static Stream<Arguments> differences() {
+        return Stream.of(
+                // percentages keep their points rather than being dropped
+                Arguments.of("12.5%", 12.5),
+                Arguments.of("-3%", -3.0),
+                Arguments.of("1,234.5%", 1234.5),
+                Arguments.of("%", null),
+                // ',' only separates thousands in the integer part
+                Arguments.of("1,234.5,6", null),
+                Arguments.of("1e5,0", null),
+                // Java literal syntax that is not a sheet number
+                Arguments.of("NaN", null),
+                Arguments.of("Infinity", null),
+                Arguments.of("-Infinity", null),
+                Arguments.of("1d", null),
+                Arguments.of("2.5f", null),
+                Arguments.of("0x1p3", null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("differences")
+    void differsFromLegacyParsingOnlyWhereIntended(String cell, Double expected) {
+        assertEquals(expected, NumericCellParser.parseOrNull(cell), cell);
+    }
+
+    @Test
+    void matchesLegacyParsingOnRandomCells() {
+        Random random = new Random(11);
+        for (int n = 0; n < 200_000; n++) {
+            String cell = randomCell(random);
+            if (cell.endsWith("%")) {
+                String number = cell.substring(0, cell.length() - 1);
+                assertEquals(legacyParseDouble(number), NumericCellParser.parseOrNull(cell), cell);
+            } else {
+                assertEquals(legacyParseDouble(cell), NumericCellParser.parseOrNull(cell), cell);
+            }
+        }
+    }
+
+    private static String randomCell(Random random) {
+        switch (random.nextInt(7)) {
+            case 0:
+                // any double, including Double.toString's "1.0E-5" form and 17 significant digits
+                double value = Double.longBitsToDouble(random.nextLong());
+                return Double.isNaN(value) || Double.isInfinite(value) ? "0" : Double.toString(value);
+            case 1:
+                return String.format(Locale.ROOT, "%,.2f", random.nextDouble() * 2_000_000);
+            case 2:
+                return String.format(Locale.ROOT, "%.2f%%", (random.nextDouble() - 0.5) * 20);
+            case 3:
+                return String.format(Locale.ROOT, "%." + random.nextInt(8) + "f", (random.nextDouble() - 0.5) * 200);
+            case 4:
+                return Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(60) - 30));
+            default: {
+                // random digits, points, separators (integer part only) and exponent, valid or not
+                StringBuilder sb = new StringBuilder();
+                if (random.nextInt(4) == 0) sb.append(random.nextBoolean() ? '-' : '+');
+                int length = 1 + random.nextInt(random.nextInt(5) == 0 ? 25 : 10);
+                boolean seenPoint = false;
+                for (int i = 0; i < length; i++) {
+                    int k = random.nextInt(40);
+                    if (k < 34 || (k < 36 && seenPoint)) {
+                        sb.append((char) ('0' + k % 10));
+                    } else if (k < 36) {
+                        sb.append(',');
+                    } else if (k < 39) {
+                        sb.append('.');
+                        seenPoint = true;
+                    } else {
+                        sb.append('x');
+                    }
+                }
+                if (random.nextInt(4) == 0) {
+                    sb.append(random.nextBoolean() ? 'e' : 'E');
+                    if (random.nextBoolean()) sb.append(random.nextBoolean() ? '-' : '+');
+                    sb.append(random.nextInt(random.nextInt(3) == 0 ? 400 : 30));
+                }
+                return sb.toString();
+            }
+        }
+    }
+
+    // previous SheetPollingJob.parseDouble
+    private static Double legacyParseDouble(Object obj) {
+        try {
+            return obj != null ? Double.parseDouble(obj.toString().replaceAll(",", "")) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}